@@ -0,0 +1,173 @@
+import javax.swing.*;
+import java.awt.*;
+import java.io.*;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.List;
+
+// 이미지, 키워드 파일 등을 하나로 묶은 에셋 아카이브 (assets.pak)
+// 파일 전체를 메모리 매핑해 두고, 요청이 올 때 해당 엔트리만 디코딩함
+// 아카이브가 없으면 기존처럼 클래스패스 리소스를 사용
+//
+// 형식 : [MAGIC][VERSION][엔트리 수] { [이름 길이][이름][오프셋][길이] } ... [데이터]
+// 만들기 : java AssetArchive assets.pak src keywords.txt
+public class AssetArchive {
+    private static final int MAGIC = 0x434C504B; // "CLPK"
+    private static final int VERSION = 1;
+    private static final String DEFAULT_FILE = "assets.pak";
+
+    private static AssetArchive defaultArchive;
+
+    private final MappedByteBuffer buffer;
+    private final Map<String, int[]> entries = new HashMap<>(); // 이름 -> {오프셋, 길이}
+
+    private AssetArchive(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("에셋 아카이브 형식이 아닙니다 : " + file);
+        }
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[buffer.getShort()];
+            buffer.get(name);
+            int offset = buffer.getInt();
+            int length = buffer.getInt();
+            entries.put(new String(name, StandardCharsets.UTF_8), new int[]{offset, length});
+        }
+    }
+
+    // 작업 폴더의 assets.pak (없거나 읽을 수 없으면 null)
+    public static synchronized AssetArchive getDefault() {
+        if (defaultArchive == null) {
+            File file = new File(DEFAULT_FILE);
+            if (!file.isFile()) return null;
+            try {
+                defaultArchive = new AssetArchive(file);
+                System.out.println("에셋 아카이브 로드 : " + file + " (" + defaultArchive.entries.size() + "개)");
+            } catch (IOException e) {
+                System.err.println("에셋 아카이브를 열 수 없습니다. 리소스를 직접 읽습니다 : " + e.getMessage());
+                return null;
+            }
+        }
+        return defaultArchive;
+    }
+
+    public boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    // 엔트리를 복사 없이 가리키는 읽기 전용 버퍼
+    public ByteBuffer slice(String name) {
+        int[] entry = entries.get(name);
+        if (entry == null) return null;
+        ByteBuffer view = buffer.duplicate();
+        view.position(entry[0]).limit(entry[0] + entry[1]);
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    public byte[] read(String name) {
+        ByteBuffer view = slice(name);
+        if (view == null) return null;
+        byte[] bytes = new byte[view.remaining()];
+        view.get(bytes);
+        return bytes;
+    }
+
+    public String readText(String name) {
+        ByteBuffer view = slice(name);
+        return view == null ? null : StandardCharsets.UTF_8.decode(view).toString();
+    }
+
+    // 아카이브에 있으면 아카이브에서, 없으면 클래스패스에서 이미지를 읽음
+    public static ImageIcon loadIcon(String path) {
+        AssetArchive archive = getDefault();
+        if (archive != null) {
+            byte[] bytes = archive.read(path);
+            if (bytes != null) {
+                return new ImageIcon(Toolkit.getDefaultToolkit().createImage(bytes));
+            }
+        }
+        URL url = AssetArchive.class.getResource(path);
+        if (url == null) {
+            System.err.println("이미지 파일을 찾을 수 없습니다 : " + path);
+            return null;
+        }
+        return new ImageIcon(url);
+    }
+
+    // 파일과 폴더를 아카이브로 묶음 (폴더 안의 파일은 "/images/a.png"처럼 폴더 기준 경로로 저장)
+    public static void pack(File out, File... sources) throws IOException {
+        Map<String, File> files = new TreeMap<>();
+        for (File source : sources) {
+            if (source.isDirectory()) {
+                collect(source, source, files);
+            } else if (source.isFile()) {
+                files.put(source.getName(), source);
+            }
+        }
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerOut = new DataOutputStream(header);
+        int headerSize = 12;
+        for (String name : files.keySet()) {
+            headerSize += 2 + name.getBytes(StandardCharsets.UTF_8).length + 8;
+        }
+        headerOut.writeInt(MAGIC);
+        headerOut.writeInt(VERSION);
+        headerOut.writeInt(files.size());
+
+        int offset = headerSize;
+        List<byte[]> contents = new ArrayList<>();
+        for (Map.Entry<String, File> entry : files.entrySet()) {
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            byte[] content = java.nio.file.Files.readAllBytes(entry.getValue().toPath());
+            headerOut.writeShort(name.length);
+            headerOut.write(name);
+            headerOut.writeInt(offset);
+            headerOut.writeInt(content.length);
+            contents.add(content);
+            offset += content.length;
+        }
+
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(out))) {
+            header.writeTo(os);
+            for (byte[] content : contents) {
+                os.write(content);
+            }
+        }
+        System.out.println("에셋 아카이브 생성 : " + out + " (" + files.size() + "개, " + offset + " bytes)");
+    }
+
+    private static void collect(File root, File dir, Map<String, File> files) {
+        File[] children = dir.listFiles();
+        if (children == null) return;
+        for (File child : children) {
+            if (child.isDirectory()) {
+                collect(root, child, files);
+            } else if (!child.getName().endsWith(".java")) {
+                String name = root.toPath().relativize(child.toPath()).toString().replace(File.separatorChar, '/');
+                if (name.startsWith("META-INF/")) continue;
+                files.put("/" + name, child);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("사용법 : java AssetArchive <출력 파일> <파일 또는 폴더>...");
+            return;
+        }
+        File[] sources = new File[args.length - 1];
+        for (int i = 1; i < args.length; i++) {
+            sources[i - 1] = new File(args[i]);
+        }
+        pack(new File(args[0]), sources);
+    }
+}
@@ -0,0 +1,123 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 게임방 채팅 화면
+// - 최근 CAPACITY개 메시지만 링 버퍼에 보관 (오래된 메시지는 버림)
+// - JList라서 화면에 보이는 줄만 그림
+// - 한 프레임(약 16ms) 동안 들어온 메시지는 모아서 한 번에 추가하고 스크롤도 한 번만 함
+public class ChatView extends JScrollPane {
+    private static final int CAPACITY = 200;
+    private static final int FRAME_MILLIS = 16;
+    private static final int TEXT_WIDTH = 115; // 줄바꿈 기준 폭 (px)
+
+    private final ChatListModel model = new ChatListModel(CAPACITY);
+    private final JList<String> list = new JList<>(model);
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final Timer flushTimer;
+
+    public ChatView() {
+        list.setCellRenderer(new ChatCellRenderer());
+        list.setFocusable(false);
+        list.setSelectionModel(new DefaultListSelectionModel() {
+            @Override
+            public void setSelectionInterval(int index0, int index1) {} // 선택 불가
+        });
+        setViewportView(list);
+        setHorizontalScrollBarPolicy(HORIZONTAL_SCROLLBAR_NEVER);
+
+        flushTimer = new Timer(FRAME_MILLIS, e -> flush());
+        flushTimer.setRepeats(false);
+    }
+
+    // 아무 스레드에서나 호출 가능. 실제 반영은 다음 프레임에 EDT에서 한 번에 처리
+    public void append(String msg) {
+        pending.add(msg);
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(flushTimer::restart);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        int count = 0;
+        String msg;
+        while ((msg = pending.poll()) != null) {
+            model.push(msg);
+            count++;
+        }
+        if (count == 0) return;
+        model.fireAppended(count);
+        list.ensureIndexIsVisible(model.getSize() - 1);
+    }
+
+    public void clear() {
+        pending.clear();
+        model.clear();
+    }
+
+    // 고정 크기 링 버퍼 리스트 모델
+    private static class ChatListModel extends AbstractListModel<String> {
+        private final String[] buffer;
+        private int head = 0; // 가장 오래된 메시지 위치
+        private int size = 0;
+        private int reportedSize = 0; // 리스너에게 마지막으로 알린 크기
+
+        ChatListModel(int capacity) {
+            buffer = new String[capacity];
+        }
+
+        void push(String msg) {
+            if (size < buffer.length) {
+                buffer[(head + size) % buffer.length] = msg;
+                size++;
+            } else {
+                buffer[head] = msg;
+                head = (head + 1) % buffer.length;
+            }
+        }
+
+        // push를 모아서 한 번에 알림 (밀려난 줄 제거 + 새 줄 추가)
+        void fireAppended(int count) {
+            int added = Math.min(count, size);
+            int removed = reportedSize - (size - added); // 남아 있는 기존 줄을 뺀 나머지
+            reportedSize = size;
+            if (removed > 0) {
+                fireIntervalRemoved(this, 0, removed - 1);
+            }
+            fireIntervalAdded(this, size - added, size - 1);
+        }
+
+        void clear() {
+            int oldSize = reportedSize;
+            java.util.Arrays.fill(buffer, null);
+            head = 0;
+            size = 0;
+            reportedSize = 0;
+            if (oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+
+        @Override
+        public int getSize() { return size; }
+
+        @Override
+        public String getElementAt(int index) {
+            return buffer[(head + index) % buffer.length];
+        }
+    }
+
+    // 긴 메시지는 폭에 맞춰 줄바꿈
+    private static class ChatCellRenderer extends DefaultListCellRenderer {
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+            String text = "<html><body style='width:" + TEXT_WIDTH + "px'>" + escape(String.valueOf(value)) + "</body></html>";
+            return super.getListCellRendererComponent(list, text, index, false, false);
+        }
+
+        private static String escape(String text) {
+            return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        }
+    }
+}
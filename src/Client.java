@@ -9,22 +9,22 @@ public class Client extends JFrame {
     private ClientManager clientManager;
     private StartPanel startPanel;
     private SelectRoomPanel selectRoomPanel;
-    private GameRoomPanel gameRoomPanel;
-    private GamePanel gamePanel;
+    private GameRoomPanel gameRoomPanel; // 한 번 만들고 방을 옮길 때마다 초기화해서 재사용
+    private String serverAddress;
+    private int serverPort;
 
     public Client(){
         super("캐치 라이어");
 
         // 서버 설정 파일 읽기
         String[] serverConfig = readServerConfig();
-        String serverAddress = serverConfig[0];
-        int serverPort = Integer.parseInt(serverConfig[1]);
+        serverAddress = serverConfig[0];
+        serverPort = Integer.parseInt(serverConfig[1]);
 
         clientManager = new ClientManager(serverAddress, serverPort, this);
 
         startPanel = new StartPanel(clientManager);
         selectRoomPanel = new SelectRoomPanel(clientManager);
-        gamePanel = new GamePanel(clientManager);
 
         buildGUI();
 
@@ -47,25 +47,41 @@ public class Client extends JFrame {
 
         revalidate();
         repaint();
+        clientManager.sendLeaderboardRequest(); // 로비에 들어올 때마다 최신 순위표 요청
+    }
+
+    public void updateLeaderboard(String text) {
+        selectRoomPanel.setLeaderboard(text);
     }
 
     // 게임 화면으로 전환
     public void changeGameRoomPanel(GameMsg inMsg) {
-        getContentPane().removeAll();
-        gameRoomPanel = new GameRoomPanel(clientManager, inMsg);
-        getContentPane().add(gameRoomPanel);
+        long start = System.nanoTime();
+        boolean reused = gameRoomPanel != null;
+        if (reused) {
+            gameRoomPanel.reset(inMsg);
+        } else {
+            gameRoomPanel = new GameRoomPanel(clientManager, inMsg);
+        }
+        if (gameRoomPanel.getParent() != getContentPane()) {
+            getContentPane().removeAll();
+            getContentPane().add(gameRoomPanel);
+        }
 
         revalidate();
         repaint();
+        System.out.println("[방 전환] " + inMsg.message + " 방 " + (reused ? "(재사용) " : "(새로 생성) ")
+                + (System.nanoTime() - start) / 1000 + "us");
     }
 
     // 시작 화면으로 전환
     public void changeStartPanel() {
         try {
             // 새로운 ClientManager 생성
-            clientManager = new ClientManager("localhost", 54321, this);
+            clientManager = new ClientManager(serverAddress, serverPort, this);
             startPanel = new StartPanel(clientManager);
             selectRoomPanel = new SelectRoomPanel(clientManager);
+            gameRoomPanel = null; // 이전 ClientManager를 참조하므로 다음 입장 때 새로 만듦
 
             getContentPane().removeAll();
             getContentPane().add(startPanel);
@@ -102,6 +118,27 @@ public class Client extends JFrame {
         }
     }
 
+    // 새로 들어온 유저 한 명만 추가
+    public void addUserToRoom(User user) {
+        if(gameRoomPanel != null) {
+            gameRoomPanel.addUserPanel(user.getName());
+        }
+    }
+
+    // 나간 유저 한 명만 제거
+    public void removeUserFromRoom(User user) {
+        if(gameRoomPanel != null) {
+            gameRoomPanel.removeUserPanel(user.getName());
+        }
+    }
+
+    // 유저 한 명의 준비 상태만 변경
+    public void updateUserReady(User user, boolean ready) {
+        if(gameRoomPanel != null) {
+            gameRoomPanel.setUserReady(user.getName(), ready);
+        }
+    }
+
     // 준비 완료 유저 목록 업데이트
     public void updateReadyToRoom(Vector<User> readyUsers, User user) {
         if(gameRoomPanel != null) {
@@ -142,7 +179,7 @@ public class Client extends JFrame {
 
         switch (inMsg.mode) {
             case GameMsg.ROOM_SELECT_DENIED:
-                message = "방이 꽉 찼습니다. 다른 방으로 입장해주세요!";
+                message = inMsg.message != null ? inMsg.message : "방이 꽉 찼습니다. 다른 방으로 입장해주세요!"; // 관전 거절은 서버가 사유를 보냄
                 messageType = JOptionPane.WARNING_MESSAGE;
                 break;
             case GameMsg.GAME_READY_OK:
@@ -170,10 +207,11 @@ public class Client extends JFrame {
     }
 
     public GamePanel getGamePanel() {
-        if (gamePanel == null) {
+        if (gameRoomPanel == null) {
             System.out.println("GamePanel is null!");
+            return null;
         }
-        return gamePanel;
+        return gameRoomPanel.gamePanel;
     }
 
 
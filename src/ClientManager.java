@@ -2,9 +2,19 @@ import javax.swing.*;
 import java.awt.*;
 import java.io.*;
 import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ClientManager {
     private String serverAddress;
@@ -14,6 +24,7 @@ public class ClientManager {
     private Socket socket;
     private ObjectOutputStream out;
     private ObjectInputStream in;
+    private Compression.Output compressedOut;
     private Thread receiveThread;
 
     private User user;
@@ -21,67 +32,298 @@ public class ClientManager {
     private String roomName;
     private Vector<User> userNames = new Vector<>();
     private Vector<User> readyUsers = new Vector<>();
+    private int roomVersion = 0; // 마지막으로 반영한 방 상태 버전
+    private boolean roomStateRequested = false;
+    private boolean spectating = false; // 관전 중 (서버가 지연 중계를 보냄)
+
+    // 재접속 : 로그인 때 받은 토큰으로 끊긴 세션을 이어받음
+    private static final long RESUME_TIMEOUT_MILLIS = 30_000; // 서버가 자리를 유지하는 시간과 같게
+    private static final long[] RECONNECT_BACKOFF = {200, 500, 1000, 2000, 4000}; // ms
+    private String resumeToken;
+    private volatile boolean closing = false; // 로그아웃 중이면 끊겨도 다시 연결하지 않음
+    private volatile long connectionLostAt = 0; // nanoTime, 0이면 연결 중
+    private volatile long lastResumeMillis = -1; // 연결이 끊긴 뒤 다시 게임을 이어 갈 수 있을 때까지 걸린 시간
+
+    // 수신 메시지는 큐에 모았다가 프레임(약 16ms)마다 EDT에서 한 번에 처리
+    private static final int FRAME_MILLIS = 16;
+    private final ConcurrentLinkedQueue<GameMsg> inbound = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inboundDepth = new AtomicInteger();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final Timer drainTimer = new Timer(FRAME_MILLIS, e -> drainInbound());
+    private long lastDrainMillis = 0;
+    private volatile long lastFrameApplyNanos = 0;
+    private volatile long maxFrameApplyNanos = 0;
+    private volatile int lastFrameMessageCount = 0;
+    private volatile int maxInboundDepth = 0;
+
+    // 서버 전송 레인(PrioritySender.CONTROL/BULK/STROKE/TICK 등)별 서버 큐 대기 시간 (us)
+    private static final long SLOW_CONTROL_MICROS = 100_000;
+    private final long[] laneLastDelays = new long[PrioritySender.LANE_COUNT];
+    private final long[] laneMaxDelays = new long[PrioritySender.LANE_COUNT];
+    private final long[] laneCounts = new long[PrioritySender.LANE_COUNT];
+
+    // 획 미리보기 UDP (StrokeDatagram) : 로그인 응답에 포트가 있으면 HELLO를 보내고, HELLO_ACK를 받은 뒤부터
+    // 그리는 구간은 UDP로 보내고 모아 두었다가 STROKE_COMMIT으로 확정. 채널은 한 번 열면 재접속해도 계속 씀
+    private static final int HELLO_ATTEMPTS = 5;
+    private static final long HELLO_INTERVAL_MILLIS = 200;
+    private volatile DatagramChannel udpChannel = null;
+    private volatile boolean udpReady = false;
+    private volatile long udpKey = 0;
+    private final ByteBuffer udpPacket = ByteBuffer.allocate(StrokeDatagram.MAX_PACKET); // 보내기용 (EDT)
+    private int nextSeq = 1;
+    private final ArrayList<Paint> uncommitted = new ArrayList<>(); // UDP로만 보낸 구간 (순번 uncommittedFirstSeq부터)
+    private int uncommittedFirstSeq;
+    private long uncommittedSince;
+    private final Map<Integer, StrokeDatagram.Sequence> drawerSequences = new ConcurrentHashMap<>(); // 그린 플레이어 번호 -> 받은 순번
+    private volatile long udpPreviews = 0; // UDP로 받아 그린 구간
+    private volatile long udpRecovered = 0; // UDP로 못 받아 커밋으로 그린 구간
 
     public ClientManager(String serverAddress, int serverPort, Client client) {
         this.serverAddress = serverAddress;
         this.serverPort = serverPort;
         this.client = client;
+        drainTimer.setRepeats(false);
     }
 
     public void connectToServer() throws IOException {
-        socket = new Socket();
+        Socket newSocket = new Socket();
         SocketAddress sa = new InetSocketAddress(serverAddress, serverPort);
-        socket.connect(sa, 3000);
-
-        out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
-        out.flush();
-        in = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+        newSocket.connect(sa, 3000);
+
+        // 압축 프레임은 연결 처음부터 씀. 실제로 압축할지는 로그인 응답을 받고 정함
+        Compression.Output newCompressedOut = new Compression.Output(newSocket.getOutputStream());
+        ObjectOutputStream newOut = new ObjectOutputStream(newCompressedOut);
+        newOut.flush();
+        Compression.Input compressedIn = new Compression.Input(new BufferedInputStream(newSocket.getInputStream()));
+        compressedIn.setNegotiated(Compression.ENABLED); // 로그인 요청에 compress를 실으므로 서버는 응답부터 압축할 수 있음
+        ObjectInputStream newIn = new ObjectInputStream(compressedIn);
+        synchronized (this) {
+            socket = newSocket;
+            out = newOut;
+            in = newIn;
+            compressedOut = newCompressedOut;
+        }
 
-        receiveThread = new Thread(this::run);
+        receiveThread = new Thread(() -> run(newSocket));
         receiveThread.start();
     }
 
-    private void run() {
+    private void run(Socket connected) {
         try {
             while (!Thread.currentThread().isInterrupted()) {
                 receiveMessage();
             }
-        } catch (Exception e) {
+        } catch (IOException e) {
+            System.err.println("receiveMessage 서버 연결 종료: " + e.getMessage());
+        } catch (ClassNotFoundException e) {
             System.err.println("메시지 수신 중 오류 발생: " + e.getMessage());
         } finally {
-            disconnect(); // 스레드 종료 시 연결 해제
+            connectionLost(connected); // 스레드 종료 시 연결 해제 (로그인 중이면 재접속)
         }
     }
 
-    private void receiveMessage() {
-        try {
-            GameMsg inMsg = (GameMsg) in.readObject();
+    private void receiveMessage() throws IOException, ClassNotFoundException {
+        int lane = in.readByte();
+        long delayMicros = in.readInt();
+        if (lane == PrioritySender.SPECTATOR) {
+            receiveSpectatorBatch(delayMicros);
+            return;
+        }
+        GameMsg inMsg;
+        if (lane == PrioritySender.STROKE) {
+            Paint paint = readStroke();
+            paint.setReceivedAt(StrokePlayback.clock());
+            inMsg = new GameMsg(GameMsg.DRAW_ACTION, paint);
+        } else if (lane == PrioritySender.COMMIT) {
+            // 획 확정본 : [그린 플레이어 번호][첫 순번][구간 수][구간]...
+            int drawerId = in.readInt();
+            int firstSeq = in.readInt();
+            Paint[] segments = new Paint[in.readUnsignedShort()];
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = readStroke();
+            }
+            inMsg = new GameMsg(GameMsg.STROKE_COMMIT, firstSeq, segments);
+            inMsg.setDrawerId(drawerId);
+        } else if (lane == PrioritySender.TICK) {
+            // 남은 시간 : [모드][초]
+            int mode = in.readByte();
+            inMsg = new GameMsg(mode, null, null, in.readInt(), null);
+        } else {
+            inMsg = (GameMsg) in.readObject();
+        }
+        if (inMsg == null) {
+            throw new EOFException("서버 연결 끊김");
+        }
+        recordLaneDelay(lane, delayMicros, inMsg);
+        enqueueInbound(inMsg);
+    }
+
+    // 그림 구간 : [x1, y1, x2, y2][색상][지우개][그린 시각]
+    private Paint readStroke() throws IOException {
+        int startX = in.readShort(), startY = in.readShort(), endX = in.readShort(), endY = in.readShort();
+        Color color = new Color(in.readInt(), true);
+        Paint paint = new Paint(startX, startY, endX, endY, color, in.readBoolean());
+        paint.setDrawnAt(in.readInt());
+        return paint;
+    }
 
-            if (inMsg == null) {
-                disconnect();
-                System.err.println("receiveMessage 서버 연결 끊김");
+    // 수신 스레드가 끝남 : 로그인한 상태면 토큰으로 다시 연결하고, 아니면 닫기만 함
+    private void connectionLost(Socket lost) {
+        synchronized (this) {
+            if (lost != socket) return; // 이미 새 연결로 바뀜
+        }
+        closeConnection();
+        if (closing || resumeToken == null) return;
+
+        connectionLostAt = System.nanoTime();
+        SwingUtilities.invokeLater(() -> showConnectionNotice("서버 연결이 끊겼습니다. 다시 연결하는 중..."));
+        Thread reconnectThread = new Thread(this::reconnect, "reconnect");
+        reconnectThread.setDaemon(true);
+        reconnectThread.start();
+    }
+
+    private void reconnect() {
+        int attempt = 0;
+        while (!closing) {
+            long elapsed = (System.nanoTime() - connectionLostAt) / 1_000_000;
+            if (elapsed > RESUME_TIMEOUT_MILLIS) {
+                SwingUtilities.invokeLater(() -> resumeFailed("서버에 다시 연결하지 못했습니다."));
                 return;
             }
-            SwingUtilities.invokeLater(() -> handleMessage(inMsg));
-        } catch (IOException e) {
-            System.err.println("receiveMessage 서버 연결 종료: " + e.getMessage());
-            disconnect();
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException(e);
+            try {
+                Thread.sleep(RECONNECT_BACKOFF[Math.min(attempt, RECONNECT_BACKOFF.length - 1)]);
+                attempt++;
+                connectToServer();
+                GameMsg resume = new GameMsg(GameMsg.RESUME, user);
+                resume.setResumeToken(resumeToken);
+                resume.setCompress(Compression.ENABLED);
+                sendGameMsg(resume);
+                System.out.println("[재접속] " + attempt + "번째 시도에 연결, 세션 이어받기 요청");
+                return;
+            } catch (IOException e) {
+                System.err.println("[재접속] " + attempt + "번째 시도 실패: " + e.getMessage());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void showConnectionNotice(String notice) {
+        if (client.getGameRoomPanel() != null) {
+            client.getGameRoomPanel().showChat("\uD83D\uDD14 알림 : " + notice);
         }
+        System.out.println("[재접속] " + notice);
     }
 
+    public long getLastResumeMillis() { return lastResumeMillis; }
+
+    // 관전 중계 묶음 : [길이][메시지 개수][GameMsg]... (서버가 관전자 모두에게 같은 바이트를 보냄)
+    private void receiveSpectatorBatch(long delayMicros) throws IOException, ClassNotFoundException {
+        byte[] encoded = new byte[in.readInt()];
+        in.readFully(encoded);
+        try (ObjectInputStream batch = new ObjectInputStream(new ByteArrayInputStream(encoded))) {
+            int count = batch.readInt();
+            for (int i = 0; i < count; i++) {
+                GameMsg inMsg = (GameMsg) batch.readObject();
+                recordLaneDelay(PrioritySender.SPECTATOR, delayMicros, inMsg);
+                enqueueInbound(inMsg);
+            }
+        }
+    }
+
+    private void enqueueInbound(GameMsg inMsg) {
+        inbound.add(inMsg);
+        int depth = inboundDepth.incrementAndGet();
+        if (depth > maxInboundDepth) maxInboundDepth = depth;
+        if (drainScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::scheduleDrain);
+        }
+    }
+
+    // 직전 처리 후 한 프레임이 지나지 않았으면 남은 시간만큼 기다렸다가 처리
+    private void scheduleDrain() {
+        long wait = FRAME_MILLIS - (System.currentTimeMillis() - lastDrainMillis);
+        if (wait <= 0) {
+            drainInbound();
+        } else {
+            drainTimer.setInitialDelay((int) wait);
+            drainTimer.restart();
+        }
+    }
+
+    // 쌓인 메시지를 모두 처리하고 캔버스는 마지막에 한 번만 다시 그림
+    // (레이아웃 갱신도 이 한 번의 EDT 작업 안에서 모여 한 번에 처리됨)
+    private void drainInbound() {
+        drainScheduled.set(false);
+        long start = System.nanoTime();
+        int count = 0;
+        GameMsg inMsg;
+        while ((inMsg = inbound.poll()) != null) {
+            inboundDepth.decrementAndGet();
+            count++;
+            try {
+                handleMessage(inMsg);
+            } catch (RuntimeException e) {
+                System.err.println("메시지 처리 중 오류 (" + inMsg.mode + "): " + e);
+                e.printStackTrace();
+            }
+        }
+        GamePanel gamePanel = client.getGamePanel();
+        if (gamePanel != null) {
+            gamePanel.flushRemoteDrawing();
+        }
+        lastDrainMillis = System.currentTimeMillis();
+        lastFrameApplyNanos = System.nanoTime() - start;
+        lastFrameMessageCount = count;
+        if (lastFrameApplyNanos > maxFrameApplyNanos) maxFrameApplyNanos = lastFrameApplyNanos;
+        if (lastFrameApplyNanos > FRAME_MILLIS * 1_000_000L) {
+            System.out.println("[EDT] 프레임 처리 지연 : " + count + "개 메시지, " + lastFrameApplyNanos / 1000 + "us");
+        }
+    }
+
+    public int getInboundQueueDepth() { return inboundDepth.get(); }
+    public int getMaxInboundQueueDepth() { return maxInboundDepth; }
+    public long getLastFrameApplyNanos() { return lastFrameApplyNanos; }
+    public long getMaxFrameApplyNanos() { return maxFrameApplyNanos; }
+    public int getLastFrameMessageCount() { return lastFrameMessageCount; }
+
+    private synchronized void recordLaneDelay(int lane, long delayMicros, GameMsg inMsg) {
+        if (lane < 0 || lane >= PrioritySender.LANE_COUNT) return;
+        laneCounts[lane]++;
+        laneLastDelays[lane] = delayMicros;
+        if (delayMicros > laneMaxDelays[lane]) laneMaxDelays[lane] = delayMicros;
+        if ((lane == PrioritySender.CONTROL || lane == PrioritySender.TICK) && delayMicros > SLOW_CONTROL_MICROS && inMsg != null) {
+            System.out.println("[수신] 제어 메시지 지연 " + (delayMicros / 1000) + "ms (mode " + inMsg.mode + ")");
+        }
+    }
+
+    public synchronized long getLaneLastDelayMicros(int lane) { return laneLastDelays[lane]; }
+    public synchronized long getLaneMaxDelayMicros(int lane) { return laneMaxDelays[lane]; }
+    public synchronized long getLaneCount(int lane) { return laneCounts[lane]; }
+
     private void handleMessage(GameMsg inMsg) {
         switch (inMsg.mode) {
             case GameMsg.LOGIN_OK:
                 handleLoginOk(inMsg);
                 break;
+            case GameMsg.RESUME_OK:
+                handleResumeOk(inMsg);
+                break;
+            case GameMsg.RESUME_FAILED:
+                resumeFailed("세션이 만료되어 다시 로그인해야 합니다.");
+                break;
             case GameMsg.ROOM_SELECT:
                 handleRoomSelect(inMsg);
                 break;
             case GameMsg.ROOM_NEW_MEMBER:
                 handleRoomNewMember(inMsg);
                 break;
+            case GameMsg.ROOM_STATE:
+                handleRoomState(inMsg);
+                break;
+            case GameMsg.SPECTATE:
+                handleSpectate(inMsg);
+                break;
             case GameMsg.ROOM_SELECT_DENIED:
                 handleRoomSelectDenied(inMsg);
                 break;
@@ -106,6 +348,9 @@ public class ClientManager {
             case GameMsg.DRAW_ACTION:
                 handleDrawAction(inMsg);
                 break;
+            case GameMsg.STROKE_COMMIT:
+                handleStrokeCommit(inMsg);
+                break;
             case GameMsg.VOTE:
                 handleVote(inMsg);
                 break;
@@ -127,13 +372,16 @@ public class ClientManager {
             case GameMsg.LOGOUT:
                 handleLogout();
                 break;
+            case GameMsg.LEADERBOARD:
+                client.updateLeaderboard(inMsg.getMsg());
+                break;
             default:
                 System.err.println("처리할 수 없는 메시지 유형: " + inMsg.mode);
         }
     }
 
-    private void disconnect() {
-        if(user != null) { sendGameMsg(new GameMsg(GameMsg.LOGOUT, user)); }
+    // 스트림과 소켓만 닫음 (이미 끊긴 소켓에 LOGOUT을 보내지 않음, 로그아웃은 sendLogout으로)
+    private synchronized void closeConnection() {
         try {
             if (in != null) { in.close(); }
             if (out != null) { out.close(); }
@@ -141,17 +389,120 @@ public class ClientManager {
             receiveThread = null;
         } catch (IOException e) {
             System.err.println("클라이언트 disconnect 닫기 오류> "+e.getMessage());
-            System.exit(-1);
         }
     }
 
     private void handleLoginOk(GameMsg inMsg) {
         user = inMsg.getUser(); // user 여기에서 저장해야 유지됨
+        resumeToken = inMsg.getResumeToken();
+        setCompression(inMsg.isCompress());
+        startUdp(inMsg);
         client.changeSelectRoomPanel();
         System.out.println("클라이언트 receiveMessage 로그인OK: " + inMsg.mode + "," + inMsg.user.name);
     }
 
+    // 서버가 압축해서 보내기로 했으면 이쪽에서 보내는 것도 압축
+    private synchronized void setCompression(boolean compress) {
+        if (compressedOut != null) compressedOut.setNegotiated(compress);
+        System.out.println("[압축] " + (compress ? "사용" : "사용 안 함"));
+    }
+
+    // 서버가 UDP 포트를 알려 줬으면 HELLO를 보내 봄 (답이 올 때까지 그림은 TCP로)
+    private void startUdp(GameMsg reply) {
+        udpReady = false;
+        if (!StrokeDatagram.ENABLED || reply.getUdpPort() == 0 || reply.getUser() == null) return;
+        udpKey = reply.getUdpKey();
+        int playerId = reply.getUser().getId();
+        SocketAddress udpServer = new InetSocketAddress(serverAddress, reply.getUdpPort());
+        Thread helloThread = new Thread(() -> helloUdp(udpServer, playerId), "udp-hello");
+        helloThread.setDaemon(true);
+        helloThread.start();
+    }
+
+    private void helloUdp(SocketAddress udpServer, int playerId) {
+        try {
+            DatagramChannel channel;
+            synchronized (this) {
+                channel = udpChannel;
+                if (channel == null || !udpServer.equals(channel.getRemoteAddress())) {
+                    if (channel != null) channel.close();
+                    channel = DatagramChannel.open();
+                    channel.connect(udpServer); // 서버가 보낸 패킷만 받음
+                    udpChannel = channel;
+                    DatagramChannel receiving = channel;
+                    Thread receiveThread = new Thread(() -> receiveDatagrams(receiving), "udp-receive");
+                    receiveThread.setDaemon(true);
+                    receiveThread.start();
+                }
+            }
+            ByteBuffer hello = ByteBuffer.allocate(StrokeDatagram.MAX_PACKET);
+            for (int attempt = 0; attempt < HELLO_ATTEMPTS && !udpReady; attempt++) {
+                StrokeDatagram.header(hello, StrokeDatagram.HELLO);
+                hello.putInt(playerId).putLong(udpKey);
+                hello.flip();
+                StrokeDatagram.send(channel, hello, udpServer);
+                Thread.sleep(HELLO_INTERVAL_MILLIS);
+            }
+            if (!udpReady) System.out.println("[UDP] 서버 응답이 없어 그림은 TCP로만 보냅니다");
+        } catch (IOException e) {
+            System.out.println("[UDP] 사용할 수 없어 그림은 TCP로만 보냅니다 : " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // UDP 수신 스레드 : 다른 사람의 미리보기 구간은 처음 보는 순번만 TCP 메시지와 같은 큐로
+    private void receiveDatagrams(DatagramChannel channel) {
+        ByteBuffer packet = ByteBuffer.allocate(StrokeDatagram.MAX_PACKET);
+        while (channel.isOpen()) {
+            try {
+                packet.clear();
+                channel.receive(packet);
+                packet.flip();
+                byte type = StrokeDatagram.typeOf(packet);
+                if (type == StrokeDatagram.HELLO_ACK) {
+                    if (!udpReady) System.out.println("[UDP] 그림 미리보기를 UDP로 보냅니다");
+                    udpReady = true;
+                } else if (type == StrokeDatagram.RELAY && packet.remaining() >= 8 + 17) {
+                    int drawerId = packet.getInt();
+                    int seq = packet.getInt();
+                    Paint paint = StrokeDatagram.getSegment(packet);
+                    if (!sequenceOf(drawerId).accept(seq)) continue; // 중복이거나 커밋으로 이미 그림
+                    paint.setReceivedAt(StrokePlayback.clock());
+                    udpPreviews++;
+                    enqueueInbound(new GameMsg(GameMsg.DRAW_ACTION, paint));
+                }
+            } catch (PortUnreachableException e) {
+                // 서버 UDP가 아직 안 열렸거나 닫힘 (HELLO_ACK가 없으면 TCP로만 보냄)
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                System.out.println("[UDP] 수신 종료 : " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private StrokeDatagram.Sequence sequenceOf(int drawerId) {
+        return drawerSequences.computeIfAbsent(drawerId, id -> new StrokeDatagram.Sequence());
+    }
+
+    private synchronized void closeUdp() {
+        udpReady = false;
+        try {
+            if (udpChannel != null) udpChannel.close();
+        } catch (IOException e) {
+            System.err.println("UDP 닫기 오류> " + e.getMessage());
+        }
+        udpChannel = null;
+    }
+
+    public boolean isUdpReady() { return udpReady; }
+    public long getUdpPreviewCount() { return udpPreviews; }
+    public long getUdpRecoveredCount() { return udpRecovered; }
+
     private void handleRoomSelect(GameMsg inMsg) {
+        spectating = false;
         user = inMsg.getUser();
         roomName = inMsg.getMsg();
         client.changeGameRoomPanel(inMsg);
@@ -161,6 +512,8 @@ public class ClientManager {
         synchronized (readyUsers) {
             readyUsers = new Vector<>(inMsg.readyUsers);
         }
+        roomVersion = inMsg.getVersion();
+        roomStateRequested = false;
         client.updateUserToRoom(userNames);
         client.updateReadyToRoom(readyUsers, null);
 
@@ -168,17 +521,90 @@ public class ClientManager {
         client.getGamePanel().clearLines();
     }
 
-    private void handleRoomNewMember(GameMsg inMsg) {
-        System.out.println("새로운 유저 >" + inMsg.user.name + "가 들어옴");
+    // 세션 이어받음 : 방 전체 상태를 반영하고, 이어서 오는 놓친 메시지는 평소처럼 처리
+    private void handleResumeOk(GameMsg inMsg) {
+        user = inMsg.getUser();
+        setCompression(inMsg.isCompress());
+        startUdp(inMsg);
+        if (inMsg.getMsg() != null && client.getGameRoomPanel() != null) {
+            synchronized (userNames) {
+                userNames = new Vector<>(inMsg.userNames);
+            }
+            synchronized (readyUsers) {
+                readyUsers = new Vector<>(inMsg.readyUsers);
+            }
+            roomVersion = inMsg.getVersion(); // 놓친 메시지 중 이미 반영된 변경분은 버전으로 걸러짐
+            roomStateRequested = false;
+            client.updateUserToRoom(userNames);
+            client.updateReadyToRoom(readyUsers, null);
+        }
+        lastResumeMillis = (System.nanoTime() - connectionLostAt) / 1_000_000;
+        connectionLostAt = 0;
+        showConnectionNotice("다시 연결되었습니다 (" + lastResumeMillis + "ms)");
+    }
+
+    private void resumeFailed(String notice) {
+        resumeToken = null;
+        closing = true;
+        closeConnection();
+        closeUdp();
+        client.changeStartPanel();
+        JOptionPane.showMessageDialog(client, notice, "연결 끊김", JOptionPane.WARNING_MESSAGE);
+    }
+
+    // 관전 시작 : 방 화면은 같게 만들고 읽기 전용으로
+    private void handleSpectate(GameMsg inMsg) {
+        handleRoomSelect(inMsg);
+        spectating = true;
+        client.getGameRoomPanel().setSpectator(true);
+    }
+
+    // 버전이 어긋났을 때 받은 방 전체 상태
+    private void handleRoomState(GameMsg inMsg) {
         synchronized (userNames) {
-            userNames = new Vector<>(inMsg.userNames); // 리스트 새로 갱신
-            System.out.println("userNames : " + userNames);
+            userNames = new Vector<>(inMsg.userNames);
         }
         synchronized (readyUsers) {
             readyUsers = new Vector<>(inMsg.readyUsers);
         }
+        roomVersion = inMsg.getVersion();
+        roomStateRequested = false;
+        System.out.println("방 전체 상태 수신 (version " + roomVersion + ") : " + userNames);
+
         client.updateUserToRoom(userNames);
         client.updateReadyToRoom(readyUsers, null);
+        if (inMsg.user != null && client.getGameRoomPanel() != null) {
+            client.getGameRoomPanel().updateTurnUser(inMsg.user.getName());
+        }
+    }
+
+    // 변경분을 바로 다음 버전일 때만 반영. 중간이 빠졌으면 전체 상태를 요청
+    private boolean acceptRoomDelta(GameMsg inMsg) {
+        if (inMsg.getVersion() <= roomVersion) {
+            return false; // 이미 전체 상태에 반영된 변경분
+        }
+        if (inMsg.getVersion() != roomVersion + 1 && !spectating) { // 관전 중계는 순서대로만 오므로 그대로 반영
+            if (!roomStateRequested) {
+                System.out.println("방 상태 버전 누락 (" + roomVersion + " -> " + inMsg.getVersion() + "), 전체 상태 요청");
+                roomStateRequested = true;
+                sendGameMsg(new GameMsg(GameMsg.ROOM_STATE_REQUEST));
+            }
+            return false;
+        }
+        roomVersion = inMsg.getVersion();
+        return true;
+    }
+
+    private void handleRoomNewMember(GameMsg inMsg) {
+        System.out.println("새로운 유저 >" + inMsg.user.name + "가 들어옴");
+        if (!acceptRoomDelta(inMsg)) return;
+        synchronized (userNames) {
+            if (!userNames.contains(inMsg.user)) {
+                userNames.add(inMsg.user);
+            }
+            System.out.println("userNames : " + userNames);
+        }
+        client.addUserToRoom(inMsg.user);
     }
 
     private void handleRoomSelectDenied(GameMsg inMsg) {
@@ -190,11 +616,14 @@ public class ClientManager {
     }
 
     private void handleGameReadyOk(GameMsg inMsg) {
+        if (!acceptRoomDelta(inMsg)) return;
         synchronized (readyUsers) {
-            readyUsers = new Vector<>(inMsg.readyUsers);
+            if (!readyUsers.contains(inMsg.user)) {
+                readyUsers.add(inMsg.user);
+            }
             System.out.println("readyUsers: " + readyUsers);
         }
-        client.updateReadyToRoom(readyUsers, null);
+        client.updateUserReady(inMsg.user, true);
 
         // readyUsers 4명이 되면 게임 시작
         if (readyUsers.size() == 4) {
@@ -210,11 +639,12 @@ public class ClientManager {
     }
 
     private void handleGameUnReadyOk(GameMsg inMsg) {
+        if (!acceptRoomDelta(inMsg)) return;
         synchronized (readyUsers) {
-            readyUsers = new Vector<>(inMsg.readyUsers != null ? inMsg.readyUsers : new Vector<>());
+            readyUsers.remove(inMsg.user);
             System.out.println("readyUsers: " + readyUsers);
         }
-        client.updateReadyToRoom(readyUsers, inMsg.user);
+        client.updateUserReady(inMsg.user, false);
     }
 
     private void handleLiarNotification(GameMsg inMsg) {
@@ -226,43 +656,31 @@ public class ClientManager {
     private void handleKeywordNotification(GameMsg inMsg) {
         client.getGameRoomPanel().changeGameMsg(inMsg, userName);
         client.startGame();
-        client.showDialog(inMsg);
+        if (!spectating) { // 관전자는 키워드가 가려져 있으므로 알림 창 없음
+            client.showDialog(inMsg);
+        }
     }
 
     private void handleTime(GameMsg inMsg) {
-        userNames = inMsg.userNames;
+        if (inMsg.getUser() != null) {
+            acceptRoomDelta(inMsg); // 턴 변경도 방 상태 변경분 (턴 자체는 버전과 상관없이 반영)
+        }
         int remainingTime = inMsg.getTime(); // 서버에서 받은 남은 시간
         User currentTurnUser = inMsg.getUser();
 
         client.updateAlarmLabel(remainingTime); // 클라이언트 UI 갱신
 
-        if (currentTurnUser != null) {
-            if (!currentTurnUser.getName().equals(client.getGameRoomPanel().getCurrentTurnUserName())) {
-                client.getGameRoomPanel().updateTurnUser(currentTurnUser.getName());
-
-                if (currentTurnUser.getName().equals(userName)) {
-                    client.getGamePanel().setDrawingEnabled(true);
-                } else {
-                    client.getGamePanel().setDrawingEnabled(false);
-                }
-            }
-        }
-        //System.out.println("클라이언트: 남은 시간 업데이트 -> " + remainingTime + "초");
-        if (currentTurnUser != null) {
-            System.out.println("Time에서 userNames : " + userNames);
+        // 턴이 실제로 바뀐 경우에만 턴 표시와 그리기 가능 여부를 갱신
+        if (currentTurnUser != null
+                && !currentTurnUser.getName().equals(client.getGameRoomPanel().getCurrentTurnUserName())) {
             client.getGameRoomPanel().updateTurnUser(currentTurnUser.getName());
         }
+        //System.out.println("클라이언트: 남은 시간 업데이트 -> " + remainingTime + "초");
     }
 
     private void handleDrawAction(GameMsg inMsg) {
         Paint paintData = inMsg.getPaintData();
-        client.getGamePanel().receiveRemoteDrawing(
-                paintData.getStartX(),
-                paintData.getStartY(),
-                paintData.getEndX(),
-                paintData.getEndY(),
-                paintData.getColor()
-        );
+        client.getGamePanel().receiveRemoteDrawing(paintData); // 바로 그리지 않고 지터 버퍼를 거쳐 재생
         //드로잉 확인 콘솔
 //                        System.out.println("DRAW_ACTION 수신: " +
 //                                "시작(" + paintData.getStartX() + ", " + paintData.getStartY() +
@@ -271,6 +689,22 @@ public class ClientManager {
 //                                ", 지우개 모드: " + paintData.isErasing());
     }
 
+    // 다른 사람의 획 확정본 : UDP로 못 받은 구간만 그림 (재생 시각이 이미 지났으므로 지터 버퍼에서 기다리지 않게 시각을 지움)
+    private void handleStrokeCommit(GameMsg inMsg) {
+        Paint[] segments = inMsg.getStrokeSegments();
+        if (segments == null || segments.length == 0) return;
+        StrokeDatagram.Sequence sequence = sequenceOf(inMsg.getDrawerId());
+        int firstSeq = inMsg.getFirstSeq();
+        for (int i = 0; i < segments.length; i++) {
+            if (sequence.accept(firstSeq + i)) {
+                segments[i].setDrawnAt(0);
+                client.getGamePanel().receiveRemoteDrawing(segments[i]);
+                udpRecovered++;
+            }
+        }
+        sequence.commitThrough(firstSeq + segments.length - 1);
+    }
+
     private void handleVote(GameMsg inMsg) {
         if (inMsg.isVoteStart()) {
             client.getGamePanel().setDrawingEnabled(false);
@@ -290,10 +724,19 @@ public class ClientManager {
     private void handleGameEnd(GameMsg inMsg) {
         boolean isWinner = inMsg.isWinner();
         String resultMessage = inMsg.getResultMessage();
+        if (spectating) { // 관전자는 승패 화면 대신 결과만 표시 (시민 기준 결과가 옴)
+            client.getGameRoomPanel().showChat("\uD83D\uDD14 결과 : " + resultMessage + (isWinner ? " (시민 승리)" : " (라이어 승리)"));
+            synchronized (readyUsers) {
+                readyUsers.clear();
+            }
+            return;
+        }
         client.endGame(isWinner, resultMessage);
 
-        readyUsers = new Vector<>(); // 준비 유저 초기화
-        user.currentRoom.setReadyUsers(readyUsers);
+        synchronized (readyUsers) {
+            readyUsers.clear(); // 준비 유저 초기화 (방 화면과 같은 목록을 공유하므로 그대로 비움)
+        }
+        user.currentRoom.setReadyUsers(new Vector<>());
     }
 
     private void handleChatMessage(GameMsg inMsg) {
@@ -313,16 +756,16 @@ public class ClientManager {
 
     private void handleRoomExit(GameMsg inMsg) {
         User exitUser = inMsg.user;
+        if (!acceptRoomDelta(inMsg)) return;
         synchronized (userNames) {
-            userNames = new Vector<>(inMsg.userNames);
+            userNames.remove(exitUser);
             System.out.println("userNames: " + userNames);
         }
         synchronized (readyUsers) {
-            readyUsers = new Vector<>(inMsg.readyUsers);
+            readyUsers.remove(exitUser);
             System.out.println("readyUsers: " + readyUsers);
         }
-        client.updateReadyToRoom(readyUsers, exitUser);
-        client.updateUserToRoom(userNames);
+        client.removeUserFromRoom(exitUser);
 
         if(readyUsers.size() < 4) {
             client.setReadyButtonVisibility(false);
@@ -330,6 +773,7 @@ public class ClientManager {
     }
 
     private void handleRoomExitOk() {
+        spectating = false;
         synchronized (userNames) {
             userNames = new Vector<>();
         }
@@ -340,6 +784,9 @@ public class ClientManager {
     }
 
     private void handleLogout() {
+        closing = true;
+        spectating = false;
+        closeUdp();
         synchronized (userNames) {
             userNames = new Vector<>();
         }
@@ -351,7 +798,7 @@ public class ClientManager {
 
     //
 
-    void sendGameMsg(GameMsg msg) {
+    synchronized void sendGameMsg(GameMsg msg) {
         try {
             if (out != null) {
                 out.writeObject(msg); // 객체 전송
@@ -366,7 +813,17 @@ public class ClientManager {
 
     public void sendNickname(String nickname) {
         this.userName = nickname;
-        sendGameMsg(new GameMsg(GameMsg.LOGIN, userName));
+        GameMsg login = new GameMsg(GameMsg.LOGIN, userName);
+        login.setCompress(Compression.ENABLED);
+        sendGameMsg(login);
+    }
+
+    public void sendLeaderboardRequest() {
+        sendGameMsg(new GameMsg(GameMsg.LEADERBOARD));
+    }
+
+    public void sendSpectate(String roomName) {
+        sendGameMsg(new GameMsg(GameMsg.SPECTATE, user, roomName));
     }
 
     public void sendRoomSelection(String roomName) {
@@ -398,6 +855,9 @@ public class ClientManager {
         }
         try {
             Paint paintData = new Paint(startX, startY, endX, endY, color, isErasing);
+            paintData.setDrawnAt(StrokePlayback.clock());
+            if (udpReady && sendPreview(paintData)) return;
+            commitStroke(); // UDP를 쓰다가 못 쓰게 됨 : 보낸 것부터 확정
             GameMsg msg = new GameMsg(GameMsg.DRAW_ACTION, paintData);
             sendGameMsg(msg);
         } catch (Exception e) {
@@ -405,10 +865,55 @@ public class ClientManager {
         }
     }
 
-    public void sendVote(User user, String votedUserName) { sendGameMsg(new GameMsg(GameMsg.VOTE, user, votedUserName)); }
+    // UDP로 미리 보내고 커밋할 구간에 넣음 (EDT). 보낼 수 없으면 false
+    private boolean sendPreview(Paint paint) {
+        DatagramChannel channel = udpChannel;
+        if (channel == null || user == null) return false;
+        int seq = nextSeq++;
+        StrokeDatagram.header(udpPacket, StrokeDatagram.STROKE);
+        udpPacket.putInt(user.getId()).putLong(udpKey).putInt(seq);
+        StrokeDatagram.putSegment(udpPacket, paint);
+        udpPacket.flip();
+        try {
+            StrokeDatagram.send(channel, udpPacket, channel.getRemoteAddress());
+        } catch (IOException e) {
+            System.out.println("[UDP] 보내기 실패, 그림은 TCP로 보냅니다 : " + e.getMessage());
+            udpReady = false;
+            return false;
+        }
+        long now = System.nanoTime();
+        if (uncommitted.isEmpty()) {
+            uncommittedFirstSeq = seq;
+            uncommittedSince = now;
+        }
+        uncommitted.add(paint);
+        if (uncommitted.size() >= StrokeDatagram.COMMIT_SEGMENTS || now - uncommittedSince >= StrokeDatagram.COMMIT_MILLIS * 1_000_000L) {
+            commitStroke();
+        }
+        return true;
+    }
+
+    // UDP로만 보낸 구간을 TCP로 확정 (펜을 뗄 때, 그리고 그리는 중에도 일정 개수/시간마다)
+    public void commitStroke() {
+        if (uncommitted.isEmpty()) return;
+        sendGameMsg(new GameMsg(GameMsg.STROKE_COMMIT, uncommittedFirstSeq, uncommitted.toArray(new Paint[0])));
+        uncommitted.clear();
+    }
+
+    // 화면은 이름으로 고르지만 서버에는 플레이어 번호로 보냄
+    public void sendVote(User user, String votedUserName) {
+        GameMsg vote = new GameMsg(GameMsg.VOTE, user, votedUserName);
+        synchronized (userNames) {
+            for (User member : userNames) {
+                if (member.getName().equals(votedUserName)) vote.setTargetId(member.getId());
+            }
+        }
+        sendGameMsg(vote);
+    }
 
     public void sendLogout(User user) {
-        sendGameMsg(new GameMsg(GameMsg.LOGOUT, user, userNames, readyUsers));
+        closing = true;
+        sendGameMsg(new GameMsg(GameMsg.LOGOUT, user));
 
         client.getGameRoomPanel().resetVoteState(); // 투표 상태 초기화
         client.getGameRoomPanel().resetLiarState(); // 라이어 상태 초기화
@@ -416,7 +921,7 @@ public class ClientManager {
     }
 
     public void sendRoomExit(User user) {
-        sendGameMsg(new GameMsg(GameMsg.ROOM_EXIT, user, userNames, readyUsers));
+        sendGameMsg(new GameMsg(GameMsg.ROOM_EXIT, user));
 
         client.getGameRoomPanel().resetVoteState(); // 투표 상태 초기화
         client.getGameRoomPanel().resetLiarState(); // 라이어 상태 초기화
@@ -434,7 +939,7 @@ public class ClientManager {
         client.getGameRoomPanel().rightPannel.remove(client.getGameRoomPanel().alarmPanel);
         client.setReadyButtonVisibility(true);
 
-        sendGameMsg(new GameMsg(GameMsg.GAME_RETRY, user, readyUsers));
+        sendGameMsg(new GameMsg(GameMsg.GAME_RETRY, user));
         sendGameMsg(new GameMsg(GameMsg.ROOM_SELECT, user, roomName));
     }
 
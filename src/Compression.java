@@ -0,0 +1,321 @@
+import java.io.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// 연결 하나의 스트림 압축 (서버 <-> 클라이언트 양쪽 모두)
+// - 연결 시작부터 끝까지 같은 Deflater/Inflater를 써서 앞서 보낸 내용을 사전처럼 씀
+//   (획 좌표처럼 비슷한 메시지가 이어지면 작은 메시지도 잘 줄어듦)
+// - flush()마다 프레임 하나 : [길이 << 1 | 압축 여부 (varint)][내용]. 압축 프레임은 SYNC_FLUSH로 끊어서
+//   받는 쪽이 프레임 하나만 받아도 바로 풀 수 있음
+// - 압축 여부가 프레임마다 붙어 있어서 보내는 쪽이 언제 켜고 꺼도 받는 쪽은 따로 알 필요 없음
+//   (단, 받는 쪽은 압축을 정하기 전에 온 압축 프레임은 받지 않음. 로그인 전에는 아무나 보낼 수 있으므로)
+// - 받는 프레임 크기는 보내는 쪽이 만들 수 있는 최대(MAX_FRAME)까지만, 푼 내용도 BUFFER_SIZE까지만 받음
+// - 켜져 있으면 WINDOW 바이트마다 압축률과 CPU 시간을 보고, 이득이 없으면 PROBE_INTERVAL 동안 끔
+//
+// 켤지는 로그인(재접속) 때 정함 : 클라이언트가 LOGIN/RESUME에 compress를 실어 보내고,
+// 서버도 허용하면 LOGIN_OK/RESUME_OK에 실어 돌려줌. 양쪽 모두 -Dcompress=false로 끌 수 있음
+public class Compression {
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("compress", "true"));
+    private static final int BUFFER_SIZE = 16 * 1024;
+    // BUFFER_SIZE를 압축했을 때 가장 커지는 크기 (zlib deflateBound + 스트림 헤더 + SYNC_FLUSH 끝 표시, 넉넉하게)
+    private static final int MAX_FRAME = BUFFER_SIZE + (BUFFER_SIZE >> 12) + (BUFFER_SIZE >> 14) + 64;
+    private static final int MIN_FRAME = 16; // 이보다 작은 프레임은 그대로 보냄
+    private static final long WINDOW = 64 * 1024; // 압축 효과를 다시 계산하는 단위 (원래 바이트)
+    private static final double MAX_RATIO = 0.8; // 압축 후 크기가 이보다 크면 (20% 미만 절약) 끔
+    private static final double MAX_NANOS_PER_SAVED_BYTE = 1000; // 줄인 1바이트당 CPU 시간이 이보다 크면 끔 (1MB/s 절약에 CPU 1개)
+    private static final long PROBE_INTERVAL = 10_000_000_000L; // 꺼진 뒤 다시 시도할 때까지 (ns)
+
+    public static class Output extends OutputStream {
+        private final OutputStream out;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private byte[] frame = new byte[BUFFER_SIZE + 16];
+        private int count = 0;
+
+        private volatile boolean negotiated = false; // 상대가 압축을 받겠다고 함
+        private boolean active = false; // 지금 압축 중 (negotiated이고 효과가 있을 때)
+        private long pausedAt = 0;
+        private long windowRaw = 0, windowCompressed = 0, windowNanos = 0;
+        private long rawBytes = 0, wireBytes = 0;
+
+        public Output(OutputStream out) {
+            this.out = out;
+        }
+
+        // 어느 스레드에서 불러도 됨. 다음 프레임부터 적용
+        public void setNegotiated(boolean negotiated) {
+            this.negotiated = negotiated;
+        }
+
+        public boolean isNegotiated() { return negotiated; }
+        public synchronized boolean isActive() { return active; }
+        public synchronized long getRawBytes() { return rawBytes; }
+        public synchronized long getWireBytes() { return wireBytes; }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            if (count == buffer.length) writeFrame();
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) writeFrame();
+                int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            if (count > 0) writeFrame();
+            out.flush();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                deflater.end();
+                out.close();
+            }
+        }
+
+        private void writeFrame() throws IOException {
+            updateActive();
+            int length;
+            boolean compressed = active && count >= MIN_FRAME;
+            if (compressed) {
+                long start = System.nanoTime();
+                length = deflate();
+                windowNanos += System.nanoTime() - start;
+                windowRaw += count;
+                windowCompressed += length;
+            } else {
+                length = count;
+            }
+            int header = writeVarint(frame, 0, (length << 1) | (compressed ? 1 : 0));
+            if (!compressed) {
+                System.arraycopy(buffer, 0, frame, header, count);
+            } else {
+                // deflate()가 frame 뒤쪽에 써 둔 내용을 헤더 바로 뒤로 당김
+                System.arraycopy(frame, 5, frame, header, length);
+            }
+            out.write(frame, 0, header + length);
+            rawBytes += count;
+            wireBytes += header + length;
+            count = 0;
+            if (windowRaw >= WINDOW) evaluate();
+        }
+
+        // buffer의 내용을 압축해서 frame[5..]에 씀 (앞 5바이트는 헤더 자리)
+        private int deflate() {
+            deflater.setInput(buffer, 0, count);
+            int length = 0;
+            while (true) {
+                if (5 + length == frame.length) {
+                    byte[] bigger = new byte[frame.length * 2];
+                    System.arraycopy(frame, 0, bigger, 0, frame.length);
+                    frame = bigger;
+                }
+                int n = deflater.deflate(frame, 5 + length, frame.length - 5 - length, Deflater.SYNC_FLUSH);
+                length += n;
+                if (5 + length < frame.length) return length; // 출력 공간이 남았으면 다 나온 것
+            }
+        }
+
+        private void updateActive() {
+            if (!negotiated) {
+                active = false;
+            } else if (!active && (pausedAt == 0 || System.nanoTime() - pausedAt >= PROBE_INTERVAL)) {
+                active = true;
+                pausedAt = 0;
+            }
+        }
+
+        // 최근 WINDOW만큼의 효과를 보고 계속할지 정함
+        private void evaluate() {
+            double ratio = windowCompressed / (double) windowRaw;
+            long saved = windowRaw - windowCompressed;
+            double nanosPerSaved = saved > 0 ? windowNanos / (double) saved : Double.MAX_VALUE;
+            if (ratio > MAX_RATIO || nanosPerSaved > MAX_NANOS_PER_SAVED_BYTE) {
+                active = false;
+                pausedAt = System.nanoTime();
+                System.out.printf("[압축] 효과가 적어 잠시 끔 (압축률 %.2f, 줄인 바이트당 %.0fns)%n", ratio, nanosPerSaved);
+            }
+            windowRaw = windowCompressed = windowNanos = 0;
+        }
+    }
+
+    public static class Input extends InputStream {
+        private final InputStream in;
+        private final Inflater inflater = new Inflater();
+        private final byte[] payload = new byte[MAX_FRAME];
+        private final byte[] data = new byte[BUFFER_SIZE];
+        private final byte[] probe = new byte[1];
+        private int position = 0, limit = 0;
+        private volatile boolean negotiated = false; // 압축 프레임을 받아도 됨
+
+        public Input(InputStream in) {
+            this.in = in;
+        }
+
+        // 압축을 정했을 때 (다음 프레임부터 적용)
+        public void setNegotiated(boolean negotiated) {
+            this.negotiated = negotiated;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == limit && !nextFrame()) return -1;
+            return data[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (position == limit && !nextFrame()) return -1;
+            int n = Math.min(len, limit - position);
+            System.arraycopy(data, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return limit - position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            in.close();
+        }
+
+        // 빈 프레임은 건너뜀. 스트림이 끝났으면 false
+        private boolean nextFrame() throws IOException {
+            do {
+                int header = readVarint();
+                if (header < 0) return false;
+                int length = header >>> 1;
+                boolean compressed = (header & 1) != 0;
+                if (compressed && !negotiated) throw new IOException("압축을 정하기 전에 압축 프레임을 받음");
+                if (length > (compressed ? MAX_FRAME : BUFFER_SIZE)) throw new IOException("프레임이 너무 큼 : " + length);
+                readFully(payload, length);
+                position = 0;
+                limit = compressed ? inflate(length) : copy(length);
+            } while (limit == 0);
+            return true;
+        }
+
+        private int copy(int length) {
+            System.arraycopy(payload, 0, data, 0, length);
+            return length;
+        }
+
+        // 보내는 쪽은 BUFFER_SIZE씩 끊어서 압축하므로 그보다 많이 풀리면 잘못된 프레임
+        private int inflate(int length) throws IOException {
+            inflater.setInput(payload, 0, length);
+            int n = 0;
+            try {
+                while (true) {
+                    if (n == data.length) {
+                        if (inflater.inflate(probe, 0, 1) > 0) throw new IOException("압축 프레임이 너무 크게 풀림");
+                        return n;
+                    }
+                    int r = inflater.inflate(data, n, data.length - n);
+                    n += r;
+                    if (r == 0 && (inflater.needsInput() || inflater.finished() || inflater.needsDictionary())) return n;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("압축 프레임 오류: " + e.getMessage(), e);
+            }
+        }
+
+        private int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = in.read();
+                if (b < 0) {
+                    if (shift == 0) return -1;
+                    throw new EOFException("프레임 헤더가 잘림");
+                }
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("프레임 헤더 오류");
+        }
+
+        private void readFully(byte[] into, int length) throws IOException {
+            int read = 0;
+            while (read < length) {
+                int n = in.read(into, read, length - read);
+                if (n < 0) throw new EOFException("프레임이 잘림");
+                read += n;
+            }
+        }
+    }
+
+    // 획 중계 압축 효과 측정 : java Compression [획 수]
+    // 서버가 보내는 것과 같은 STROKE 레인 형식. 획마다 flush(한가할 때)와 16획마다 flush(몰릴 때)를 비교
+    public static void main(String[] args) throws IOException {
+        int strokes = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        for (int round = 0; round < 2; round++) {
+            for (int batch : new int[]{1, 16}) for (boolean compress : new boolean[]{false, true}) {
+                ByteArrayOutputStream wire = new ByteArrayOutputStream();
+                Output output = new Output(wire);
+                output.setNegotiated(compress);
+                ObjectOutputStream out = new ObjectOutputStream(output);
+                java.util.Random random = new java.util.Random(1);
+                int x = 400, y = 300;
+                long start = System.nanoTime();
+                for (int i = 0; i < strokes; i++) {
+                    int nx = Math.max(0, Math.min(799, x + random.nextInt(9) - 4));
+                    int ny = Math.max(0, Math.min(599, y + random.nextInt(9) - 4));
+                    out.writeByte(PrioritySender.STROKE);
+                    out.writeInt(random.nextInt(300)); // 큐 대기 시간 (us)
+                    out.writeShort(x);
+                    out.writeShort(y);
+                    out.writeShort(nx);
+                    out.writeShort(ny);
+                    out.writeInt(0xFF000000);
+                    out.writeBoolean(false);
+                    if ((i + 1) % batch == 0) out.flush();
+                    x = nx;
+                    y = ny;
+                }
+                out.flush();
+                long elapsed = System.nanoTime() - start;
+
+                long readStart = System.nanoTime();
+                Input input = new Input(new ByteArrayInputStream(wire.toByteArray()));
+                input.setNegotiated(compress);
+                ObjectInputStream in = new ObjectInputStream(input);
+                for (int i = 0; i < strokes; i++) {
+                    in.readByte(); in.readInt(); in.readShort(); in.readShort(); in.readShort(); in.readShort(); in.readInt(); in.readBoolean();
+                }
+                long readElapsed = System.nanoTime() - readStart;
+                System.out.printf("%2d획마다 flush, %s : 획당 %.1f바이트 (원래 %.1f), 보내기 %.0fns/획, 받기 %.0fns/획%n",
+                        batch, compress ? "압축  " : "그대로", output.getWireBytes() / (double) strokes, output.getRawBytes() / (double) strokes,
+                        elapsed / (double) strokes, readElapsed / (double) strokes);
+            }
+        }
+    }
+
+    // 헤더 길이를 돌려줌 (최대 5바이트)
+    private static int writeVarint(byte[] into, int offset, int value) {
+        int start = offset;
+        while ((value & ~0x7F) != 0) {
+            into[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        into[offset++] = (byte) value;
+        return offset - start;
+    }
+}
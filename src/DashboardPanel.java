@@ -0,0 +1,160 @@
+import javax.swing.*;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+
+// 서버 대시보드 : 1초마다 ServerManager.snapshot()을 받아서 그림
+// - 네트워크 스레드는 Swing을 건드리지 않고 지표만 올림. 화면은 EDT의 Swing Timer가 스냅샷으로만 갱신
+// - 초당 값은 직전 스냅샷과의 차이, 최근 SAMPLES초를 스파크라인으로 표시
+// - 방 목록은 열 제목을 눌러 정렬 (기본 : 획/초 내림차순 -> 바쁜 방이 위로)
+public class DashboardPanel extends JPanel {
+    private static final int SAMPLES = 120;
+    private static final String[] PHASE_LABELS = {"대기", "그리기", "투표"};
+
+    private final ServerManager serverManager;
+    private final JLabel summaryLabel = new JLabel(" ");
+    private final Sparkline inRate = new Sparkline("받은 메시지/초", "%.0f");
+    private final Sparkline outRate = new Sparkline("보낸 메시지/초", "%.0f");
+    private final Sparkline broadcastLatency = new Sparkline("브로드캐스트 평균 (us)", "%.1f");
+    private final Sparkline timerLag = new Sparkline("타이머 지연 평균 (ms)", "%.1f");
+    private final RoomTableModel roomModel = new RoomTableModel();
+    private final Timer timer;
+    private ServerSnapshot previous;
+
+    public DashboardPanel(ServerManager serverManager) {
+        this.serverManager = serverManager;
+        setLayout(new BorderLayout(5, 5));
+        setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+        JPanel chartPanel = new JPanel(new GridLayout(2, 2, 5, 5));
+        chartPanel.add(inRate);
+        chartPanel.add(outRate);
+        chartPanel.add(broadcastLatency);
+        chartPanel.add(timerLag);
+
+        JTable roomTable = new JTable(roomModel);
+        roomTable.setAutoCreateRowSorter(true);
+        roomTable.getRowSorter().setSortKeys(Collections.singletonList(new RowSorter.SortKey(4, SortOrder.DESCENDING)));
+        JScrollPane tableScroll = new JScrollPane(roomTable);
+        tableScroll.setPreferredSize(new Dimension(100, 120));
+
+        add(summaryLabel, BorderLayout.NORTH);
+        add(chartPanel, BorderLayout.CENTER);
+        add(tableScroll, BorderLayout.SOUTH);
+
+        timer = new Timer(1000, e -> refresh());
+        timer.start();
+    }
+
+    private void refresh() {
+        ServerSnapshot current = serverManager.snapshot();
+        if (previous != null) {
+            double seconds = Math.max(1e-3, (current.takenAt - previous.takenAt) / 1e9);
+            inRate.add((current.messagesIn - previous.messagesIn) / seconds);
+            outRate.add((current.messagesOut - previous.messagesOut) / seconds);
+            long broadcasts = current.broadcastCount - previous.broadcastCount;
+            broadcastLatency.add(broadcasts == 0 ? 0 : (current.broadcastNanos - previous.broadcastNanos) / 1000.0 / broadcasts);
+            long ticks = current.timerTicks - previous.timerTicks;
+            timerLag.add(ticks == 0 ? 0 : (current.timerLagNanos - previous.timerLagNanos) / 1e6 / ticks);
+
+            summaryLabel.setText(String.format("접속 %d명 (세션 %d, 재접속 대기 %d, 관전 %d)  |  방 %d개  |  수신 %.1f KB/s, 송신 %.1f KB/s (압축 전 %.1f)",
+                    current.connected, current.sessions, current.detached, current.spectators, current.rooms.size(),
+                    (current.bytesIn - previous.bytesIn) / 1024.0 / seconds, (current.bytesOut - previous.bytesOut) / 1024.0 / seconds,
+                    (current.payloadOut - previous.payloadOut) / 1024.0 / seconds));
+            roomModel.update(current, previous, seconds);
+        }
+        previous = current;
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+
+    // 최근 값들을 꺾은선으로 (최댓값 기준으로 세로 크기 맞춤)
+    private static class Sparkline extends JComponent {
+        private final String title;
+        private final String format;
+        private final double[] values = new double[SAMPLES];
+        private int count = 0;
+        private int next = 0;
+
+        Sparkline(String title, String format) {
+            this.title = title;
+            this.format = format;
+            setPreferredSize(new Dimension(200, 70));
+            setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
+        }
+
+        void add(double value) {
+            values[next] = value;
+            next = (next + 1) % SAMPLES;
+            if (count < SAMPLES) count++;
+            repaint();
+        }
+
+        private double latest() {
+            return count == 0 ? 0 : values[(next - 1 + SAMPLES) % SAMPLES];
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int w = getWidth(), h = getHeight();
+            g2.setColor(Color.WHITE);
+            g2.fillRect(0, 0, w, h);
+
+            double max = 0;
+            for (int i = 0; i < count; i++) max = Math.max(max, values[i]);
+            int top = 18, bottom = h - 4;
+            if (count > 1 && w > 8) {
+                int[] xs = new int[count];
+                int[] ys = new int[count];
+                int start = (next - count + SAMPLES) % SAMPLES;
+                for (int i = 0; i < count; i++) {
+                    double v = values[(start + i) % SAMPLES];
+                    xs[i] = 4 + (w - 8) * (SAMPLES - count + i) / (SAMPLES - 1);
+                    ys[i] = max == 0 ? bottom : bottom - (int) ((bottom - top) * v / max);
+                }
+                g2.setColor(new Color(60, 120, 200));
+                g2.drawPolyline(xs, ys, count);
+            }
+            g2.setColor(Color.DARK_GRAY);
+            g2.drawString(title + " : " + String.format(format, latest()) + "  (최대 " + String.format(format, max) + ")", 5, 14);
+        }
+    }
+
+    private static class RoomTableModel extends AbstractTableModel {
+        private final String[] columns = {"방", "단계", "인원", "남은 시간", "획/초"};
+        private List<Object[]> rows = new ArrayList<>();
+
+        void update(ServerSnapshot current, ServerSnapshot previous, double seconds) {
+            Map<String, Long> previousStrokes = new HashMap<>();
+            for (ServerSnapshot.RoomRow room : previous.rooms) {
+                previousStrokes.put(room.name, room.strokes);
+            }
+            List<Object[]> updated = new ArrayList<>(current.rooms.size());
+            for (ServerSnapshot.RoomRow room : current.rooms) {
+                long strokes = room.strokes - previousStrokes.getOrDefault(room.name, room.strokes);
+                String phase = room.phase >= 0 && room.phase < PHASE_LABELS.length ? PHASE_LABELS[room.phase] : "?";
+                updated.add(new Object[]{room.name, phase, room.members,
+                        room.phase == Room.WAITING ? 0 : room.timeLeft, Math.round(strokes / seconds)});
+            }
+            rows = updated;
+            fireTableDataChanged(); // 정렬 기준은 RowSorter가 유지
+        }
+
+        @Override public int getRowCount() { return rows.size(); }
+        @Override public int getColumnCount() { return columns.length; }
+        @Override public String getColumnName(int column) { return columns[column]; }
+        @Override public Object getValueAt(int row, int column) { return rows.get(row)[column]; }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column >= 2 ? (column == 4 ? Long.class : Integer.class) : String.class;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 서버 dispatch(모드별 핸들러) 처리 시간 히스토그램
+// - HDR 히스토그램처럼 2의 거듭제곱 구간을 다시 SUB_COUNT개로 나눠서 셈 (상대 오차 약 6%, 잠금 없음)
+// - 모드마다 따로 세고, rollover()마다 새 구간을 시작. 조회는 직전 구간 + 현재 구간을 합쳐서 봄
+//   (최근 1~2 구간의 값만 보이므로 서버를 오래 띄워도 옛날 값에 묻히지 않음)
+// - 구간은 분위수에만 씀. Prometheus의 _sum/_count는 서버 시작부터 줄지 않는 누적값 (rate()가 맞게 나오도록)
+// - 느린 요청 기준(slowNanos)을 넘으면 record()가 true를 돌려줌. 모드마다 SLOW_LOG_INTERVAL에 한 번만
+public class DispatchLatency implements Metrics.Writer {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_COUNT;
+    private static final long SLOW_LOG_INTERVAL = 1_000_000_000L; // ns
+
+    private final long slowNanos;
+    private final AtomicLongArray lastSlowLog = new AtomicLongArray(GameMsg.MODE_LIMIT);
+    private volatile Window current = new Window();
+    private volatile Window previous = new Window();
+    // 시작부터의 누적 (구간을 넘겨도 줄지 않음)
+    private final AtomicLongArray totalCounts = new AtomicLongArray(GameMsg.MODE_LIMIT);
+    private final AtomicLongArray totalSums = new AtomicLongArray(GameMsg.MODE_LIMIT);
+
+    public DispatchLatency(long slowNanos) {
+        this.slowNanos = slowNanos;
+    }
+
+    public long getSlowNanos() {
+        return slowNanos;
+    }
+
+    // 느린 요청이고 이번에 기록해야 하면 true
+    public boolean record(int mode, long nanos) {
+        if (mode < 0 || mode >= GameMsg.MODE_LIMIT) mode = 0;
+        current.record(mode, Math.max(nanos, 0));
+        totalCounts.incrementAndGet(mode);
+        totalSums.addAndGet(mode, Math.max(nanos, 0));
+        if (nanos < slowNanos) return false;
+        long now = System.nanoTime();
+        long last = lastSlowLog.get(mode);
+        return (last == 0 || now - last >= SLOW_LOG_INTERVAL) && lastSlowLog.compareAndSet(mode, last, now);
+    }
+
+    public void rollover() {
+        previous = current;
+        current = new Window();
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_COUNT) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    // 구간에 들어가는 가장 큰 값
+    static long upperBound(int bucket) {
+        if (bucket < SUB_COUNT) return bucket;
+        int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+        long sub = bucket % SUB_COUNT;
+        long base = (SUB_COUNT + sub) << (exponent - SUB_BITS);
+        return base + (1L << (exponent - SUB_BITS)) - 1;
+    }
+
+    public Stats stats(int mode) {
+        Window older = previous;
+        Window newer = current;
+        long[] counts = new long[BUCKETS];
+        long count = older.addTo(mode, counts) + newer.addTo(mode, counts);
+        if (count == 0) return null;
+        long max = Math.max(older.max.get(mode), newer.max.get(mode));
+        long sum = older.sums.get(mode) + newer.sums.get(mode);
+        return new Stats(mode, count, sum, quantile(counts, count, 0.5, max),
+                quantile(counts, count, 0.99, max), quantile(counts, count, 0.999, max), max);
+    }
+
+    private static long quantile(long[] counts, long total, double q, long max) {
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+
+    // 기록이 있는 모드만
+    public List<Stats> snapshot() {
+        List<Stats> list = new ArrayList<>();
+        for (int mode = 0; mode < GameMsg.MODE_LIMIT; mode++) {
+            Stats stats = stats(mode);
+            if (stats != null) list.add(stats);
+        }
+        return list;
+    }
+
+    public long getTotalCount(int mode) {
+        return totalCounts.get(mode);
+    }
+
+    public long getTotalNanos(int mode) {
+        return totalSums.get(mode);
+    }
+
+    // Prometheus summary (초 단위). 분위수는 최근 구간, _sum/_count는 누적
+    @Override
+    public void format(String name, StringBuilder sb) {
+        for (int i = 0; i < GameMsg.MODE_LIMIT; i++) {
+            long count = totalCounts.get(i);
+            if (count == 0) continue;
+            Stats stats = stats(i);
+            String modeName = GameMsg.modeName(i);
+            String mode = "mode=\"" + (modeName != null ? modeName : "other") + "\"";
+            if (stats != null) {
+                sb.append(name).append('{').append(mode).append(",quantile=\"0.5\"} ").append(stats.p50 / 1e9).append('\n');
+                sb.append(name).append('{').append(mode).append(",quantile=\"0.99\"} ").append(stats.p99 / 1e9).append('\n');
+                sb.append(name).append('{').append(mode).append(",quantile=\"0.999\"} ").append(stats.p999 / 1e9).append('\n');
+            }
+            sb.append(name).append("_sum{").append(mode).append("} ").append(totalSums.get(i) / 1e9).append('\n');
+            sb.append(name).append("_count{").append(mode).append("} ").append(count).append('\n');
+        }
+    }
+
+    // 최댓값은 summary에 넣을 수 없어서 별도 gauge로
+    public void formatMax(String name, StringBuilder sb) {
+        for (Stats stats : snapshot()) {
+            sb.append(name).append("{mode=\"").append(stats.modeName()).append("\"} ").append(stats.max / 1e9).append('\n');
+        }
+    }
+
+    // 한 구간의 모드별 기록. 모드별 배열은 처음 기록할 때 만듦
+    private static class Window {
+        private final AtomicLongArray[] counts = new AtomicLongArray[GameMsg.MODE_LIMIT];
+        final AtomicLongArray max = new AtomicLongArray(GameMsg.MODE_LIMIT);
+        final AtomicLongArray sums = new AtomicLongArray(GameMsg.MODE_LIMIT);
+
+        void record(int mode, long nanos) {
+            AtomicLongArray modeCounts = counts[mode];
+            if (modeCounts == null) modeCounts = create(mode);
+            modeCounts.incrementAndGet(bucketOf(nanos));
+            sums.addAndGet(mode, nanos);
+            long currentMax;
+            while (nanos > (currentMax = max.get(mode)) && !max.compareAndSet(mode, currentMax, nanos)) {
+                // 다시 시도
+            }
+        }
+
+        private synchronized AtomicLongArray create(int mode) {
+            if (counts[mode] == null) counts[mode] = new AtomicLongArray(BUCKETS);
+            return counts[mode];
+        }
+
+        // counts에 더하고 개수를 돌려줌
+        synchronized long addTo(int mode, long[] into) {
+            AtomicLongArray modeCounts = counts[mode];
+            if (modeCounts == null) return 0;
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                long c = modeCounts.get(i);
+                into[i] += c;
+                total += c;
+            }
+            return total;
+        }
+    }
+
+    public static class Stats {
+        public final int mode;
+        public final long count, sum;
+        public final long p50, p99, p999, max; // ns
+
+        Stats(int mode, long count, long sum, long p50, long p99, long p999, long max) {
+            this.mode = mode;
+            this.count = count;
+            this.sum = sum;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        public String modeName() {
+            String name = GameMsg.modeName(mode);
+            return name != null ? name : "other";
+        }
+    }
+}
@@ -7,12 +7,18 @@ public class GameMsg implements Serializable {
     public final static int LOGIN = 1;
     public final static int LOGIN_OK = 2;
     public final static int LOGOUT = 3;
+    public final static int RESUME = 4; // 클라이언트 -> 서버 : 끊긴 세션 이어 받기 (resumeToken)
+    public final static int RESUME_OK = 5; // 서버 -> 클라이언트 : 방 전체 상태, 이어서 놓친 메시지
+    public final static int RESUME_FAILED = 6; // 유예 시간이 지났거나 모르는 토큰
 
     public final static int ROOM_SELECT = 11;
     public final static int ROOM_NEW_MEMBER = 12;
     public final static int ROOM_SELECT_DENIED = 13;
     public final static int ROOM_EXIT = 14;
     public final static int ROOM_EXIT_OK = 15;
+    public final static int ROOM_STATE_REQUEST = 16; // 클라이언트 -> 서버 : 버전이 어긋났을 때 전체 상태 요청
+    public final static int ROOM_STATE = 17; // 서버 -> 클라이언트 : 방 전체 상태 (멤버, 준비, 현재 턴)
+    public final static int SPECTATE = 18; // 클라이언트 -> 서버 : 관전 요청 (message = 방 이름), 서버 -> 클라이언트 : 관전 시작 (ROOM_SELECT와 같은 내용)
 
     public final static int CHAT_MESSAGE = 21;
     public final static int CHAT_EMOTICON = 22;
@@ -24,6 +30,7 @@ public class GameMsg implements Serializable {
     public final static int GAME_UN_READY_OK = 35;
 
     public final static int DRAW_ACTION = 41;
+    public final static int STROKE_COMMIT = 42; // UDP로 미리 보낸 구간들을 TCP로 확정 (StrokeDatagram)
 
     public final static int GAME_START = 51;
     public final static int LIAR_NOTIFICATION = 52;
@@ -33,6 +40,29 @@ public class GameMsg implements Serializable {
     public final static int GAME_END = 56;
     public final static int GAME_RETRY = 57;
 
+    public final static int LEADERBOARD = 61; // 클라이언트 -> 서버 : 순위표 요청, 서버 -> 클라이언트 : 순위표 (message)
+
+    public final static int MODE_LIMIT = 64; // 모드 값은 이보다 작음 (모드별 통계 배열 크기)
+    private static final String[] MODE_NAMES = new String[MODE_LIMIT];
+
+    static {
+        // 위의 모드 상수 이름 (지표, 로그 표시용)
+        for (java.lang.reflect.Field field : GameMsg.class.getFields()) {
+            if (field.getType() != int.class || !java.lang.reflect.Modifier.isStatic(field.getModifiers())) continue;
+            try {
+                int mode = field.getInt(null);
+                if (mode > 0 && mode < MODE_LIMIT) MODE_NAMES[mode] = field.getName();
+            } catch (IllegalAccessException e) {
+                // public 상수만 읽으므로 발생하지 않음
+            }
+        }
+    }
+
+    // 정의되지 않은 모드면 null
+    public static String modeName(int mode) {
+        return mode >= 0 && mode < MODE_LIMIT ? MODE_NAMES[mode] : null;
+    }
+
     public int mode;   // 모드 값
     User user;  // 유저 정보
     Vector<User> readyUsers; // 준비완료 유저
@@ -41,9 +71,18 @@ public class GameMsg implements Serializable {
     int time; // 남은 시간(해당 라운드)
     private Paint paintData; // 그림 데이터용 필드 추가
     String votedUser; // 투표된 사용자 이름
+    private int targetId; // VOTE : 지목한 플레이어 번호 (User.id)
     private String resultMessage; // 최종 결과 메시지
     private boolean isWinner; // 승리 여부
     private boolean isVoteStart; // 투표 시작 여부
+    int version; // 방 상태 버전 (ROOM_SELECT, ROOM_STATE는 전체 상태, 그 외에는 변경분 하나)
+    private String resumeToken; // LOGIN_OK로 받고 RESUME 때 보냄
+    private boolean compress; // LOGIN, RESUME : 압축을 받을 수 있음 / LOGIN_OK, RESUME_OK : 서버가 압축해서 보냄
+    private int udpPort; // LOGIN_OK, RESUME_OK : 획 미리보기 UDP 포트 (0이면 없음)
+    private long udpKey; // LOGIN_OK, RESUME_OK : UDP 패킷에 붙일 키
+    private Paint[] strokeSegments; // STROKE_COMMIT : 순번 firstSeq부터 이어지는 구간들
+    private int firstSeq;
+    private int drawerId; // STROKE_COMMIT : 그린 플레이어 번호 (서버가 붙임)
 
     // TIME, VOTE
     public GameMsg(int mode, User user, String message, int time, Vector<User> userNames) {
@@ -54,6 +93,38 @@ public class GameMsg implements Serializable {
         this.userNames = userNames;
     }
 
+    // 관전 중계용 복사본 : 서버의 User(방, 키워드, 라이어 여부)는 싣지 않고 번호와 이름만
+    public GameMsg publicCopy() {
+        GameMsg copy = new GameMsg(mode);
+        copy.user = user != null ? user.publicCopy() : null;
+        copy.readyUsers = publicCopies(readyUsers);
+        copy.userNames = publicCopies(userNames);
+        copy.message = message;
+        copy.time = time;
+        copy.paintData = paintData;
+        copy.votedUser = votedUser;
+        copy.targetId = targetId;
+        copy.resultMessage = resultMessage;
+        copy.isWinner = isWinner;
+        copy.isVoteStart = isVoteStart;
+        copy.version = version;
+        copy.strokeSegments = strokeSegments;
+        copy.firstSeq = firstSeq;
+        copy.drawerId = drawerId;
+        return copy;
+    }
+
+    private static Vector<User> publicCopies(Vector<User> users) {
+        if (users == null) return null;
+        Vector<User> copies = new Vector<>(users.size());
+        synchronized (users) {
+            for (User user : users) {
+                copies.add(user != null ? user.publicCopy() : null);
+            }
+        }
+        return copies;
+    }
+
     // LOGIN
     public GameMsg(int mode, String name) {
         this.mode = mode;
@@ -115,6 +186,13 @@ public class GameMsg implements Serializable {
         this.paintData = paintData;
     }
 
+    // STROKE_COMMIT
+    public GameMsg(int mode, int firstSeq, Paint[] strokeSegments) {
+        this.mode = mode;
+        this.firstSeq = firstSeq;
+        this.strokeSegments = strokeSegments;
+    }
+
     // GAME_END
     public GameMsg(int mode, User user, String resultMessage, boolean isWinner) {
         this.mode = mode;
@@ -131,6 +209,18 @@ public class GameMsg implements Serializable {
     public void setVotedUser(String votedUser) {
         this.votedUser = votedUser;
     }
+    public boolean isCompress() { return compress; }
+    public void setCompress(boolean compress) { this.compress = compress; }
+    public int getUdpPort() { return udpPort; }
+    public void setUdpPort(int udpPort) { this.udpPort = udpPort; }
+    public long getUdpKey() { return udpKey; }
+    public void setUdpKey(long udpKey) { this.udpKey = udpKey; }
+    public Paint[] getStrokeSegments() { return strokeSegments; }
+    public int getFirstSeq() { return firstSeq; }
+    public int getDrawerId() { return drawerId; }
+    public void setDrawerId(int drawerId) { this.drawerId = drawerId; }
+    public int getTargetId() { return targetId; }
+    public void setTargetId(int targetId) { this.targetId = targetId; }
     public String getResultMessage() { return resultMessage; } // 결과 메시지 반환
     public boolean isWinner() {
         return isWinner;
@@ -142,6 +232,49 @@ public class GameMsg implements Serializable {
         this.isVoteStart = isVoteStart;
     }
 
+    public int getVersion() {
+        return version;
+    }
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    // 느린 요청 로그용 : 비어 있지 않은 필드만
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("GameMsg{mode=");
+        String name = modeName(mode);
+        sb.append(name != null ? name : String.valueOf(mode));
+        if (user != null) sb.append(", user=").append(user.name);
+        if (message != null) sb.append(", message=").append(message);
+        if (time != 0) sb.append(", time=").append(time);
+        if (userNames != null) sb.append(", userNames=").append(userNames);
+        if (readyUsers != null) sb.append(", readyUsers=").append(readyUsers);
+        if (paintData != null) {
+            sb.append(", paint=(").append(paintData.getStartX()).append(',').append(paintData.getStartY())
+                    .append(")-(").append(paintData.getEndX()).append(',').append(paintData.getEndY()).append(')');
+        }
+        if (votedUser != null) sb.append(", votedUser=").append(votedUser);
+        if (targetId != 0) sb.append(", targetId=").append(targetId);
+        if (compress) sb.append(", compress");
+        if (udpPort != 0) sb.append(", udpPort=").append(udpPort);
+        if (strokeSegments != null) {
+            sb.append(", segments=").append(firstSeq).append('+').append(strokeSegments.length);
+            if (drawerId != 0) sb.append(", drawerId=").append(drawerId);
+        }
+        if (resultMessage != null) sb.append(", result=").append(resultMessage).append(isWinner ? " (승리)" : "");
+        if (isVoteStart) sb.append(", voteStart");
+        if (version != 0) sb.append(", version=").append(version);
+        return sb.append('}').toString();
+    }
+
+    public String getResumeToken() {
+        return resumeToken;
+    }
+    public void setResumeToken(String resumeToken) {
+        this.resumeToken = resumeToken;
+    }
+
     public int getMode() {
         return mode;
     }
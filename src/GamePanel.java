@@ -14,20 +14,38 @@ public class GamePanel extends JPanel {
     public JPanel southPanel;
     private Color currentColor = Color.BLACK;
     private boolean isErasing = false;
+    private JToggleButton eraserButton;
     private ClientManager clientManager;
-    private static List<DrawingLine> lines = new ArrayList<>();
+    private final List<DrawingLine> lines = new ArrayList<>();
 
     private int prevX, prevY;
     private boolean isDrawing = true;
     private MouseAdapter mouseAdapter;
     private MouseMotionAdapter mouseMotionAdapter;
     private static final Color ERASER_COLOR = Color.WHITE;
+    private static final BasicStroke PEN_STROKE = new BasicStroke(3);
+    private static final BasicStroke ERASER_STROKE = new BasicStroke(6);
+    private Rectangle pendingDirty = null; // 아직 다시 그리지 않은 원격 드로잉 영역
+
+    // 원격 획은 지터 버퍼를 거쳐 화면 갱신 주기마다 조금씩 재생 (재생할 것이 있을 때만 타이머가 돎)
+    private static final int PLAYBACK_FRAME_MILLIS = 16;
+    private final StrokePlayback playback = new StrokePlayback();
+    private final Timer playbackTimer = new Timer(PLAYBACK_FRAME_MILLIS, e -> playRemoteDrawing());
+    private boolean showStats = Boolean.getBoolean("debug.stats"); // F3으로 켜고 끔
 
     public GamePanel(ClientManager clientManager) {
         this.clientManager = clientManager;
         setPreferredSize(new Dimension(500, 500));
         setupDrawingListeners();
         setBackground(Color.WHITE);
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "toggleStats");
+        getActionMap().put("toggleStats", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showStats = !showStats;
+                repaint();
+            }
+        });
     }
 
     private JPanel createItemPanel(){
@@ -59,12 +77,10 @@ public class GamePanel extends JPanel {
         });
 
         // 지우개 버튼
-        JToggleButton eraserButton = new JToggleButton();
+        eraserButton = new JToggleButton();
         try {
             // 이미지 불러오기
-            ImageIcon eraserIcon = new ImageIcon(getClass().getResource("/images/eraser.png"));
-            Image scaledImage = eraserIcon.getImage().getScaledInstance(37, 37, Image.SCALE_SMOOTH);
-            eraserIcon = new ImageIcon(scaledImage);
+            ImageIcon eraserIcon = ImageCache.getIcon("/images/eraser.png", 37, 37);
             // 버튼에 아이콘 설정
             eraserButton.setIcon(eraserIcon);
         } catch (Exception e) {
@@ -155,17 +171,16 @@ public class GamePanel extends JPanel {
         // 이미지 아이콘 로드
         ImageIcon icon = null;
         try {
-            // 클래스패스를 통해 리소스를 로드
-            icon = new ImageIcon(getClass().getResource(imagePath));
+            // 크기 조정된 아이콘을 캐시에서 가져옴
+            icon = ImageCache.getIcon(imagePath, 35, 30);
         } catch (Exception e) {
             System.out.println("Error loading image: " + imagePath);
             e.printStackTrace();
             return new JButton("Missing Image");
         }
-
-        // 이미지 크기 조정
-        Image image = icon.getImage().getScaledInstance(35, 30, Image.SCALE_SMOOTH);
-        icon = new ImageIcon(image);
+        if (icon == null) {
+            return new JButton("Missing Image");
+        }
 
         // 버튼 생성
         JButton button = new JButton(icon);
@@ -185,6 +200,30 @@ public class GamePanel extends JPanel {
         return southPanel;
     }
 
+    // 방 입장/다시 시작 시 새로 만들지 않고 처음 상태로 되돌림
+    public void reset() {
+        clearLines();
+        pendingDirty = null;
+        currentColor = Color.BLACK;
+        isErasing = false;
+        if (eraserButton != null) eraserButton.setSelected(false);
+
+        // 결과 화면 오버레이 제거
+        removeAll();
+        setLayout(new FlowLayout());
+
+        // 하단 패널을 [도구, 나가기] 구성으로 복구
+        southPanel.removeAll();
+        keywordPanel = null;
+        southPanel.add(itemPanel);
+        southPanel.add(exitPanel);
+        setDrawingEnabled(true);
+
+        southPanel.revalidate();
+        revalidate();
+        repaint();
+    }
+
     public void addKeyword(String word) {
         if (keywordPanel != null) {
             southPanel.remove(keywordPanel);
@@ -244,23 +283,11 @@ public class GamePanel extends JPanel {
     }
 
     private ImageIcon resizeImageIcon(String imagePath, Dimension targetSize) {
-        try {
-            // 이미지를 로드
-            ImageIcon originalIcon = new ImageIcon(getClass().getResource(imagePath));
-            Image originalImage = originalIcon.getImage();
-
-            // 크기를 조정
-            Image resizedImage = originalImage.getScaledInstance(
-                    targetSize.width,
-                    targetSize.height,
-                    Image.SCALE_SMOOTH // 부드럽게 조정
-            );
-
-            return new ImageIcon(resizedImage);
-        } catch (Exception e) {
+        ImageIcon resizedIcon = ImageCache.getIcon(imagePath, targetSize.width, targetSize.height);
+        if (resizedIcon == null) {
             System.err.println("이미지를 로드하거나 크기를 조정할 수 없습니다: " + imagePath);
-            return null;
         }
+        return resizedIcon;
     }
 
     public JPanel createCenterPanel(){
@@ -345,44 +372,97 @@ public class GamePanel extends JPanel {
     }
 
     private void stopDrawing() {
+        clientManager.commitStroke(); // UDP로 보낸 구간 확정
         prevX = -1;
         prevY = -1; // 이전 좌표 초기화
         revalidate();
         repaint();
     }
 
+    // 그린 시각이 있는 원격 획 : 지터 버퍼에 넣고 재생 타이머가 그림 (EDT에서 호출)
+    public void receiveRemoteDrawing(Paint paint) {
+        playback.add(paint, paint.getReceivedAt() != 0 ? paint.getReceivedAt() : StrokePlayback.clock());
+        if (!playbackTimer.isRunning()) playbackTimer.start();
+    }
+
+    private void playRemoteDrawing() {
+        boolean more = playback.play(StrokePlayback.clock(), this::receiveRemoteDrawing);
+        if (!more) playbackTimer.stop();
+        flushRemoteDrawing();
+        if (showStats) repaint(0, 0, getWidth(), 40);
+    }
+
+    // 선만 추가하고 다시 그리기는 flushRemoteDrawing에서 한 번에 (리플레이는 바로 이걸 부름)
     public void receiveRemoteDrawing(int startX, int startY, int endX, int endY, Color color) {
         //System.out.println("Drawing received: (" + startX + ", " + startY + ") -> (" + endX + ", " + endY + "), Color: " + color);
         synchronized (lines) {
             lines.add(new DrawingLine(startX, startY, endX, endY, color));
         }
-        SwingUtilities.invokeLater(this::repaint);
+        int pad = (int) ERASER_STROKE.getLineWidth();
+        Rectangle dirty = new Rectangle(Math.min(startX, endX) - pad, Math.min(startY, endY) - pad,
+                Math.abs(endX - startX) + pad * 2, Math.abs(endY - startY) + pad * 2);
+        pendingDirty = pendingDirty == null ? dirty : pendingDirty.union(dirty);
+    }
+
+    // 한 프레임 동안 받은 원격 드로잉을 한 번만 다시 그림 (EDT에서 호출)
+    public void flushRemoteDrawing() {
+        if (pendingDirty != null) {
+            repaint(pendingDirty);
+            pendingDirty = null;
+        }
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
-        g2d.setStroke(new BasicStroke(3));
+        g2d.setStroke(PEN_STROKE);
 
         // 영구 선들 그리기
         synchronized (lines) {
             for (DrawingLine line : lines) {
                 g2d.setColor(line.getColor());
                 if (line.getColor().equals(ERASER_COLOR)) {
-                    g2d.setStroke(new BasicStroke(6)); // 지우개 크기 적용
+                    g2d.setStroke(ERASER_STROKE); // 지우개 크기 적용
                 } else {
-                    g2d.setStroke(new BasicStroke(3)); // 기본 크기
+                    g2d.setStroke(PEN_STROKE); // 기본 크기
                 }
                 g2d.drawLine(line.getStartX(), line.getStartY(), line.getEndX(), line.getEndY());
             }
         }
-        revalidate();
-        SwingUtilities.invokeLater(this::repaint);
+        if (showStats) paintStats(g2d);
+    }
+
+    private void paintStats(Graphics2D g2d) {
+        String playbackStats = String.format("재생 지연 %dms (목표 %d) | 대기 %d | 늦게 옴 %d/%d",
+                playback.getDelay(), playback.getTargetDelay(), playback.getQueued(), playback.getLate(), playback.getPlayed());
+        String serverStats = String.format("서버 큐 대기 : 그림 %.1fms, 제어 %.1fms | UDP %s (받음 %d, 커밋으로 채움 %d)",
+                clientManager.getLaneLastDelayMicros(PrioritySender.STROKE) / 1000.0,
+                clientManager.getLaneLastDelayMicros(PrioritySender.CONTROL) / 1000.0,
+                clientManager.isUdpReady() ? "사용" : "안 씀", clientManager.getUdpPreviewCount(), clientManager.getUdpRecoveredCount());
+        String imageStats = String.format("이미지 캐시 %d개 %.1fMB | 적중 %d, 디코딩 %d번 (합계 %dms, 마지막 %.1fms)",
+                ImageCache.getEntryCount(), ImageCache.getCachedBytes() / (1024.0 * 1024), ImageCache.getHits(), ImageCache.getMisses(),
+                ImageCache.getDecodeNanos() / 1_000_000, ImageCache.getLastDecodeNanos() / 1e6);
+        g2d.setFont(g2d.getFont().deriveFont(11f));
+        FontMetrics metrics = g2d.getFontMetrics();
+        int width = Math.max(metrics.stringWidth(playbackStats), Math.max(metrics.stringWidth(serverStats), metrics.stringWidth(imageStats)));
+        g2d.setColor(new Color(0, 0, 0, 150));
+        g2d.fillRect(0, 0, width + 10, 52);
+        g2d.setColor(Color.WHITE);
+        g2d.drawString(playbackStats, 5, 14);
+        g2d.drawString(serverStats, 5, 30);
+        g2d.drawString(imageStats, 5, 46);
+    }
+
+    // 턴이 바뀜 : 새로 그리는 사람의 시계로 재생 지연을 다시 잡음
+    public void resetPlaybackTiming() {
+        playback.resetTiming();
     }
 
     // 방 입장 시 기존 선들 초기화하는 메서드 추가
     public void clearLines() {
+        playback.clear();
+        playbackTimer.stop();
         synchronized (lines) {
             lines.clear();
         }
@@ -416,9 +496,6 @@ public class GamePanel extends JPanel {
         } else {
             disableDrawing(); // 리스너 해제
         }
-
-        revalidate();
-        repaint();
     }
 
     public void enableDrawing() {
@@ -430,8 +507,7 @@ public class GamePanel extends JPanel {
         }
         setEnabled(true); // 명시적으로 패널을 활성화
         requestFocusInWindow(); // 포커스 요청
-        revalidate();
-        SwingUtilities.invokeLater(this::repaint);
+        repaint();
     }
 
     public void disableDrawing() {
@@ -442,8 +518,7 @@ public class GamePanel extends JPanel {
             System.out.println("Drawing disabled.");
         }
         setEnabled(false); // 패널 비활성화
-        revalidate();
-        SwingUtilities.invokeLater(this::repaint);
+        repaint();
     }
 
     private static class DrawingLine {
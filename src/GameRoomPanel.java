@@ -1,10 +1,7 @@
 import javax.swing.*;
 import javax.swing.Timer;
-import javax.swing.text.BadLocationException;
-import javax.swing.text.DefaultStyledDocument;
 import java.awt.*;
 import java.awt.event.*;
-import java.net.URL;
 import java.util.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
@@ -16,19 +13,27 @@ public class GameRoomPanel extends JPanel {
     private Vector<User> userNames = new Vector<>();  // 방에 들어온 유저 저장
     private Vector<User> readyUsers = new Vector<>(); // 준비 완료한 유저 저장
 
-    private JTextPane chat_display;
-    private DefaultStyledDocument document;
+    private ChatView chatView;
 
     private JPanel userSidePanel; // 전역 변수로 저장
     private HashMap<String, JPanel> userLeftTopPanels = new HashMap<>();
     private HashMap<String, JPanel> userLeftBottomPanels = new HashMap<>();
+    private HashMap<String, JLabel> userStatusLabels = new HashMap<>(); // 하단 패널마다 하나씩 두고 내용만 바꿈
+    private static final Color STATUS_DEFAULT_BG = new Color(242, 242, 242);
+    private static final Color STATUS_HIGHLIGHT_BG = new Color(201, 208, 191);
     private HashMap<String, JPanel> userRightPanels = new HashMap<>();
+    private HashMap<String, JPanel> userPanels = new HashMap<>(); // 유저별 전체 패널 (변경분만 붙이고 떼기 위해)
+    private HashMap<String, Component> userSpacers = new HashMap<>();
     public JPanel rightPannel;
     private JPanel readyPanel;
     public JPanel alarmPanel;
     public GamePanel gamePanel;
     public JPanel centerPanel;
     private JLabel alarmLabel;
+    private JLabel titleLabel;
+    private JTextField chatInput;
+    private JButton sendButton;
+    private boolean spectator = false; // 관전 중이면 채팅, 그리기, 준비, 투표 불가
     private String keyword;
     private String currentTurnUserName; // 현재 턴 사용자 이름
 
@@ -55,6 +60,63 @@ public class GameRoomPanel extends JPanel {
         buildGUI();
     }
 
+    // 다른 방 입장, 다시 시작 시 패널을 새로 만들지 않고 처음 상태로 되돌림
+    public void reset(GameMsg gameMsg) {
+        this.gameMsg = gameMsg;
+        keyword = null;
+        currentTurnUserName = null;
+        ready = false;
+        start = false;
+        hasVoted = false;
+        isVotingActive = false;
+        spectator = false;
+        chatInput.setEnabled(true);
+        sendButton.setEnabled(true);
+        userNames = new Vector<>();
+        readyUsers = new Vector<>();
+
+        // 이전 방 유저 패널 정리
+        userLeftTopPanels.clear();
+        userLeftBottomPanels.clear();
+        userStatusLabels.clear();
+        userRightPanels.clear();
+        refreshUserSidePanel();
+
+        titleLabel.setText(gameMsg.user.name + " 님의 " + gameMsg.message + " 방");
+        alarmLabel.setText("남은 시간: 준비 중...");
+        chatView.clear();
+        gamePanel.reset();
+
+        // 오른쪽 상단을 준비 패널로 복구
+        rightPannel.remove(alarmPanel);
+        rightPannel.remove(readyPanel);
+        readyPanel = createReadyPanel();
+        rightPannel.add(readyPanel, BorderLayout.NORTH);
+
+        revalidate();
+        repaint();
+    }
+
+    // 관전 모드 : 읽기 전용 화면으로 바꿈 (reset 이후에 호출)
+    public void setSpectator(boolean spectator) {
+        this.spectator = spectator;
+        chatInput.setEnabled(!spectator);
+        sendButton.setEnabled(!spectator);
+        if (spectator) {
+            gamePanel.setDrawingEnabled(false);
+            titleLabel.setText(gameMsg.message + " 방 관전 중");
+        }
+        rightPannel.remove(readyPanel);
+        readyPanel = createReadyPanel();
+        rightPannel.add(readyPanel, BorderLayout.NORTH);
+        revalidate();
+        repaint();
+    }
+
+    public boolean isSpectator() {
+        return spectator;
+    }
+
     public void changeGameMsg(GameMsg gameMsg, String userName) {
         this.gameMsg = gameMsg;
         keyword = gameMsg.message;
@@ -62,10 +124,15 @@ public class GameRoomPanel extends JPanel {
     }
 
     // 턴 사용자 업데이트 및 그림 그리기 활성화/비활성화 제어
+    // 턴이 바뀌지 않았으면 아무것도 하지 않음
     public void updateTurnUser(String userName) {
+        if (userName.equals(currentTurnUserName)) {
+            return;
+        }
         currentTurnUserName = userName;
+        gamePanel.resetPlaybackTiming(); // 그리는 사람마다 시계 기준이 다름
         // 자신의 턴이 아닐 경우 GamePanel 비활성화
-        if (!userName.equals(clientManager.getUser().getName())) {
+        if (spectator || !userName.equals(clientManager.getUser().getName())) {
             gamePanel.setDrawingEnabled(false);
             System.out.println("다른 사용자의 턴입니다. GamePanel 비활성화.");
         } else {
@@ -74,9 +141,21 @@ public class GameRoomPanel extends JPanel {
         }
         System.out.println("턴 변경::현재 턴: " + userName);
         nowDrawingUser(userName);
+    }
 
-        revalidate();
-        repaint();
+    // 유저 하단 상태 표시 변경. 값이 같으면 컴포넌트를 건드리지 않음
+    private void setUserStatus(String userName, String text, Icon icon, Color background) {
+        JPanel leftBottomPanel = userLeftBottomPanels.get(userName);
+        JLabel statusLabel = userStatusLabels.get(userName);
+        if (leftBottomPanel == null || statusLabel == null) return;
+
+        if (!text.equals(statusLabel.getText())) statusLabel.setText(text);
+        if (statusLabel.getIcon() != icon) statusLabel.setIcon(icon);
+        if (!background.equals(leftBottomPanel.getBackground())) leftBottomPanel.setBackground(background);
+    }
+
+    private void resetUserStatus(String userName) {
+        setUserStatus(userName, "", null, STATUS_DEFAULT_BG);
     }
 
     public void removePanelSave() {
@@ -88,6 +167,7 @@ public class GameRoomPanel extends JPanel {
         userLeftTopPanels.keySet().removeIf(username -> !currentUserNames.contains(username));
         // userLeftBottomPanels에서 제거
         userLeftBottomPanels.keySet().removeIf(username -> !currentUserNames.contains(username));
+        userStatusLabels.keySet().removeIf(username -> !currentUserNames.contains(username));
         // userRightPanels에서 제거
         userRightPanels.keySet().removeIf(username -> !currentUserNames.contains(username));
 
@@ -117,43 +197,54 @@ public class GameRoomPanel extends JPanel {
         repaint();  // 화면 갱신
     }
 
+    // 새로 들어온 유저 패널만 추가
+    public void addUserPanel(String userName) {
+        if (userPanels.containsKey(userName)) return;
+        addIndividualUserPanel(userSidePanel, userName);
+        userSidePanel.revalidate();
+        userSidePanel.repaint();
+    }
+
+    // 나간 유저 패널만 제거
+    public void removeUserPanel(String userName) {
+        JPanel userPanel = userPanels.remove(userName);
+        Component spacer = userSpacers.remove(userName);
+        if (userPanel != null) userSidePanel.remove(userPanel);
+        if (spacer != null) userSidePanel.remove(spacer);
+        userLeftTopPanels.remove(userName);
+        userLeftBottomPanels.remove(userName);
+        userStatusLabels.remove(userName);
+        userRightPanels.remove(userName);
+        userSidePanel.revalidate();
+        userSidePanel.repaint();
+    }
+
+    // 한 유저의 준비 상태 표시만 변경
+    public void setUserReady(String userName, boolean ready) {
+        if (ready) {
+            setUserStatus(userName, "준비 완료", null, STATUS_DEFAULT_BG);
+        } else {
+            resetUserStatus(userName);
+        }
+    }
+
     // 유저왼쪽하단 준비 완료 화면 갱신
     private void refreshLeftBottomPanel(User user) {
 //        System.out.println("refreshLeftBottomPanel");
         if(user != null) { // 준비해제
-            JPanel leftBottomPanel = userLeftBottomPanels.get(user.getName());
-            if(leftBottomPanel != null) {
-                leftBottomPanel.removeAll();
-                leftBottomPanel.revalidate();
-                leftBottomPanel.repaint();
-            }
+            setUserReady(user.getName(), false);
         } else {
             if(readyUsers != null) {
                 for (User readyUser : readyUsers) {
-                    String readyUserName = readyUser.getName();
-                    JPanel leftBottomPanel = userLeftBottomPanels.get(readyUserName); // 해당 유저의 패널 찾기
-
-                    if (leftBottomPanel != null) {
-                        leftBottomPanel.removeAll();
-                        leftBottomPanel.add(new JLabel("준비 완료"));
-                        leftBottomPanel.revalidate();
-                        leftBottomPanel.repaint();
-                    }
+                    setUserReady(readyUser.getName(), true); // 해당 유저의 패널만 변경
                 }
             }
         }
     }
 
     public void clearAllLeftBottomPanels() {
-        if (userLeftBottomPanels != null) {
-            for (JPanel leftBottomPanel : userLeftBottomPanels.values()) {
-                if (leftBottomPanel != null) {
-                    leftBottomPanel.removeAll();
-                    leftBottomPanel.setBackground(new Color(242, 242, 242));
-                    leftBottomPanel.revalidate();
-                    leftBottomPanel.repaint();
-                }
-            }
+        for (String userName : userLeftBottomPanels.keySet()) {
+            resetUserStatus(userName);
         }
     }
 
@@ -166,7 +257,7 @@ public class GameRoomPanel extends JPanel {
                 userRightPanel.removeAll();
                 String resourcePath = getEmoticonPath(emoticonName);
                 if (resourcePath != null) {
-                    ImageIcon emoticonIcon = new ImageIcon(getClass().getResource(resourcePath));
+                    ImageIcon emoticonIcon = ImageCache.getIcon(resourcePath);
                     JLabel emoticonLabel = new JLabel(emoticonIcon);
                     userRightPanel.add(emoticonLabel); // 이모티콘 추가
 
@@ -212,14 +303,9 @@ public class GameRoomPanel extends JPanel {
 
     private ImageIcon getPenIcon() {
         if (penIcon == null) {
-            URL iconURL = getClass().getResource("/images/drawingpen.png");
-            if (iconURL != null) {
-                ImageIcon originalIcon = new ImageIcon(iconURL);
-                Image scaledImage = originalIcon.getImage().getScaledInstance(25, 25, Image.SCALE_SMOOTH);
-                penIcon = new ImageIcon(scaledImage);
-            } else {
+            penIcon = ImageCache.getIcon("/images/drawingpen.png", 25, 25);
+            if (penIcon == null) {
                 System.out.println("이미지 파일을 찾을 수 없습니다.");
-                penIcon = null; // 로드 실패 시 null 처리
             }
         }
         return penIcon;
@@ -227,14 +313,9 @@ public class GameRoomPanel extends JPanel {
 
     private ImageIcon getVoteICon(){
         if (voteIcon == null) {
-            URL iconURL = getClass().getResource("/images/Vote.png");
-            if (iconURL != null) {
-                ImageIcon originalIcon = new ImageIcon(iconURL);
-                Image scaledImage = originalIcon.getImage().getScaledInstance(17, 17, Image.SCALE_SMOOTH);
-                voteIcon = new ImageIcon(scaledImage);
-            } else {
+            voteIcon = ImageCache.getIcon("/images/Vote.png", 17, 17);
+            if (voteIcon == null) {
                 System.out.println("이미지 파일을 찾을 수 없습니다.");
-                voteIcon = null; // 로드 실패 시 null 처리
             }
         }
         return voteIcon;
@@ -242,26 +323,15 @@ public class GameRoomPanel extends JPanel {
 
     // 현재 그리고 있는 클라이언트 표시
     private void nowDrawingUser(String currentDrawingUserName){
-        for (Map.Entry<String, JPanel> entry : userLeftBottomPanels.entrySet()) {
-            JPanel leftBottomPanel = entry.getValue();
-            leftBottomPanel.removeAll(); // 기존 내용을 제거
-
-            if (entry.getKey().equals(currentDrawingUserName)) {
+        // 상태가 실제로 바뀌는 패널(이전 턴, 새 턴)만 갱신됨
+        for (String userName : userLeftBottomPanels.keySet()) {
+            if (userName.equals(currentDrawingUserName)) {
                 // 현재 그림을 그리는 사용자 강조
-                ImageIcon penIcon = getPenIcon();
-                if (penIcon != null) {
-                    JLabel drawingLabel = new JLabel(penIcon, JLabel.CENTER);
-                    leftBottomPanel.add(drawingLabel);
-                }
-                leftBottomPanel.setBackground(new Color(201,208,191)); // 강조 배경색
+                setUserStatus(userName, "", getPenIcon(), STATUS_HIGHLIGHT_BG);
             } else {
                 // 기본 상태 유지
-                leftBottomPanel.add(new JLabel("대기 중"));
-                leftBottomPanel.setBackground(new Color(242, 242, 242)); // 기본 배경색
+                setUserStatus(userName, "대기 중", null, STATUS_DEFAULT_BG);
             }
-
-            leftBottomPanel.revalidate();
-            leftBottomPanel.repaint();
         }
     }
 
@@ -293,6 +363,7 @@ public class GameRoomPanel extends JPanel {
 
         // 유저 하단 패널 초기화
         clearAllLeftBottomPanels();
+        currentTurnUserName = null; // 새 게임의 첫 턴은 항상 반영되도록
         gamePanel.clearLines(); // 캔버스 초기화
 
         if(gamePanel.keywordPanel != null) {
@@ -343,9 +414,9 @@ public class GameRoomPanel extends JPanel {
         JPanel panel = new JPanel();
         panel.setPreferredSize(new Dimension(0, 35));
         panel.setBackground(new Color(64,48,47));
-        JLabel title = new JLabel(gameMsg.user.name + " 님의 " + gameMsg.message + " 방", SwingConstants.CENTER);
-        title.setForeground(Color.WHITE);
-        panel.add(title, BorderLayout.NORTH);
+        titleLabel = new JLabel(gameMsg.user.name + " 님의 " + gameMsg.message + " 방", SwingConstants.CENTER);
+        titleLabel.setForeground(Color.WHITE);
+        panel.add(titleLabel, BorderLayout.NORTH);
         return panel;
     }
 
@@ -355,16 +426,25 @@ public class GameRoomPanel extends JPanel {
         panel.setPreferredSize(new Dimension(170, 0));
         panel.setBackground(new Color(64,48,47));
 
+        userPanels.clear();
+        userSpacers.clear();
         for (User userName : userNames) {
-            JPanel userPanel = createIndividualUserPanel(userName.getName());
-            userPanel.setMaximumSize(new Dimension(150, 90)); // 크기 고정
-
-            panel.add(userPanel);
-            panel.add(Box.createRigidArea(new Dimension(0, 17))); // 간격 추가
+            addIndividualUserPanel(panel, userName.getName());
         }
         return panel;
     }
 
+    private void addIndividualUserPanel(JPanel sidePanel, String userName) {
+        JPanel userPanel = createIndividualUserPanel(userName);
+        userPanel.setMaximumSize(new Dimension(150, 90)); // 크기 고정
+        Component spacer = Box.createRigidArea(new Dimension(0, 17)); // 간격 추가
+
+        sidePanel.add(userPanel);
+        sidePanel.add(spacer);
+        userPanels.put(userName, userPanel);
+        userSpacers.put(userName, spacer);
+    }
+
     private void setupClickEventForPanel(JPanel userPanel, String userName) {
         // 클릭 이벤트 추가
         if (isVotingActive) {
@@ -378,6 +458,7 @@ public class GameRoomPanel extends JPanel {
     }
 
     public void setVotingActive(boolean active) {
+        if (spectator) active = false; // 관전자는 투표하지 않음
         isVotingActive = active;
         System.out.println("setVotingActive 확인  :: "+isVotingActive);
 
@@ -440,8 +521,11 @@ public class GameRoomPanel extends JPanel {
         } else {
             // 새 패널 생성
             leftBottomPanel = new JPanel();
-            leftBottomPanel.setBackground(new Color(242, 242, 242));
+            leftBottomPanel.setBackground(STATUS_DEFAULT_BG);
             leftBottomPanel.setBorder(BorderFactory.createLineBorder(new Color(64, 48, 47), 2)); // 테두리
+            JLabel statusLabel = new JLabel("", JLabel.CENTER); // 준비/턴/투표 표시는 이 라벨 하나로
+            leftBottomPanel.add(statusLabel);
+            userStatusLabels.put(userName, statusLabel);
 
             userLeftBottomPanels.put(userName, leftBottomPanel); // userLeftBottomPanels에 저장해서 관리
         }
@@ -486,9 +570,9 @@ public class GameRoomPanel extends JPanel {
         try {
             // getVoteIcon 메서드를 통해 아이콘 가져오기
             ImageIcon voteIcon = getVoteICon(); // 클래스의 getVoteICon 메서드 사용
-            if (voteIcon != null) {
-                JLabel voteLabel = new JLabel(voteIcon, JLabel.CENTER); // 아이콘으로 JLabel 생성
-                leftBottomPanel.add(voteLabel); // 아이콘 추가
+            JLabel statusLabel = userStatusLabels.get(votedUserName);
+            if (voteIcon != null && statusLabel != null) {
+                setUserStatus(votedUserName, statusLabel.getText(), voteIcon, leftBottomPanel.getBackground()); // 아이콘 추가
             }
             else {
                 System.err.println("Vote 아이콘을 가져올 수 없습니다.");
@@ -501,8 +585,6 @@ public class GameRoomPanel extends JPanel {
         clientManager.sendVote(gameMsg.user, votedUserName);
         System.out.println("투표 요청 전송: " + votedUserName);
 
-        revalidate();
-        repaint();
         // 투표 성공 알림
         JOptionPane.showMessageDialog(this, votedUserName + " 님에게 투표했습니다!", "투표 완료", JOptionPane.INFORMATION_MESSAGE);
     }
@@ -541,11 +623,13 @@ public class GameRoomPanel extends JPanel {
 
         JPanel welcomePanel = new JPanel();
         welcomePanel.setBackground(new Color(64,48,47));
-        JLabel welcomeLabel = new JLabel("환영합니다! " + gameMsg.user.name + " 님");
+        JLabel welcomeLabel = new JLabel(spectator
+                ? "관전 중입니다 (" + SpectatorFeed.DELAY / 1_000_000_000L + "초 지연)"
+                : "환영합니다! " + gameMsg.user.name + " 님");
         welcomeLabel.setForeground(Color.WHITE); // 텍스트 색상을 흰색으로 설정
         welcomePanel.add(welcomeLabel);
 
-        if(ready == true) {
+        if(ready == true && !spectator) {
             JPanel buttonPanel = new JPanel(new GridLayout(1,2));
             JButton readyButton = new JButton("준비");
             JButton unReadyButton = new JButton("준비 해제");
@@ -586,7 +670,13 @@ public class GameRoomPanel extends JPanel {
 
     private JPanel createAlarmPanel() {
         JPanel alarmPanel = new JPanel(new BorderLayout()) {
-            private Image backgroundImage = new ImageIcon(getClass().getResource("/images/alarm.png")).getImage();
+            // 매초 바뀌는 남은 시간 라벨 때문에 방 전체 레이아웃을 다시 하지 않도록 여기서 멈춤
+            @Override
+            public boolean isValidateRoot() {
+                return true;
+            }
+
+            private Image backgroundImage = ImageCache.getIcon("/images/alarm.png").getImage();
 
             @Override
             protected void paintComponent(Graphics g) {
@@ -624,12 +714,8 @@ public class GameRoomPanel extends JPanel {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setPreferredSize(new Dimension(0, 270));
 
-        document = new DefaultStyledDocument();
-        chat_display = new JTextPane(document);
-        chat_display.setEditable(false);
-
-        JScrollPane scrollPane = new JScrollPane(chat_display);
-        panel.add(scrollPane, BorderLayout.CENTER);
+        chatView = new ChatView();
+        panel.add(chatView, BorderLayout.CENTER);
 
         return panel;
     }
@@ -639,6 +725,7 @@ public class GameRoomPanel extends JPanel {
 //        panel.setPreferredSize(new Dimension(0, 40));
 
         JTextField chat_input = new JTextField();
+        chatInput = chat_input;
 //        chat_input.setPreferredSize(new Dimension(100, 40));
         chat_input.addActionListener(new ActionListener() {
             @Override
@@ -650,6 +737,7 @@ public class GameRoomPanel extends JPanel {
         });
 
         JButton b_send = new JButton("전송");
+        sendButton = b_send;
 //        b_send.setPreferredSize(new Dimension(30, 40));
         b_send.addActionListener(new ActionListener() {
             @Override
@@ -666,15 +754,9 @@ public class GameRoomPanel extends JPanel {
         return panel;
     }
 
+    // 같은 프레임에 들어온 메시지는 ChatView가 모아서 한 번에 반영
     public void showChat(String msg) {
-        System.out.println("showChat에 " + msg);
-        int len = chat_display.getDocument().getLength();
-        try {
-            document.insertString(len, msg + "\n", null);
-        } catch (BadLocationException e) {
-            e.printStackTrace();
-        }
-        chat_display.setCaretPosition(len);
+        chatView.append(msg);
     }
 
     private JPanel ImgPanel() {
@@ -703,7 +785,7 @@ public class GameRoomPanel extends JPanel {
 
     private JLabel createClickableLabel(String resourcePath, String emoticonName) {
         // 이미지 로드
-        ImageIcon icon = new ImageIcon(getClass().getResource(resourcePath));
+        ImageIcon icon = ImageCache.getIcon(resourcePath);
         JLabel label = new JLabel(icon);
         // MouseListener 추가
         label.addMouseListener(new java.awt.event.MouseAdapter() {
@@ -718,21 +800,19 @@ public class GameRoomPanel extends JPanel {
 
     public void updateAlarmLabel(int remainingTime) {
         if (alarmLabel != null) {
-            alarmLabel.setText(" " + remainingTime);
-            alarmLabel.setForeground(Color.black);
-            alarmLabel.setHorizontalAlignment(SwingConstants.CENTER);
+            String text = " " + remainingTime;
+            if (!text.equals(alarmLabel.getText())) { // 바뀐 숫자만 다시 그림
+                alarmLabel.setText(text);
+            }
             //System.out.println("알람 업데이트: 남은 시간 -> " + remainingTime + "초");
         }
     }
 
     public void resetVoteState() {
         hasVoted = false; // 투표 상태 초기화
-        for (JPanel panel : userLeftBottomPanels.values()) {
-            panel.setEnabled(true); // 모든 패널을 활성화
-            panel.removeAll(); // 기존 컴포넌트 제거
-            panel.setBackground(new Color(242, 242, 242)); // 초기 배경색 설정
-            panel.revalidate();
-            panel.repaint();
+        for (Map.Entry<String, JPanel> entry : userLeftBottomPanels.entrySet()) {
+            entry.getValue().setEnabled(true); // 모든 패널을 활성화
+            resetUserStatus(entry.getKey()); // 표시 내용과 배경색 초기화
         }
         System.out.println("투표 상태 초기화 완료");
     }
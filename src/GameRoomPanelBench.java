@@ -0,0 +1,227 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Vector;
+
+// 방 화면의 TIME 틱 처리 비용과 방 전환 후 남는 힙 : java -Djava.awt.headless=true -cp .:<images가 있는 폴더> GameRoomPanelBench [틱 수]
+// 틱 : 창 없이 멤버 4명인 방 화면을 만들고 게임을 시작한 뒤, 1초 틱(15틱마다 턴 변경)을 넣으면서 틱당 할당 바이트,
+// 패널 배치(doLayout) 횟수, revalidate/repaint 요청 수를 잼. 배치는 RepaintManager처럼 revalidate를 부른
+// 컴포넌트의 validate root만 다시 함
+public class GameRoomPanelBench {
+    public static void main(String[] args) throws Exception {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        SwingUtilities.invokeAndWait(() -> playRoom(new GameRoomPanel(new ClientManager("127.0.0.1", 0, null),
+                new GameMsg(GameMsg.ROOM_SELECT, new User("a"), "warmup")), -1)); // 이미지, 글꼴 등 한 번만 만드는 캐시는 빼고 잼
+        for (boolean reuse : new boolean[]{false, true}) {
+            measureRoomSwitches(reuse);
+        }
+        SwingUtilities.invokeAndWait(() -> measureTicks(ticks)); // revalidate는 이벤트 스레드에서만 바로 처리됨
+        System.exit(0);
+    }
+
+    // 방 전환 100번 뒤 남는 힙 : 이전(Client가 방마다 새 GameRoomPanel을 만듦)과 지금(하나를 reset으로 재사용)
+    // 방마다 멤버 4명, 채팅 50줄, 원격 획 2000개(재생 타이머 포함), 게임 시작/종료까지 한 뒤 다음 방으로 옮김
+    // Client처럼 마지막 화면 하나만 붙잡고, GC 후 시작 전보다 늘어난 힙 사용량을 잼
+    private static final int ROOM_SWITCHES = 100;
+
+    private static void measureRoomSwitches(boolean reuse) throws Exception {
+        java.lang.management.MemoryMXBean memory = java.lang.management.ManagementFactory.getMemoryMXBean();
+        GameRoomPanel[] switchedPanel = new GameRoomPanel[1]; // Client.gameRoomPanel 역할
+        long baseline = usedHeapAfterGc(memory);
+        long[] elapsed = new long[1];
+        ClientManager clientManager = new ClientManager("127.0.0.1", 0, null);
+        for (int room = 0; room < ROOM_SWITCHES; room++) {
+            final int r = room;
+            SwingUtilities.invokeAndWait(() -> {
+                GameMsg enter = new GameMsg(GameMsg.ROOM_SELECT, new User("a"), "room" + r);
+                long start = System.nanoTime();
+                if (reuse && switchedPanel[0] != null) {
+                    switchedPanel[0].reset(enter);
+                } else {
+                    switchedPanel[0] = new GameRoomPanel(clientManager, enter);
+                }
+                elapsed[0] += System.nanoTime() - start;
+                playRoom(switchedPanel[0], r);
+            });
+        }
+        Thread.sleep(200); // 남은 재생 타이머가 멈출 시간
+        long retained = usedHeapAfterGc(memory) - baseline;
+        System.out.printf("방 전환 %d번 (%s) : 남은 힙 %.1fMB, 전환당 %dus%n", ROOM_SWITCHES, reuse ? "재사용" : "새로 생성",
+                retained / 1048576.0, elapsed[0] / ROOM_SWITCHES / 1000);
+    }
+
+    private static void playRoom(GameRoomPanel panel, int room) {
+        panel.setSpectator(true); // 로그인한 User가 없으므로 자기 턴이 없는 멤버로 둠 (reset이 false로 되돌림)
+        Vector<User> members = new Vector<>();
+        for (String name : new String[]{"a", "b", "c", "d"}) members.add(new User(name));
+        panel.updateUser(members);
+        for (int i = 0; i < 50; i++) panel.showChat("room" + room + " chat " + i);
+        panel.refreshStartGame();
+        for (int i = 0; i < 2000; i++) {
+            panel.gamePanel.receiveRemoteDrawing(i % 800, i % 600, (i + 7) % 800, (i + 3) % 600, Color.BLACK);
+        }
+        panel.gamePanel.receiveRemoteDrawing(new Paint(0, 0, 10, 10, Color.RED, false));
+        panel.updateTurnUser("b");
+        panel.refreshEndGame();
+    }
+
+    private static long usedHeapAfterGc(java.lang.management.MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void measureTicks(int ticks) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        RepaintManager original = RepaintManager.currentManager((Component) null);
+        CountingRepaintManager repaints = new CountingRepaintManager();
+        RepaintManager.setCurrentManager(repaints);
+        String[] names = {"a", "b", "c", "d"};
+
+        GameRoomPanel panel = new GameRoomPanel(new ClientManager("127.0.0.1", 0, null), new GameMsg(GameMsg.ROOM_SELECT, new User("a"), "bench"));
+        panel.setSpectator(true); // 로그인한 User가 없으므로 자기 턴이 없는 멤버로 둠
+        Vector<User> members = new Vector<>();
+        for (String name : names) members.add(new User(name));
+        panel.updateUser(members);
+        panel.refreshStartGame();
+        panel.setSize(1000, 700);
+        CountingLayout.install(panel);
+        CountingLayout.layOut(panel); // 처음 한 번 전체 배치
+
+        tick(panel, repaints, names, 0, ticks); // 예열
+        CountingLayout.layouts = 0;
+        repaints.revalidates = 0;
+        repaints.repaints = 0;
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        tick(panel, repaints, names, ticks, ticks);
+        allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+        System.out.printf("틱당 %d바이트 할당, 배치 %.2f회, revalidate %.2f회, repaint %.2f회%n",
+                allocated / ticks, CountingLayout.layouts / (double) ticks, repaints.revalidates / (double) ticks, repaints.repaints / (double) ticks);
+        RepaintManager.setCurrentManager(original); // 모아 둔 컴포넌트가 힙에 남지 않도록
+    }
+
+    // ClientManager.handleTime과 같은 호출 (남은 시간 표시, 턴이 바뀌었을 때만 턴 표시)
+    private static void tick(GameRoomPanel panel, CountingRepaintManager repaints, String[] names, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            String turn = names[i / 15 % names.length];
+            int remaining = 15 - i % 15;
+            panel.updateAlarmLabel(remaining);
+            if (!turn.equals(panel.getCurrentTurnUserName())) panel.updateTurnUser(turn);
+            repaints.validateInvalid(panel);
+        }
+    }
+
+    // 창이 없으면(피어가 없으면) Swing은 validate()에서 아무것도 배치하지 않으므로 같은 일을 직접 함
+    // - revalidate를 부른 컴포넌트와 그 위쪽 패널을 "배치 필요"로 표시 (이미 표시된 곳에서 멈춤, Container.invalidate와 같음)
+    // - validateInvalid에서 RepaintManager처럼 각 컴포넌트의 validate root부터 표시된 패널만 내려가며 doLayout
+    // (이미지 로딩 등 다른 스레드의 요청은 세지 않음. 잼 자체가 할당하지 않도록 목록은 재사용)
+    private static class CountingRepaintManager extends RepaintManager {
+        private final Thread owner = Thread.currentThread();
+        private final ArrayList<JComponent> invalid = new ArrayList<>();
+        private final ArrayList<Container> roots = new ArrayList<>();
+        long revalidates = 0;
+        long repaints = 0;
+
+        @Override
+        public void addInvalidComponent(JComponent component) {
+            if (Thread.currentThread() != owner) return;
+            revalidates++;
+            invalid.add(component);
+            CountingLayout.markDirty(component);
+        }
+
+        @Override
+        public void addDirtyRegion(JComponent c, int x, int y, int w, int h) {
+            if (Thread.currentThread() == owner) repaints++;
+        }
+
+        void validateInvalid(Container top) {
+            for (int i = 0; i < invalid.size(); i++) {
+                Container root = invalid.get(i);
+                while (root != top && root.getParent() != null && !root.isValidateRoot()) {
+                    root = root.getParent();
+                }
+                if ((root == top || root.getParent() != null) && !roots.contains(root)) roots.add(root); // 화면에서 떨어진 컴포넌트는 제외
+            }
+            invalid.clear();
+            for (int i = 0; i < roots.size(); i++) {
+                if (CountingLayout.needsLayout(roots.get(i))) CountingLayout.layOut(roots.get(i));
+            }
+            roots.clear();
+        }
+    }
+
+    // 패널의 배치를 감싸서 doLayout 횟수를 세고, 배치가 필요한지 표시를 둠
+    private static class CountingLayout implements LayoutManager2 {
+        static long layouts = 0;
+        private final LayoutManager delegate;
+        private boolean dirty = true;
+
+        CountingLayout(LayoutManager delegate) {
+            this.delegate = delegate;
+        }
+
+        static void install(Container container) {
+            LayoutManager layout = container.getLayout();
+            if (container instanceof JPanel && layout != null && !(layout instanceof CountingLayout)) {
+                container.setLayout(new CountingLayout(layout));
+            }
+            for (Component child : container.getComponents()) {
+                if (child instanceof Container) install((Container) child);
+            }
+        }
+
+        static void markDirty(Component component) {
+            for (Component c = component; c != null; c = c.getParent()) {
+                if (c instanceof Container && ((Container) c).getLayout() instanceof CountingLayout) {
+                    CountingLayout layout = (CountingLayout) ((Container) c).getLayout();
+                    if (layout.dirty) return;
+                    layout.dirty = true;
+                }
+            }
+        }
+
+        // 감싸지 않은 컨테이너(스크롤 등)는 표시가 없으므로 항상 내려감
+        static boolean needsLayout(Container container) {
+            LayoutManager layout = container.getLayout();
+            return !(layout instanceof CountingLayout) || ((CountingLayout) layout).dirty;
+        }
+
+        // Container.validateTree와 같음 : 자기를 배치하고 배치가 필요한 자식만 내려감. 끝난 뒤에 표시를 지움
+        static void layOut(Container container) {
+            container.doLayout();
+            for (int i = 0; i < container.getComponentCount(); i++) {
+                Component child = container.getComponent(i);
+                if (child instanceof Container && needsLayout((Container) child)) layOut((Container) child);
+            }
+            if (container.getLayout() instanceof CountingLayout) ((CountingLayout) container.getLayout()).dirty = false;
+        }
+
+        @Override public void layoutContainer(Container parent) { layouts++; delegate.layoutContainer(parent); }
+        @Override public void addLayoutComponent(String name, Component comp) { delegate.addLayoutComponent(name, comp); }
+        @Override public void removeLayoutComponent(Component comp) { delegate.removeLayoutComponent(comp); }
+        @Override public Dimension preferredLayoutSize(Container parent) { return delegate.preferredLayoutSize(parent); }
+        @Override public Dimension minimumLayoutSize(Container parent) { return delegate.minimumLayoutSize(parent); }
+        @Override public void addLayoutComponent(Component comp, Object constraints) {
+            if (delegate instanceof LayoutManager2) ((LayoutManager2) delegate).addLayoutComponent(comp, constraints);
+            else if (constraints == null || constraints instanceof String) delegate.addLayoutComponent((String) constraints, comp);
+        }
+        @Override public Dimension maximumLayoutSize(Container target) {
+            return delegate instanceof LayoutManager2 ? ((LayoutManager2) delegate).maximumLayoutSize(target) : new Dimension(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        }
+        @Override public float getLayoutAlignmentX(Container target) {
+            return delegate instanceof LayoutManager2 ? ((LayoutManager2) delegate).getLayoutAlignmentX(target) : 0.5f;
+        }
+        @Override public float getLayoutAlignmentY(Container target) {
+            return delegate instanceof LayoutManager2 ? ((LayoutManager2) delegate).getLayoutAlignmentY(target) : 0.5f;
+        }
+        // 추가/삭제, 크기 변경 등으로 Container.invalidate()가 불릴 때
+        @Override public void invalidateLayout(Container target) {
+            markDirty(target);
+            if (delegate instanceof LayoutManager2) ((LayoutManager2) delegate).invalidateLayout(target);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 경로와 크기별로 디코딩/크기 조정이 끝난 아이콘을 보관하는 공용 캐시
+// 이미지 크기(픽셀 x 4 bytes) 합이 한도를 넘으면 가장 오래 안 쓴 것부터 제거 (LRU)
+public class ImageCache {
+    private static final long MAX_BYTES = 32L * 1024 * 1024;
+
+    private static final Map<String, ImageIcon> cache = new LinkedHashMap<>(32, 0.75f, true);
+    private static long cachedBytes = 0;
+
+    // 통계 (디코딩 시간 측정용, 로그로 찍지 않고 F3 통계 화면(GamePanel)에서 봄)
+    private static long hits = 0;
+    private static long misses = 0;
+    private static long decodeNanos = 0;
+    private static long lastDecodeNanos = 0;
+
+    private ImageCache() {}
+
+    // 원본 크기 그대로
+    public static ImageIcon getIcon(String path) {
+        return getIcon(path, 0, 0);
+    }
+
+    // width, height가 0이면 원본 크기
+    public static synchronized ImageIcon getIcon(String path, int width, int height) {
+        String key = path + "@" + width + "x" + height;
+        ImageIcon icon = cache.get(key);
+        if (icon != null) {
+            hits++;
+            return icon;
+        }
+
+        misses++;
+        long start = System.nanoTime();
+        icon = AssetArchive.loadIcon(path); // ImageIcon 생성 시 디코딩 완료까지 기다림
+        if (icon == null) {
+            return null;
+        }
+        if (width > 0 && height > 0) {
+            Image scaled = icon.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
+            icon = new ImageIcon(scaled); // 여기서 크기 조정까지 미리 끝냄
+        }
+        lastDecodeNanos = System.nanoTime() - start;
+        decodeNanos += lastDecodeNanos;
+
+        cache.put(key, icon);
+        cachedBytes += sizeOf(icon);
+        evict();
+        return icon;
+    }
+
+    private static void evict() {
+        var it = cache.entrySet().iterator();
+        while (cachedBytes > MAX_BYTES && cache.size() > 1 && it.hasNext()) {
+            cachedBytes -= sizeOf(it.next().getValue());
+            it.remove();
+        }
+    }
+
+    private static long sizeOf(ImageIcon icon) {
+        return (long) Math.max(icon.getIconWidth(), 1) * Math.max(icon.getIconHeight(), 1) * 4;
+    }
+
+    public static synchronized long getHits() { return hits; }
+    public static synchronized long getMisses() { return misses; }
+    public static synchronized long getDecodeNanos() { return decodeNanos; }
+    public static synchronized long getLastDecodeNanos() { return lastDecodeNanos; }
+    public static synchronized int getEntryCount() { return cache.size(); }
+    public static synchronized long getCachedBytes() { return cachedBytes; }
+}
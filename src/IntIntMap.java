@@ -0,0 +1,118 @@
+import java.io.Serializable;
+import java.util.Arrays;
+
+// int -> int 맵 (박싱 없음, 선형 탐사). 플레이어 id처럼 0이 아닌 키만 넣음 (0은 빈 칸 표시)
+// 동기화하지 않으므로 여러 스레드에서 쓰면 바깥에서 잠글 것
+public class IntIntMap implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private int[] keys;
+    private int[] values;
+    private int size = 0;
+
+    public IntIntMap() {
+        this(8);
+    }
+
+    public IntIntMap(int expected) {
+        int capacity = 8;
+        while (capacity < expected * 2) capacity <<= 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    public boolean containsKey(int key) {
+        return keys[slotOf(key)] == key;
+    }
+
+    public int get(int key, int defaultValue) {
+        int slot = slotOf(key);
+        return keys[slot] == key ? values[slot] : defaultValue;
+    }
+
+    public void put(int key, int value) {
+        int slot = slotOf(key);
+        if (keys[slot] != key) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                slot = slotOf(key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    // 더한 뒤의 값을 돌려줌 (없던 키는 0에서 시작)
+    public int add(int key, int delta) {
+        int value = get(key, 0) + delta;
+        put(key, value);
+        return value;
+    }
+
+    public void remove(int key) {
+        int slot = slotOf(key);
+        if (keys[slot] != key) return;
+        keys[slot] = 0;
+        size--;
+        // 뒤에 밀려 있던 키들을 다시 넣어서 탐사 사슬이 끊기지 않게 함
+        int mask = keys.length - 1;
+        for (int i = (slot + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            int k = keys[i], v = values[i];
+            keys[i] = 0;
+            int to = slotOf(k);
+            keys[to] = k;
+            values[to] = v;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    // 값이 가장 큰 키 (같으면 먼저 찾은 쪽). 비어 있으면 0
+    public int maxKey() {
+        int best = 0, bestValue = Integer.MIN_VALUE;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0 && values[i] > bestValue) {
+                best = keys[i];
+                bestValue = values[i];
+            }
+        }
+        return best;
+    }
+
+    public int sum() {
+        int total = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) total += values[i];
+        }
+        return total;
+    }
+
+    // 키가 있으면 그 칸, 없으면 넣을 빈 칸
+    private int slotOf(int key) {
+        if (key == 0) throw new IllegalArgumentException("키 0은 쓸 수 없음");
+        int mask = keys.length - 1;
+        int slot = (key * 0x9E3779B9) >>> 16 & mask;
+        while (keys[slot] != 0 && keys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys, oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
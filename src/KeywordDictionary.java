@@ -0,0 +1,212 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// 카테고리(방 이름)별 키워드 풀
+// keywords.txt 형식 : "카테고리=단어1,단어2,..." (한 줄에 한 카테고리, #은 주석)
+public class KeywordDictionary {
+    private static final String DEFAULT_CATEGORY = "default";
+    private static final long RELOAD_CHECK_INTERVAL = 1000; // 파일 변경 확인 간격 (ms)
+    private static final String DEFAULT_ARCHIVE_NAME = "assets.pak";
+
+    private final File file;
+    private volatile Map<String, String[]> pools; // 카테고리 -> 키워드 배열 (교체만 하고 수정하지 않음)
+    private volatile long loadedModified = -1;
+    private volatile long lastChecked = 0;
+
+    public KeywordDictionary(String fileName) {
+        this.file = new File(fileName);
+        this.pools = defaultPools();
+        reload();
+    }
+
+    // 파일을 메모리 매핑해서 읽고 풀 전체를 한 번에 교체
+    // 파일이 없으면 에셋 아카이브(assets.pak)에 묶인 키워드를 사용
+    public synchronized boolean reload() {
+        if (!file.isFile()) {
+            return loadFromArchive();
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            long modified = file.lastModified();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Map<String, String[]> loaded = parse(StandardCharsets.UTF_8.decode(buffer).toString());
+            if (loaded.isEmpty()) {
+                System.err.println("키워드 파일이 비어 있습니다. 기존 키워드를 유지합니다 : " + file);
+                return false;
+            }
+            pools = loaded;
+            loadedModified = modified;
+            System.out.println("키워드 로드 완료 : " + file + " (" + loaded.size() + "개 카테고리)");
+            return true;
+        } catch (IOException e) {
+            System.err.println("키워드 파일을 읽을 수 없습니다. 기존 키워드를 사용합니다 : " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean loadFromArchive() {
+        AssetArchive archive = AssetArchive.getDefault();
+        String text = archive != null ? archive.readText(file.getName()) : null;
+        if (text == null) {
+            return false;
+        }
+        Map<String, String[]> loaded = parse(text);
+        if (loaded.isEmpty()) {
+            return false;
+        }
+        pools = loaded;
+        System.out.println("키워드 로드 완료 : " + DEFAULT_ARCHIVE_NAME + " (" + loaded.size() + "개 카테고리)");
+        return true;
+    }
+
+    // 파일이 바뀌었으면 다시 읽음 (최대 1초에 한 번만 확인)
+    public void reloadIfModified() {
+        long now = System.currentTimeMillis();
+        if (now - lastChecked < RELOAD_CHECK_INTERVAL) return;
+        lastChecked = now;
+        if (file.isFile() && file.lastModified() != loadedModified) {
+            reload();
+        }
+    }
+
+    // 방마다 한 바퀴 돌 때까지 같은 키워드가 다시 나오지 않도록 뽑음
+    public String nextKeyword(Room room) {
+        reloadIfModified();
+        String[] pool = getPool(room.getRoomName());
+        return room.getKeywordBag().next(pool);
+    }
+
+    public String[] getPool(String category) {
+        Map<String, String[]> current = pools;
+        String[] pool = current.get(category);
+        if (pool == null) pool = current.get(DEFAULT_CATEGORY);
+        if (pool == null) pool = defaultPools().get(DEFAULT_CATEGORY);
+        return pool;
+    }
+
+    public int getCategoryCount() {
+        return pools.size();
+    }
+
+    static Map<String, String[]> parse(String text) {
+        Map<String, String[]> result = new HashMap<>();
+        for (String line : text.split("\r?\n")) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            int eq = line.indexOf('=');
+            if (eq <= 0) continue;
+
+            String category = line.substring(0, eq).trim().intern();
+            List<String> words = new ArrayList<>();
+            for (String word : line.substring(eq + 1).split(",")) {
+                word = word.trim();
+                if (!word.isEmpty() && !words.contains(word)) {
+                    words.add(word.intern());
+                }
+            }
+            if (!words.isEmpty()) {
+                result.put(category, words.toArray(new String[0]));
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, String[]> defaultPools() {
+        Map<String, String[]> defaults = new HashMap<>();
+        defaults.put("food", new String[]{"햄버거", "피자", "떡볶이", "김밥", "초밥", "라면", "치킨", "비빔밥"});
+        defaults.put("place", new String[]{"에펠탑", "남산타워", "피라미드", "경복궁", "만리장성", "자유의 여신상"});
+        defaults.put("animal", new String[]{"사자", "기린", "펭귄", "코끼리", "토끼", "고양이", "거북이"});
+        defaults.put("character", new String[]{"뽀로로", "피카츄", "스폰지밥", "짱구", "도라에몽", "미키마우스"});
+        defaults.put(DEFAULT_CATEGORY, new String[]{"마카롱"});
+        return defaults;
+    }
+
+    // 키워드 뽑기 비용 : java KeywordDictionary [방 수] [뽑기 횟수] [키워드 파일]
+    // 게임 시작 때처럼 방을 돌아가며 nextKeyword(파일 변경 확인 포함)를 부르고 뽑기당 시간과 할당 바이트를 잼
+    // 한 스레드, 그리고 핸들러 스레드처럼 코어 수만큼의 스레드가 각자 다른 방에서 동시에 뽑는 경우
+    // 뽑기는 한 판에 한 번이므로 초당 GAMES_PER_SECOND판일 때 코어 하나에서 차지하는 비율도 출력
+    private static final int GAMES_PER_SECOND = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int roomCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int draws = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        KeywordDictionary dictionary = new KeywordDictionary(args.length > 2 ? args[2] : "keywords.txt");
+        String[] categories = dictionary.pools.keySet().toArray(new String[0]);
+        Room[] rooms = new Room[roomCount];
+        for (int i = 0; i < roomCount; i++) {
+            int c = i % (categories.length + 1);
+            rooms[i] = new Room(c < categories.length ? categories[c] : "room-" + i); // 카테고리가 없는 방은 기본 풀에서
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+
+        draw(dictionary, rooms, 0, roomCount, draws); // 예열 (JIT, 방마다 셔플 백 생성)
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        int checksum = draw(dictionary, rooms, 0, roomCount, draws);
+        long elapsed = System.nanoTime() - start;
+        allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+        double perDraw = (double) elapsed / draws;
+        System.out.printf("카테고리 %d개, 방 %d개, 뽑기 %,d번 (한 스레드) : 뽑기당 %.0f ns, %d 바이트 할당 -> 초당 %,d판이면 코어 하나의 %.3f%% (%d)%n",
+                categories.length, roomCount, draws, perDraw, allocated / draws, GAMES_PER_SECOND, GAMES_PER_SECOND * perDraw / 1e7, checksum);
+
+        int workers = Runtime.getRuntime().availableProcessors();
+        Thread[] running = new Thread[workers];
+        start = System.nanoTime();
+        for (int w = 0; w < workers; w++) {
+            int from = roomCount * w / workers, to = roomCount * (w + 1) / workers;
+            running[w] = new Thread(() -> draw(dictionary, rooms, from, to, draws / workers));
+            running[w].start();
+        }
+        for (Thread thread : running) thread.join();
+        elapsed = System.nanoTime() - start;
+        System.out.printf("스레드 %d개 동시 : 합계 초당 %,d번 뽑기%n", workers, (long) (draws / workers * workers / (elapsed / 1e9)));
+    }
+
+    private static int draw(KeywordDictionary dictionary, Room[] rooms, int from, int to, int draws) {
+        int checksum = 0;
+        for (int i = 0; i < draws; i++) {
+            checksum += dictionary.nextKeyword(rooms[from + i % (to - from)]).length();
+        }
+        return checksum;
+    }
+
+    // 한 방에서 사용하는 셔플 백 (Fisher-Yates를 한 칸씩 진행해서 뽑기마다 O(1))
+    public static class ShuffleBag {
+        private final Random random = new Random();
+        private String[] pool;
+        private int[] order;
+        private int cursor;
+        private int lastIndex = -1;
+
+        public synchronized String next(String[] currentPool) {
+            if (pool != currentPool) { // 키워드가 다시 로드되면 새로 시작
+                pool = currentPool;
+                order = new int[pool.length];
+                for (int i = 0; i < order.length; i++) order[i] = i;
+                cursor = 0;
+                lastIndex = -1;
+            }
+            if (cursor >= order.length) {
+                cursor = 0; // 한 바퀴 다 돌면 다시 섞음
+            }
+            int pick = cursor + random.nextInt(order.length - cursor);
+            // 새 바퀴의 첫 키워드가 직전 키워드와 같으면 한 번 더 뽑음
+            if (order[pick] == lastIndex && order.length - cursor > 1) {
+                pick = cursor + 1 + random.nextInt(order.length - cursor - 1);
+                if (order[pick] == lastIndex) pick = cursor;
+            }
+            int tmp = order[cursor];
+            order[cursor] = order[pick];
+            order[pick] = tmp;
+
+            lastIndex = order[cursor++];
+            return pool[lastIndex];
+        }
+    }
+}
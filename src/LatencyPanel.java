@@ -0,0 +1,62 @@
+import javax.swing.*;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// 모드별 처리 시간 표 (DispatchLatency의 최근 1~2분 값, 1초마다 갱신)
+public class LatencyPanel extends JPanel {
+    private final DispatchLatency latency;
+    private final LatencyTableModel model = new LatencyTableModel();
+    private final Timer timer;
+
+    public LatencyPanel(DispatchLatency latency) {
+        this.latency = latency;
+        setLayout(new BorderLayout(5, 5));
+        setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.getRowSorter().setSortKeys(Collections.singletonList(new RowSorter.SortKey(3, SortOrder.DESCENDING)));
+
+        add(new JLabel("느린 요청 기준 " + latency.getSlowNanos() / 1_000_000 + "ms (넘으면 로그 탭에 메시지 전체 기록)"), BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        timer = new Timer(1000, e -> model.update(latency.snapshot()));
+        timer.start();
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+
+    private static class LatencyTableModel extends AbstractTableModel {
+        private final String[] columns = {"모드", "횟수", "p50 (us)", "p99 (us)", "p99.9 (us)", "최대 (us)"};
+        private List<DispatchLatency.Stats> rows = new ArrayList<>();
+
+        void update(List<DispatchLatency.Stats> stats) {
+            rows = stats;
+            fireTableDataChanged();
+        }
+
+        @Override public int getRowCount() { return rows.size(); }
+        @Override public int getColumnCount() { return columns.length; }
+        @Override public String getColumnName(int column) { return columns[column]; }
+        @Override public Class<?> getColumnClass(int column) { return column == 0 ? String.class : Long.class; }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            DispatchLatency.Stats stats = rows.get(row);
+            switch (column) {
+                case 0: return stats.modeName();
+                case 1: return stats.count;
+                case 2: return stats.p50 / 1000;
+                case 3: return stats.p99 / 1000;
+                case 4: return stats.p999 / 1000;
+                default: return stats.max / 1000;
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// 플레이어별 전적(라이어/시민 승률)과 순위표
+// - 결과 로그에 기록된 게임 결과(onResult)를 받을 때마다 해당 플레이어만 갱신
+// - 플레이어는 전체 이름의 키(ResultsLog.keyOf)로 구분하고, 처음 볼 때 정수 id를 붙여 전적은 id로 찾는 배열에 보관
+//   (결과 로그에 기록된 이름은 잘릴 수 있어 이름으로 찾지 않음)
+// - 순위는 (승리 수 내림차순, id) 순서의 스킵 리스트로 유지 -> 상위 N명은 앞에서부터 N개
+// - 내 순위는 승리 수별 인원을 펜윅 트리에 두고 "나보다 많이 이긴 사람 수 + 1"로 계산 (O(log n))
+public class Leaderboard {
+    private final Map<Long, Integer> ids = new HashMap<>();
+    private PlayerStats[] stats = new PlayerStats[64];
+    private int playerCount = 0;
+
+    private final ConcurrentSkipListSet<RankKey> ranking = new ConcurrentSkipListSet<>();
+    private int[] winTree = new int[64 + 1]; // 펜윅 트리, 승리 수(0부터) -> 인원
+
+    public synchronized void onResult(ResultsLog.GameResult result) {
+        for (int i = 0; i < result.players.length; i++) {
+            PlayerStats playerStats = getOrCreate(result.playerKey(i), result.players[i]);
+            int oldWins = playerStats.wins;
+            boolean isLiar = i == result.liarIndex;
+            boolean won = result.isWinner(i);
+
+            playerStats.games++;
+            if (isLiar) {
+                playerStats.liarGames++;
+                if (won) playerStats.liarWins++;
+            } else {
+                playerStats.citizenGames++;
+                if (won) playerStats.citizenWins++;
+            }
+            if (won) {
+                ensureWinCapacity(oldWins + 1);
+                playerStats.wins++;
+                ranking.remove(new RankKey(oldWins, playerStats.id));
+                ranking.add(new RankKey(playerStats.wins, playerStats.id));
+                treeAdd(oldWins, -1);
+                treeAdd(playerStats.wins, 1);
+            }
+        }
+    }
+
+    private PlayerStats getOrCreate(long key, String player) {
+        Integer id = ids.get(key);
+        if (id != null) return stats[id];
+
+        id = playerCount++;
+        if (id == stats.length) {
+            stats = Arrays.copyOf(stats, stats.length * 2);
+        }
+        PlayerStats playerStats = new PlayerStats(id, player);
+        stats[id] = playerStats;
+        ids.put(key, id);
+        ranking.add(new RankKey(0, id));
+        treeAdd(0, 1);
+        return playerStats;
+    }
+
+    // 승리 수가 트리 범위를 넘으면 두 배로 늘리고 현재 전적으로 다시 채움
+    private void ensureWinCapacity(int wins) {
+        if (wins + 1 < winTree.length) return;
+        winTree = new int[Math.max(winTree.length * 2, wins + 2)];
+        for (int i = 0; i < playerCount; i++) {
+            treeAdd(stats[i].wins, 1);
+        }
+    }
+
+    private void treeAdd(int wins, int delta) {
+        for (int i = wins + 1; i < winTree.length; i += i & -i) {
+            winTree[i] += delta;
+        }
+    }
+
+    // 승리 수가 0 ~ wins인 인원
+    private int countUpTo(int wins) {
+        int sum = 0;
+        for (int i = Math.min(wins + 1, winTree.length - 1); i > 0; i -= i & -i) {
+            sum += winTree[i];
+        }
+        return sum;
+    }
+
+    // 1등부터 시작하는 순위 (같은 승리 수는 같은 순위), 기록이 없으면 0
+    public synchronized int getRank(String player) {
+        Integer id = ids.get(ResultsLog.keyOf(player));
+        if (id == null) return 0;
+        return playerCount - countUpTo(stats[id].wins) + 1;
+    }
+
+    public synchronized PlayerStats getStats(String player) {
+        Integer id = ids.get(ResultsLog.keyOf(player));
+        return id == null ? null : stats[id].copy();
+    }
+
+    public synchronized List<PlayerStats> getTop(int n) {
+        List<PlayerStats> top = new ArrayList<>(n);
+        for (RankKey key : ranking) {
+            if (top.size() >= n) break;
+            top.add(stats[key.id].copy());
+        }
+        return top;
+    }
+
+    public synchronized int getPlayerCount() {
+        return playerCount;
+    }
+
+    // 로비에 보여줄 순위표 (상위 n명 + 내 순위)
+    public String format(int n, String player) {
+        StringBuilder sb = new StringBuilder();
+        int rank = 0;
+        int prevWins = -1;
+        int position = 0;
+        for (PlayerStats top : getTop(n)) {
+            position++;
+            if (top.wins != prevWins) rank = position;
+            prevWins = top.wins;
+            sb.append(rank).append(". ").append(top).append('\n');
+        }
+        PlayerStats mine = player == null ? null : getStats(player);
+        if (mine != null) {
+            sb.append("내 순위 : ").append(getRank(player)).append("위 / ").append(getPlayerCount()).append("명 - ").append(mine);
+        }
+        return sb.length() == 0 ? "아직 기록된 게임이 없습니다." : sb.toString().trim();
+    }
+
+    // 결과 로그 전체로 다시 만듦 (서버 시작 시)
+    public void rebuild(ResultsLog resultsLog) {
+        long start = System.nanoTime();
+        synchronized (this) {
+            ids.clear();
+            Arrays.fill(stats, null);
+            playerCount = 0;
+            ranking.clear();
+            winTree = new int[64 + 1];
+        }
+        resultsLog.forEach(this::onResult);
+        System.out.println("순위표 재구성 : " + resultsLog.getRecordCount() + "개 결과, " + getPlayerCount() + "명, "
+                + (System.nanoTime() - start) / 1_000_000 + "ms");
+    }
+
+    public static class PlayerStats {
+        public final int id;
+        public final String name;
+        public int games, wins;
+        public int liarGames, liarWins;
+        public int citizenGames, citizenWins;
+
+        PlayerStats(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        PlayerStats copy() {
+            PlayerStats copy = new PlayerStats(id, name);
+            copy.games = games;
+            copy.wins = wins;
+            copy.liarGames = liarGames;
+            copy.liarWins = liarWins;
+            copy.citizenGames = citizenGames;
+            copy.citizenWins = citizenWins;
+            return copy;
+        }
+
+        private static int percent(int won, int played) {
+            return played == 0 ? 0 : won * 100 / played;
+        }
+
+        @Override
+        public String toString() {
+            return name + "  " + wins + "승 " + (games - wins) + "패"
+                    + " (라이어 " + percent(liarWins, liarGames) + "%, 시민 " + percent(citizenWins, citizenGames) + "%)";
+        }
+    }
+
+    // 순위 정렬 키 : 승리 수 내림차순, 같으면 먼저 등록된 플레이어 먼저
+    private static class RankKey implements Comparable<RankKey> {
+        final int wins;
+        final int id;
+
+        RankKey(int wins, int id) {
+            this.wins = wins;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(RankKey o) {
+            if (wins != o.wins) return Integer.compare(o.wins, wins);
+            return Integer.compare(id, o.id);
+        }
+    }
+}
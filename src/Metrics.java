@@ -0,0 +1,348 @@
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// 서버 지표 모음 (Prometheus 텍스트 형식으로 내보냄)
+// - 카운터는 LongAdder라서 여러 스레드가 동시에 올려도 서로 기다리지 않음
+// - 게이지는 값을 읽는 함수만 등록해 두고 /metrics 요청이 올 때 계산
+// - 히스토그램은 2의 거듭제곱 구간(ns)별 개수를 AtomicLongArray에 쌓음 (잠금 없음, 기록 1회 = CAS 몇 번)
+// - 등록은 서버 시작 때만 하고, 게임 루프에서는 받아 둔 객체에 값만 더함
+public class Metrics {
+    private final Map<String, Family> families = new LinkedHashMap<>();
+    private HttpServer httpServer;
+
+    public synchronized LongAdder counter(String name, String help) {
+        return counter(name, help, "");
+    }
+
+    // labels 예 : mode="DRAW_ACTION"
+    public synchronized LongAdder counter(String name, String help, String labels) {
+        LongAdder adder = new LongAdder();
+        family(name, help, "counter").add(labels, adder::sum);
+        return adder;
+    }
+
+    // GameMsg 모드별 카운터 (배열 번호 = 모드 값, 정의되지 않은 모드는 "other"에 더함)
+    public synchronized LongAdder[] counterPerMode(String name, String help) {
+        LongAdder[] adders = new LongAdder[GameMsg.MODE_LIMIT];
+        LongAdder other = counter(name, help, "mode=\"other\"");
+        for (int mode = 0; mode < adders.length; mode++) {
+            String modeName = GameMsg.modeName(mode);
+            adders[mode] = modeName == null ? other : counter(name, help, "mode=\"" + modeName + "\"");
+        }
+        return adders;
+    }
+
+    // 모드별 카운터 합계 ("other"는 한 번만 셈)
+    public static long total(LongAdder[] perMode) {
+        long sum = perMode[0].sum();
+        for (int mode = 1; mode < perMode.length; mode++) {
+            if (perMode[mode] != perMode[0]) sum += perMode[mode].sum();
+        }
+        return sum;
+    }
+
+    public static void increment(LongAdder[] perMode, int mode) {
+        perMode[mode >= 0 && mode < perMode.length ? mode : 0].increment();
+    }
+
+    public synchronized void gauge(String name, String help, LongSupplier value) {
+        gauge(name, help, "", value);
+    }
+
+    public synchronized void gauge(String name, String help, String labels, LongSupplier value) {
+        family(name, help, "gauge").add(labels, value);
+    }
+
+    public synchronized Histogram histogram(String name, String help) {
+        Histogram histogram = new Histogram();
+        register(name, help, "histogram", histogram);
+        return histogram;
+    }
+
+    // 직접 여러 줄을 쓰는 지표 (summary 등)
+    public synchronized void register(String name, String help, String type, Writer writer) {
+        family(name, help, type).writer = writer;
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.get(name);
+        if (family == null) {
+            family = new Family(name, help, type);
+            families.put(name, family);
+        }
+        return family;
+    }
+
+    // Prometheus 텍스트 형식 (version 0.0.4)
+    public synchronized String format() {
+        StringBuilder sb = new StringBuilder(4096);
+        for (Family family : families.values()) {
+            sb.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            sb.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            if (family.writer != null) {
+                family.writer.format(family.name, sb);
+                continue;
+            }
+            for (int i = 0; i < family.labels.length; i++) {
+                sb.append(family.name);
+                if (!family.labels[i].isEmpty()) sb.append('{').append(family.labels[i]).append('}');
+                sb.append(' ').append(family.values[i].getAsLong()).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    // 127.0.0.1:port/metrics 로만 열어 둠 (외부에서 접근 불가)
+    public synchronized void startHttp(int port) throws IOException {
+        if (httpServer != null) return;
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        httpServer.createContext("/metrics", exchange -> {
+            byte[] body = format().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        httpServer.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        httpServer.start();
+    }
+
+    public synchronized void stopHttp() {
+        if (httpServer == null) return;
+        httpServer.stop(0);
+        httpServer = null;
+    }
+
+    private static class Family {
+        final String name, help, type;
+        String[] labels = new String[0];
+        LongSupplier[] values = new LongSupplier[0];
+        Writer writer;
+
+        Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+
+        void add(String label, LongSupplier value) {
+            int n = labels.length;
+            labels = Arrays.copyOf(labels, n + 1);
+            values = Arrays.copyOf(values, n + 1);
+            labels[n] = label;
+            values[n] = value;
+        }
+    }
+
+    public interface Writer {
+        void format(String name, StringBuilder sb);
+    }
+
+    // 값(ns)을 [2^i, 2^(i+1)) 구간에 세는 히스토그램. 분위수는 구간 위쪽 경계로 근사 (최대 2배 오차)
+    public static class Histogram implements Writer {
+        private static final int BUCKETS = 64;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder sum = new LongAdder();
+        private final LongAdder count = new LongAdder();
+        private volatile long max = 0;
+
+        public void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            counts.incrementAndGet(nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos));
+            sum.add(nanos);
+            count.increment();
+            long current = max;
+            if (nanos > current) max = nanos; // 경쟁 시 조금 작은 값이 남을 수 있음 (표시용)
+        }
+
+        public long getCount() { return count.sum(); }
+        public long getSum() { return sum.sum(); }
+        public long getMax() { return max; }
+
+        // q(0~1) 분위수의 근사값 (ns)
+        public long quantile(double q) {
+            long total = 0;
+            long[] snapshot = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = counts.get(i);
+                total += snapshot[i];
+            }
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(q * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) return Math.min(upperBound(i), max);
+            }
+            return max;
+        }
+
+        private static long upperBound(int bucket) {
+            return bucket >= 62 ? Long.MAX_VALUE : (1L << (bucket + 1)) - 1;
+        }
+
+        @Override
+        public void format(String name, StringBuilder sb) {
+            long cumulative = 0;
+            int last = BUCKETS - 1;
+            while (last > 0 && counts.get(last) == 0) last--;
+            for (int i = 0; i <= last; i++) {
+                cumulative += counts.get(i);
+                sb.append(name).append("_bucket{le=\"").append(upperBound(i) / 1e9).append("\"} ").append(cumulative).append('\n');
+            }
+            sb.append(name).append("_bucket{le=\"+Inf\"} ").append(count.sum()).append('\n');
+            sb.append(name).append("_sum ").append(sum.sum() / 1e9).append('\n');
+            sb.append(name).append("_count ").append(count.sum()).append('\n');
+        }
+    }
+
+    // 소켓 스트림 바이트 수 세기 (버퍼 아래에 두어서 write/read 호출 단위로만 더함)
+    public static class CountingOutputStream extends FilterOutputStream {
+        private final LongAdder bytes;
+
+        public CountingOutputStream(OutputStream out, LongAdder bytes) {
+            super(out);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytes.increment();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytes.add(len);
+        }
+    }
+
+    public static class CountingInputStream extends FilterInputStream {
+        private final LongAdder bytes;
+
+        public CountingInputStream(InputStream in, LongAdder bytes) {
+            super(in);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) bytes.increment();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) bytes.add(n);
+            return n;
+        }
+    }
+
+    // 받은 획 하나를 멤버들의 전송 큐에 넣고 전송 스레드가 모두 쓸 때까지 (in이 null이면 지표 없이)
+    // 서버처럼 받은 메시지를 세고, 같은 GameMsg를 모든 멤버의 PrioritySender에 넣는 시간을 broadcast에 기록
+    private static long relay(PrioritySender[] senders, GameMsg[] strokes, int iterations,
+                              LongAdder[] in, Histogram broadcast) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            GameMsg msg = strokes[i % strokes.length];
+            for (PrioritySender sender : senders) {
+                while (sender.getQueueDepth(PrioritySender.BULK) > 64) Thread.yield(); // 전송 스레드가 따라오게 함
+            }
+            if (in == null) {
+                for (PrioritySender sender : senders) sender.send(msg);
+                continue;
+            }
+            increment(in, msg.mode);
+            long broadcastStart = System.nanoTime();
+            for (PrioritySender sender : senders) sender.send(msg);
+            broadcast.record(System.nanoTime() - broadcastStart);
+        }
+        for (PrioritySender sender : senders) {
+            while (!sender.isIdle()) Thread.yield();
+        }
+        return System.nanoTime() - start;
+    }
+
+    // 멤버 한 명의 전송 스레드. 서버처럼 GameMsg 스트림 아래에 바이트 수를 세는 스트림을 둠 (sentPerMode가 null이면 지표 없이)
+    private static PrioritySender sender(String name, LongAdder[] sentPerMode, LongAdder bytesOut) throws IOException {
+        OutputStream sink = OutputStream.nullOutputStream();
+        if (sentPerMode != null) sink = new CountingOutputStream(sink, bytesOut);
+        PrioritySender sender = new PrioritySender(new ObjectOutputStream(new BufferedOutputStream(sink)), name, sentPerMode);
+        sender.start();
+        return sender;
+    }
+
+    // DRAW_ACTION 중계 경로에 지표 기록을 더했을 때의 비용 측정 : java Metrics [반복 횟수]
+    // 서버와 같이 받은 획을 멤버 4명의 PrioritySender에 넣고 전송 스레드가 STROKE 레인으로 쓰는 것을
+    // 지표 없이/있이(받은/보낸 메시지 수, 보낸 바이트, broadcast 히스토그램) 번갈아 재고 중앙값을 비교
+    // (서버처럼 획마다 다른 GameMsg를 씀)
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int fanOut = 4;
+        Metrics metrics = new Metrics();
+        LongAdder[] in = metrics.counterPerMode("bench_messages_in_total", "bench");
+        LongAdder[] out = metrics.counterPerMode("bench_messages_out_total", "bench");
+        LongAdder bytesOut = metrics.counter("bench_bytes_sent_total", "bench");
+        Histogram broadcast = metrics.histogram("bench_broadcast_seconds", "bench");
+
+        GameMsg[] strokes = new GameMsg[1024];
+        for (int i = 0; i < strokes.length; i++) {
+            strokes[i] = new GameMsg(GameMsg.DRAW_ACTION, new Paint(i % 800, i % 600, (i + 3) % 800, (i + 5) % 600, java.awt.Color.BLACK, false));
+        }
+        PrioritySender[] plain = new PrioritySender[fanOut];
+        PrioritySender[] counted = new PrioritySender[fanOut];
+        for (int i = 0; i < fanOut; i++) {
+            plain[i] = sender("plain-" + i, null, null);
+            counted[i] = sender("counted-" + i, out, bytesOut);
+        }
+
+        int rounds = 11;
+        long[] baseline = new long[rounds];
+        long[] instrumented = new long[rounds];
+        for (int round = -3; round < rounds; round++) { // 앞의 세 번은 워밍업, 순서를 번갈아 가며 잼
+            long plainTime, countedTime;
+            if ((round & 1) == 0) {
+                plainTime = relay(plain, strokes, iterations, null, null);
+                countedTime = relay(counted, strokes, iterations, in, broadcast);
+            } else {
+                countedTime = relay(counted, strokes, iterations, in, broadcast);
+                plainTime = relay(plain, strokes, iterations, null, null);
+            }
+            if (round >= 0) {
+                baseline[round] = plainTime;
+                instrumented[round] = countedTime;
+            }
+        }
+        for (int i = 0; i < fanOut; i++) {
+            plain[i].close();
+            counted[i].close();
+        }
+        Arrays.sort(baseline);
+        Arrays.sort(instrumented);
+        long base = baseline[rounds / 2];
+        long with = instrumented[rounds / 2];
+        System.out.printf("DRAW_ACTION 중계 %d회 x %d명 (PrioritySender STROKE 레인) : 지표 없음 %dns/획, 지표 포함 %dns/획, 오버헤드 %.2f%%%n",
+                iterations, fanOut, base / iterations, with / iterations, (with - base) * 100.0 / base);
+        System.out.println("broadcast p50 " + broadcast.quantile(0.5) + "ns, p99 " + broadcast.quantile(0.99) + "ns, 보낸 바이트 " + bytesOut.sum()
+                + ", STROKE 레인으로 보낸 수 " + counted[0].getSentCount(PrioritySender.STROKE));
+    }
+}
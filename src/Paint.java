@@ -10,6 +10,8 @@ public class Paint implements Serializable {
     private int endY;
     private Color color;
     private boolean isErasing;
+    private int drawnAt; // 그린 사람 쪽 시각 (StrokePlayback.clock(), 0이면 모름)
+    private transient int receivedAt; // 받은 쪽에서 소켓으로 읽은 시각 (같은 시계, 0이면 모름)
 
     public Paint(int startX, int startY, int endX, int endY, Color color, boolean isErasing) {
         this.startX = startX;
@@ -29,6 +31,11 @@ public class Paint implements Serializable {
     public Color getColor() { return color; }
     public boolean isErasing() { return isErasing; }
 
+    public int getDrawnAt() { return drawnAt; }
+    public void setDrawnAt(int drawnAt) { this.drawnAt = drawnAt; }
+    public int getReceivedAt() { return receivedAt; }
+    public void setReceivedAt(int receivedAt) { this.receivedAt = receivedAt; }
+
     @Override
     public String toString() {
         return "PaintDTO{" +
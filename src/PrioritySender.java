@@ -0,0 +1,248 @@
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// 서버 -> 클라이언트 전송을 두 개의 우선순위 큐(레인)로 나누어 보내는 전송 스레드 (클라이언트마다 하나)
+// - CONTROL : 턴/투표/게임 종료/라이어 통보 등 (항상 먼저 보냄)
+// - BULK    : 그림 데이터(DRAW_ACTION, STROKE_COMMIT)
+// BULK가 계속 밀리지 않도록, 가장 오래 기다린 BULK가 BULK_MAX_DELAY를 넘었거나
+// CONTROL을 CONTROL_BURST개 연속으로 보냈으면 BULK를 하나 끼워 보냄
+//
+// SPECTATOR는 관전 중계용으로 미리 직렬화된 묶음(SpectatorFeed)을 그대로 보내며 BULK 큐를 같이 씀
+//
+// 자주 보내는 두 가지는 GameMsg 직렬화 없이 필드만 씀 (보내는 쪽에서 객체를 새로 만들지 않음)
+// - STROKE : 그림 데이터 (BULK 큐)
+// - TICK   : 사용자 없는 TIME, 투표 남은 시간 VOTE (CONTROL 큐)
+// - COMMIT : UDP로 미리 보낸 획의 확정본 STROKE_COMMIT (BULK 큐)
+// 큐 항목(Entry)도 다시 써서, 계속 그림을 중계하는 동안 이 클래스에서는 새 객체가 생기지 않음
+//
+// 전송 형식 : [레인(byte)][큐 대기 시간 us(int)][GameMsg]
+//            SPECTATOR는 [레인][큐 대기 시간][길이(int)][직렬화된 묶음]
+//            STROKE는 [레인][큐 대기 시간][x1, y1, x2, y2 (short)][색상 argb (int)][지우개 (boolean)][그린 시각 (int)]
+//            TICK은 [레인][큐 대기 시간][모드(byte)][남은 시간(int)]
+//            COMMIT은 [레인][큐 대기 시간][그린 플레이어 번호 (int)][첫 순번 (int)][구간 수 (short)][STROKE와 같은 구간]...
+public class PrioritySender extends Thread {
+    public static final int CONTROL = 0;
+    public static final int BULK = 1;
+    public static final int SPECTATOR = 2;
+    public static final int STROKE = 3;
+    public static final int TICK = 4;
+    public static final int COMMIT = 5;
+    public static final int LANE_COUNT = 6;
+    private static final int MAX_FREE_ENTRIES = 256;
+
+    private static final long BULK_MAX_DELAY = 50_000_000L; // ns
+    private static final int CONTROL_BURST = 8;
+
+    private final ObjectOutputStream out;
+    private final ArrayDeque<Entry> controlQueue = new ArrayDeque<>();
+    private final ArrayDeque<Entry> bulkQueue = new ArrayDeque<>();
+    private volatile boolean closed = false;
+    private int controlInRow = 0;
+    private Entry freeEntries = null; // 다 보낸 항목 (다음 send에서 다시 씀)
+    private int freeCount = 0;
+
+    // 레인별 통계 (대기 시간 us)
+    private final long[] sentCounts = new long[LANE_COUNT];
+    private final long[] lastDelays = new long[LANE_COUNT];
+    private final long[] maxDelays = new long[LANE_COUNT];
+    private final LongAdder[] sentPerMode; // 서버 지표 (모드별 보낸 메시지 수), 없으면 null
+
+    public PrioritySender(ObjectOutputStream out, String name) {
+        this(out, name, null);
+    }
+
+    public PrioritySender(ObjectOutputStream out, String name, LongAdder[] sentPerMode) {
+        super("sender-" + name);
+        this.out = out;
+        this.sentPerMode = sentPerMode;
+        setDaemon(true);
+    }
+
+    // 큐 : 그림 데이터(DRAW_ACTION, STROKE_COMMIT)만 BULK
+    public static int laneOf(GameMsg msg) {
+        return msg.mode == GameMsg.DRAW_ACTION || msg.mode == GameMsg.STROKE_COMMIT ? BULK : CONTROL;
+    }
+
+    // 실제로 쓰는 형식
+    static int wireLaneOf(GameMsg msg) {
+        if (msg.mode == GameMsg.DRAW_ACTION && msg.getPaintData() != null) return STROKE;
+        if (msg.mode == GameMsg.STROKE_COMMIT && msg.getStrokeSegments() != null) return COMMIT;
+        if (msg.user == null && msg.message == null && msg.userNames == null
+                && (msg.mode == GameMsg.TIME || (msg.mode == GameMsg.VOTE && !msg.isVoteStart()))) return TICK;
+        return laneOf(msg);
+    }
+
+    // 아무 스레드에서나 호출 가능. 실제 전송은 전송 스레드가 함
+    public void send(GameMsg msg) {
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (closed) return;
+            Entry entry = obtain(msg, null, now);
+            if (laneOf(msg) == BULK) {
+                bulkQueue.add(entry);
+            } else {
+                controlQueue.add(entry);
+            }
+            notify();
+        }
+    }
+
+    // 여러 관전자가 같은 배열을 공유하므로 수정하지 않음
+    public void sendEncoded(byte[] encoded) {
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (closed) return;
+            bulkQueue.add(obtain(null, encoded, now));
+            notify();
+        }
+    }
+
+    private Entry obtain(GameMsg msg, byte[] encoded, long enqueued) {
+        Entry entry = freeEntries;
+        if (entry == null) return new Entry(msg, encoded, enqueued);
+        freeEntries = entry.nextFree;
+        freeCount--;
+        entry.set(msg, encoded, enqueued);
+        return entry;
+    }
+
+    private synchronized void recycle(Entry entry) {
+        if (freeCount >= MAX_FREE_ENTRIES) return;
+        entry.set(null, null, 0);
+        entry.nextFree = freeEntries;
+        freeEntries = entry;
+        freeCount++;
+    }
+
+    // 이미 넣은 메시지는 마저 보내고 종료 (소켓이 닫히면 바로 종료)
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notify();
+        }
+    }
+
+    // 아직 보내지 못한 메시지를 넣은 순서대로 꺼냄 (연결이 끊겼을 때 재접속용으로 보관)
+    public synchronized List<GameMsg> drainPending() {
+        List<GameMsg> pending = new ArrayList<>(controlQueue.size() + bulkQueue.size());
+        while (!controlQueue.isEmpty() || !bulkQueue.isEmpty()) {
+            Entry control = controlQueue.peek();
+            Entry bulk = bulkQueue.peek();
+            Entry next = bulk == null || (control != null && control.enqueued <= bulk.enqueued)
+                    ? controlQueue.poll() : bulkQueue.poll();
+            if (next.msg != null) pending.add(next.msg); // 관전 묶음은 버림
+        }
+        return pending;
+    }
+
+    // 다음에 보낼 메시지를 고름 (큐가 비어 있으면 기다림)
+    private synchronized Entry take() throws InterruptedException {
+        while (controlQueue.isEmpty() && bulkQueue.isEmpty()) {
+            if (closed) return null;
+            wait();
+        }
+        Entry bulk = bulkQueue.peek();
+        boolean bulkOverdue = bulk != null
+                && (System.nanoTime() - bulk.enqueued > BULK_MAX_DELAY || controlInRow >= CONTROL_BURST);
+        if (!controlQueue.isEmpty() && !bulkOverdue) {
+            controlInRow++;
+            return controlQueue.poll();
+        }
+        controlInRow = 0;
+        return bulkQueue.poll();
+    }
+
+    synchronized boolean isIdle() {
+        return controlQueue.isEmpty() && bulkQueue.isEmpty();
+    }
+
+    @Override
+    public void run() {
+        try {
+            Entry entry;
+            while ((entry = take()) != null) {
+                int lane = entry.encoded != null ? SPECTATOR : wireLaneOf(entry.msg);
+                long delayMicros = (System.nanoTime() - entry.enqueued) / 1000;
+                out.writeByte(lane);
+                out.writeInt((int) Math.min(delayMicros, Integer.MAX_VALUE));
+                if (lane == SPECTATOR) {
+                    out.writeInt(entry.encoded.length);
+                    out.write(entry.encoded);
+                } else if (lane == STROKE) {
+                    writeStroke(entry.msg.getPaintData());
+                } else if (lane == TICK) {
+                    out.writeByte(entry.msg.mode);
+                    out.writeInt(entry.msg.time);
+                } else if (lane == COMMIT) {
+                    Paint[] segments = entry.msg.getStrokeSegments();
+                    out.writeInt(entry.msg.getDrawerId());
+                    out.writeInt(entry.msg.getFirstSeq());
+                    out.writeShort(segments.length);
+                    for (Paint segment : segments) {
+                        writeStroke(segment);
+                    }
+                } else {
+                    out.writeObject(entry.msg);
+                }
+                if (sentPerMode != null && entry.msg != null) Metrics.increment(sentPerMode, entry.msg.mode);
+                recordSent(lane, delayMicros);
+                recycle(entry);
+                if (isIdle()) {
+                    out.flush(); // 큐가 빌 때만 flush해서 몰려온 메시지는 한 번에 보냄
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (!closed) {
+                System.out.println("[접속][에러] 서버 sendGameMsg 전송 오류>" + e.getMessage());
+            }
+            closed = true;
+        }
+    }
+
+    private void writeStroke(Paint paint) throws IOException {
+        out.writeShort(paint.getStartX());
+        out.writeShort(paint.getStartY());
+        out.writeShort(paint.getEndX());
+        out.writeShort(paint.getEndY());
+        out.writeInt(paint.getColor() != null ? paint.getColor().getRGB() : 0xFF000000);
+        out.writeBoolean(paint.isErasing());
+        out.writeInt(paint.getDrawnAt());
+    }
+
+    private synchronized void recordSent(int lane, long delayMicros) {
+        sentCounts[lane]++;
+        lastDelays[lane] = delayMicros;
+        if (delayMicros > maxDelays[lane]) maxDelays[lane] = delayMicros;
+    }
+
+    public synchronized int getQueueDepth(int lane) {
+        return lane == BULK ? bulkQueue.size() : controlQueue.size();
+    }
+
+    public synchronized long getSentCount(int lane) { return sentCounts[lane]; }
+    public synchronized long getLastDelayMicros(int lane) { return lastDelays[lane]; }
+    public synchronized long getMaxDelayMicros(int lane) { return maxDelays[lane]; }
+
+    private static class Entry {
+        GameMsg msg;
+        byte[] encoded;
+        long enqueued;
+        Entry nextFree;
+
+        Entry(GameMsg msg, byte[] encoded, long enqueued) {
+            set(msg, encoded, enqueued);
+        }
+
+        void set(GameMsg msg, byte[] encoded, long enqueued) {
+            this.msg = msg;
+            this.encoded = encoded;
+            this.enqueued = enqueued;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+import java.util.HashMap;
+import java.util.Map;
+
+// 세션(클라이언트 핸들러)마다 하나씩 두는 GameMsg 모드별 토큰 버킷
+// 기본 한도는 아래 LIMITS, 실행 시 -Dcatchliar.rate.<모드번호>=<버스트>/<초당 개수> 로 바꿀 수 있음
+// 예) -Dcatchliar.rate.22=5/2  (이모티콘 : 한 번에 5개, 초당 2개)
+// 그림(DRAW_ACTION, STROKE_COMMIT)은 하나라도 버리면 모두의 그림에 구멍이 남으므로 제한하지 않음
+public class RateLimiter {
+    private static final Map<Integer, double[]> LIMITS = new HashMap<>(); // 모드 -> {버스트, 초당 개수}
+
+    static {
+        LIMITS.put(GameMsg.CHAT_MESSAGE, new double[]{5, 2});
+        LIMITS.put(GameMsg.CHAT_EMOTICON, new double[]{3, 1});
+
+        for (Integer mode : LIMITS.keySet().toArray(new Integer[0])) {
+            String value = System.getProperty("catchliar.rate." + mode);
+            if (value == null) continue;
+            try {
+                String[] parts = value.split("/");
+                LIMITS.put(mode, new double[]{Double.parseDouble(parts[0]), Double.parseDouble(parts[1])});
+            } catch (RuntimeException e) {
+                System.err.println("잘못된 제한 설정 catchliar.rate." + mode + "=" + value);
+            }
+        }
+    }
+
+    private final Map<Integer, TokenBucket> buckets = new HashMap<>();
+
+    // 한도가 없는 모드는 항상 true
+    public synchronized boolean tryAcquire(int mode) {
+        TokenBucket bucket = getBucket(mode);
+        return bucket == null || bucket.tryAcquire(System.nanoTime());
+    }
+
+    // 다음 토큰이 생길 때까지 남은 시간 (ns)
+    public synchronized long nanosUntilAvailable(int mode) {
+        TokenBucket bucket = getBucket(mode);
+        return bucket == null ? 0 : bucket.nanosUntilAvailable(System.nanoTime());
+    }
+
+    private TokenBucket getBucket(int mode) {
+        TokenBucket bucket = buckets.get(mode);
+        if (bucket == null) {
+            double[] limit = LIMITS.get(mode);
+            if (limit == null) return null;
+            bucket = new TokenBucket(limit[0], limit[1]);
+            buckets.put(mode, bucket);
+        }
+        return bucket;
+    }
+
+    private static class TokenBucket {
+        private final double capacity;
+        private final double perNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double capacity, double perSecond) {
+            this.capacity = capacity;
+            this.perNano = perSecond / 1_000_000_000.0;
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * perNano);
+            lastRefill = now;
+        }
+
+        boolean tryAcquire(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+
+        long nanosUntilAvailable(long now) {
+            refill(now);
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / perNano);
+        }
+    }
+}
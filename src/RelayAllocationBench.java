@@ -0,0 +1,75 @@
+import java.io.File;
+import java.util.function.Consumer;
+
+// 그림 중계 할당량 확인 : java RelayAllocationBench [획 수]
+// ServerManager.benchmarkRoom으로 만든 실제 핸들러 MEMBERS명이 있는 방에서 첫 멤버가 받은 획을 서버와 같은 경로
+// (timedDispatch -> broadcasting -> sendGameMsg, JFR 이벤트 객체 포함)로 처리하면서, 처리 스레드와 전송 스레드들이 할당한 바이트를 획당으로 계산
+// (서버처럼 획마다 다른 GameMsg를 씀. 받은 메시지를 만드는 비용은 수신 쪽이라 미리 만들어 둠)
+// 결과 로그는 임시 파일에 쓰고 끝나면 지움 (작업 폴더의 results.log는 건드리지 않음)
+// 예열 후 획당 ALLOCATION_BUDGET 바이트를 넘으면 종료 코드 1
+public class RelayAllocationBench {
+    private static final int MEMBERS = 4;
+    private static final long ALLOCATION_BUDGET = 64; // 바이트/획 (멤버 전체 합)
+
+    public static void main(String[] args) throws Exception {
+        int strokes = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        // 로그 창(Server)이 없으므로 느린 요청 로그는 끔 (ServerManager를 처음 쓰기 전에 정해야 함)
+        if (System.getProperty("slow.dispatch.ms") == null) System.setProperty("slow.dispatch.ms", String.valueOf(Long.MAX_VALUE / 1_000_000));
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        File results = File.createTempFile("relay-bench", ".log");
+        File index = new File(results.getPath() + ".idx");
+        long perStroke;
+        try {
+            PrioritySender[] senders = new PrioritySender[MEMBERS];
+            ServerManager manager = new ServerManager(0, null, results.getPath());
+            Consumer<GameMsg> drawer = manager.benchmarkRoom(senders);
+            long[] ids = new long[MEMBERS + 1];
+            for (int i = 0; i < MEMBERS; i++) {
+                ids[i] = senders[i].getId();
+            }
+            ids[MEMBERS] = Thread.currentThread().getId(); // 받은 획을 처리하는 핸들러 스레드 역할
+            GameMsg[] warmup = strokes(strokes);
+            GameMsg[] measured = strokes(strokes);
+
+            relay(drawer, senders, warmup); // 예열 (JIT, 큐 크기, 중계 대상 캐시)
+            long before = totalAllocated(threads, ids);
+            relay(drawer, senders, measured);
+            perStroke = (totalAllocated(threads, ids) - before) / strokes;
+            for (PrioritySender sender : senders) sender.close();
+            manager.getResultsLog().close();
+        } finally {
+            results.delete();
+            index.delete();
+        }
+
+        System.out.println("획 " + strokes + "개 x 멤버 " + MEMBERS + "명 (broadcasting 경로) : 획당 " + perStroke + "바이트 할당 (기준 " + ALLOCATION_BUDGET + ")");
+        System.exit(perStroke > ALLOCATION_BUDGET ? 1 : 0);
+    }
+
+    private static GameMsg[] strokes(int count) {
+        GameMsg[] strokes = new GameMsg[count];
+        for (int i = 0; i < count; i++) {
+            strokes[i] = new GameMsg(GameMsg.DRAW_ACTION, new Paint(i % 800, i % 600, (i + 3) % 800, (i + 5) % 600, java.awt.Color.RED, false));
+        }
+        return strokes;
+    }
+
+    private static void relay(Consumer<GameMsg> drawer, PrioritySender[] senders, GameMsg[] strokes) {
+        for (GameMsg stroke : strokes) {
+            for (PrioritySender sender : senders) {
+                while (sender.getQueueDepth(PrioritySender.BULK) > 64) Thread.onSpinWait(); // 전송 스레드가 따라오게 함
+            }
+            drawer.accept(stroke);
+        }
+        for (PrioritySender sender : senders) {
+            while (!sender.isIdle()) Thread.onSpinWait();
+        }
+    }
+
+    private static long totalAllocated(com.sun.management.ThreadMXBean threads, long[] ids) {
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(ids)) total += bytes;
+        return total;
+    }
+}
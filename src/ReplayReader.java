@@ -0,0 +1,180 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// ReplayRecorder가 만든 리플레이 파일 읽기
+// 열 때 한 번 훑어서 글자 이벤트(입장, 턴, 채팅, 투표, 결과)와 키프레임 위치만 기억하고
+// 특정 시점의 캔버스는 그 직전 키프레임부터 선만 이어 붙여서 만듦
+public class ReplayReader {
+    private final byte[] data;
+    private final String roomName;
+    private final long startMillis;
+    private final int firstEventOffset;
+    private int duration = 0;
+
+    private final List<Event> events = new ArrayList<>();
+    private int[] keyframeTimes = new int[16];
+    private int[] keyframeOffsets = new int[16];
+    private int keyframeCount = 0;
+
+    public ReplayReader(File file) throws IOException {
+        data = Files.readAllBytes(file.toPath());
+        PositionedInput input = new PositionedInput(data);
+        DataInputStream in = new DataInputStream(input);
+        if (in.readInt() != ReplayRecorder.MAGIC || in.readInt() != ReplayRecorder.VERSION) {
+            throw new IOException("리플레이 파일 형식이 아닙니다 : " + file);
+        }
+        startMillis = in.readLong();
+        roomName = in.readUTF();
+        firstEventOffset = input.position();
+        index(input, in);
+    }
+
+    private void index(PositionedInput input, DataInputStream in) throws IOException {
+        try {
+            while (input.available() > 0) {
+                int offset = input.position();
+                int time = in.readInt();
+                byte type = in.readByte();
+                duration = Math.max(duration, time);
+                switch (type) {
+                    case ReplayRecorder.STROKE:
+                        in.skipBytes(12);
+                        break;
+                    case ReplayRecorder.KEYFRAME:
+                        if (keyframeCount == keyframeTimes.length) {
+                            keyframeTimes = Arrays.copyOf(keyframeTimes, keyframeCount * 2);
+                            keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframeCount * 2);
+                        }
+                        keyframeTimes[keyframeCount] = time;
+                        keyframeOffsets[keyframeCount++] = offset;
+                        in.skipBytes(in.readInt() * 12);
+                        break;
+                    case ReplayRecorder.END:
+                        return;
+                    default:
+                        events.add(readEvent(in, time, type));
+                }
+            }
+        } catch (EOFException e) {
+            // 기록 중인 파일이거나 끝이 잘린 파일 : 읽은 곳까지만 사용
+        }
+    }
+
+    private static Event readEvent(DataInputStream in, int time, byte type) throws IOException {
+        Event event = new Event(time, type);
+        event.first = in.readUTF();
+        if (type == ReplayRecorder.ROLE || type == ReplayRecorder.CHAT || type == ReplayRecorder.VOTE) {
+            event.second = in.readUTF();
+        } else if (type == ReplayRecorder.RESULT) {
+            event.liarVictory = in.readBoolean();
+        }
+        return event;
+    }
+
+    // time(ms) 시점의 캔버스 선 목록 (선마다 x1, y1, x2, y2, 색상 5개씩)
+    public int[] canvasAt(int time) {
+        int k = findKeyframe(time);
+        int[] lines = new int[0];
+        int count = 0;
+        PositionedInput input = new PositionedInput(data);
+        DataInputStream in = new DataInputStream(input);
+        try {
+            if (k >= 0) {
+                input.seek(keyframeOffsets[k] + 5);
+                count = in.readInt();
+                lines = new int[Math.max(count, 16) * 5];
+                for (int i = 0; i < count * 5; i += 5) {
+                    readLine(in, lines, i);
+                }
+            } else {
+                input.seek(firstEventOffset);
+                lines = new int[16 * 5];
+            }
+            // 키프레임 이후 time까지의 선만 이어 붙임
+            while (input.available() > 0) {
+                int eventTime = in.readInt();
+                byte type = in.readByte();
+                if (eventTime > time || type == ReplayRecorder.END) break;
+                if (type == ReplayRecorder.STROKE) {
+                    if (count * 5 == lines.length) lines = Arrays.copyOf(lines, lines.length * 2);
+                    readLine(in, lines, count++ * 5);
+                } else if (type == ReplayRecorder.KEYFRAME) {
+                    in.skipBytes(in.readInt() * 12);
+                } else {
+                    readEvent(in, eventTime, type);
+                }
+            }
+        } catch (IOException e) {
+            // 잘린 파일 : 읽은 곳까지만
+        }
+        return Arrays.copyOf(lines, count * 5);
+    }
+
+    private static void readLine(DataInputStream in, int[] lines, int i) throws IOException {
+        lines[i] = in.readShort();
+        lines[i + 1] = in.readShort();
+        lines[i + 2] = in.readShort();
+        lines[i + 3] = in.readShort();
+        lines[i + 4] = in.readInt();
+    }
+
+    // time 이전의 마지막 키프레임 번호 (없으면 -1)
+    private int findKeyframe(int time) {
+        int index = Arrays.binarySearch(keyframeTimes, 0, keyframeCount, time);
+        if (index >= 0) {
+            // 같은 시각의 키프레임이 여럿이면 마지막 것
+            while (index + 1 < keyframeCount && keyframeTimes[index + 1] == time) index++;
+            return index;
+        }
+        return -index - 2;
+    }
+
+    public String getRoomName() { return roomName; }
+    public long getStartMillis() { return startMillis; }
+    public int getDuration() { return duration; }
+    public int getKeyframeCount() { return keyframeCount; }
+    public List<Event> getEvents() { return events; }
+
+    // 선을 제외한 이벤트
+    public static class Event {
+        public final int time;
+        public final byte type;
+        public String first;
+        public String second;
+        public boolean liarVictory;
+
+        Event(int time, byte type) {
+            this.time = time;
+            this.type = type;
+        }
+
+        @Override
+        public String toString() {
+            String at = String.format("[%02d:%02d] ", time / 60000, time / 1000 % 60);
+            switch (type) {
+                case ReplayRecorder.JOIN: return at + first + "님 참가";
+                case ReplayRecorder.EXIT: return at + first + "님 퇴장";
+                case ReplayRecorder.ROLE: return at + "라이어 : " + first + ", 키워드 : " + second;
+                case ReplayRecorder.TURN: return at + first + "님 차례";
+                case ReplayRecorder.CHAT: return at + first + " : " + second;
+                case ReplayRecorder.VOTE: return at + first + " -> " + second + " 투표";
+                case ReplayRecorder.RESULT:
+                    return at + (first.isEmpty() ? "지목 없음" : first + " 지목") + ", " + (liarVictory ? "라이어 승리" : "시민 승리");
+                default: return at + "알 수 없는 이벤트 " + type;
+            }
+        }
+    }
+
+    // 읽는 위치를 알고 옮길 수 있는 입력 스트림
+    private static class PositionedInput extends ByteArrayInputStream {
+        PositionedInput(byte[] data) {
+            super(data);
+        }
+
+        int position() { return pos; }
+        void seek(int position) { pos = position; }
+    }
+}
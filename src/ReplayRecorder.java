@@ -0,0 +1,262 @@
+import java.awt.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 한 판(게임 시작 ~ 결과)의 진행 기록을 바이너리 리플레이 파일로 저장 (replays/방이름-시작시각.rpl)
+// (방 이름은 클라이언트가 정하므로 [A-Za-z0-9_-]만으로 된 이름만 그대로 쓰고, 나머지는 room-해시로 바꿈. 원래 이름은 파일 안에)
+// - 게임 루프에서는 메모리 버퍼에 몇 바이트 쓰기만 하고, 파일 기록은 replay-writer 스레드가 주기적으로 함
+// - KEYFRAME_INTERVAL마다 그때까지의 캔버스 전체(선 목록)를 키프레임으로 넣어서
+//   뷰어가 처음부터 다시 그리지 않고 원하는 시점으로 바로 이동할 수 있게 함
+//
+// 형식 : [MAGIC][VERSION][시작 시각 long][방 이름 UTF]
+//        { [경과 ms int][이벤트 종류 byte][내용] } ...
+public class ReplayRecorder {
+    static final int MAGIC = 0x434C5250; // "CLRP"
+    static final int VERSION = 1;
+
+    // 이벤트 종류
+    static final byte JOIN = 1;      // 이름
+    static final byte EXIT = 2;      // 이름
+    static final byte ROLE = 3;      // 라이어 이름, 키워드
+    static final byte TURN = 4;      // 이름
+    static final byte STROKE = 5;    // x1, y1, x2, y2 (short), 색상 (int)
+    static final byte CHAT = 6;      // 이름, 내용
+    static final byte VOTE = 7;      // 투표한 사람, 지목된 사람
+    static final byte RESULT = 8;    // 지목된 사람 (없으면 ""), 라이어 승리 여부
+    static final byte KEYFRAME = 9;  // 선 개수 int, { x1, y1, x2, y2, 색상 } ...
+    static final byte END = 10;
+
+    static final long KEYFRAME_INTERVAL = 5000; // ms
+    private static final long FLUSH_INTERVAL = 500; // ms
+    private static final File DIRECTORY = new File("replays");
+    private static final int MAX_NAME_LENGTH = 64;
+
+    private static final Map<ReplayRecorder, Boolean> open = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "replay-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        writer.scheduleWithFixedDelay(() -> {
+            for (ReplayRecorder recorder : open.keySet()) {
+                recorder.flush();
+            }
+        }, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private final File file;
+    private final long startMillis;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(8192);
+    private final DataOutputStream out = new DataOutputStream(pending);
+    private OutputStream fileOut;
+    private boolean closed = false;
+    private boolean fileClosed = false; // writer 스레드만 사용
+
+    // 키프레임용 누적 캔버스 (x1, y1, x2, y2, 색상 x 선 개수)
+    private int[] canvas = new int[5 * 256];
+    private int lineCount = 0;
+    private long lastKeyframe = 0;
+
+    private ReplayRecorder(File file, String roomName, long startMillis) throws IOException {
+        this.file = file;
+        this.startMillis = startMillis;
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(startMillis);
+        out.writeUTF(roomName);
+    }
+
+    // 파일을 만들 수 없으면 null (기록 없이 게임 진행)
+    public static ReplayRecorder start(String roomName, long startMillis) {
+        try {
+            if (!DIRECTORY.isDirectory() && !DIRECTORY.mkdirs()) {
+                throw new IOException("폴더를 만들 수 없습니다 : " + DIRECTORY);
+            }
+            ReplayRecorder recorder = new ReplayRecorder(new File(DIRECTORY, fileNameOf(roomName) + "-" + startMillis + ".rpl"), roomName, startMillis);
+            open.put(recorder, Boolean.TRUE);
+            return recorder;
+        } catch (IOException e) {
+            System.err.println("리플레이 기록을 시작할 수 없습니다 : " + e.getMessage());
+            return null;
+        }
+    }
+
+    // 파일 이름에 쓸 방 이름 : 경로 구분자, "..", 한글 등이 들어가면 이름 대신 SHA-256 앞 8바이트
+    static String fileNameOf(String roomName) {
+        if (roomName.length() > 0 && roomName.length() <= MAX_NAME_LENGTH && roomName.matches("[A-Za-z0-9_-]+")) {
+            return roomName;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(roomName.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder("room-");
+            for (int i = 0; i < 8; i++) {
+                sb.append(String.format("%02x", digest[i]));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // 모든 JVM에 있음
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public void join(String name) { writeNames(JOIN, name, null); }
+    public void exit(String name) { writeNames(EXIT, name, null); }
+    public void role(String liar, String keyword) { writeNames(ROLE, liar, keyword); }
+    public void turn(String name) { writeNames(TURN, name, null); }
+    public void chat(String name, String message) { writeNames(CHAT, name, message); }
+    public void vote(String voter, String voted) { writeNames(VOTE, voter, voted); }
+
+    public synchronized void stroke(Paint paint) {
+        if (closed) return;
+        try {
+            long elapsed = writeHeader(STROKE);
+            int rgb = paint.getColor() != null ? paint.getColor().getRGB() : Color.BLACK.getRGB();
+            out.writeShort(paint.getStartX());
+            out.writeShort(paint.getStartY());
+            out.writeShort(paint.getEndX());
+            out.writeShort(paint.getEndY());
+            out.writeInt(rgb);
+
+            if (lineCount * 5 == canvas.length) {
+                canvas = Arrays.copyOf(canvas, canvas.length * 2);
+            }
+            int i = lineCount++ * 5;
+            canvas[i] = paint.getStartX();
+            canvas[i + 1] = paint.getStartY();
+            canvas[i + 2] = paint.getEndX();
+            canvas[i + 3] = paint.getEndY();
+            canvas[i + 4] = rgb;
+
+            if (elapsed - lastKeyframe >= KEYFRAME_INTERVAL) {
+                writeKeyframe(elapsed);
+            }
+        } catch (IOException e) {
+            // 메모리 버퍼라 발생하지 않음
+        }
+    }
+
+    // 결과를 쓰고 파일을 닫음
+    public void finish(String accused, boolean liarVictory) {
+        synchronized (this) {
+            if (closed) return;
+            try {
+                writeHeader(RESULT);
+                out.writeUTF(accused != null ? accused : "");
+                out.writeBoolean(liarVictory);
+            } catch (IOException e) {
+                // 메모리 버퍼라 발생하지 않음
+            }
+        }
+        close();
+    }
+
+    // 결과 없이 닫음 (게임이 중간에 끝난 경우)
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            try {
+                writeKeyframe(System.currentTimeMillis() - startMillis);
+                writeHeader(END);
+            } catch (IOException e) {
+                // 메모리 버퍼라 발생하지 않음
+            }
+            closed = true;
+        }
+        open.remove(this);
+        writer.execute(this::flush);
+    }
+
+    private synchronized void writeNames(byte type, String first, String second) {
+        if (closed) return;
+        try {
+            writeHeader(type);
+            out.writeUTF(first != null ? first : "");
+            if (type == ROLE || type == CHAT || type == VOTE) {
+                out.writeUTF(second != null ? second : "");
+            }
+        } catch (IOException e) {
+            // 메모리 버퍼라 발생하지 않음
+        }
+    }
+
+    private long writeHeader(byte type) throws IOException {
+        long elapsed = System.currentTimeMillis() - startMillis;
+        out.writeInt((int) elapsed);
+        out.writeByte(type);
+        return elapsed;
+    }
+
+    private void writeKeyframe(long elapsed) throws IOException {
+        out.writeInt((int) elapsed);
+        out.writeByte(KEYFRAME);
+        out.writeInt(lineCount);
+        for (int i = 0; i < lineCount * 5; i += 5) {
+            out.writeShort(canvas[i]);
+            out.writeShort(canvas[i + 1]);
+            out.writeShort(canvas[i + 2]);
+            out.writeShort(canvas[i + 3]);
+            out.writeInt(canvas[i + 4]);
+        }
+        lastKeyframe = elapsed;
+    }
+
+    // replay-writer 스레드에서 호출 : 쌓인 바이트를 파일로 옮김
+    private void flush() {
+        if (fileClosed) return;
+        byte[] bytes;
+        boolean finished;
+        synchronized (this) {
+            if (pending.size() == 0 && !closed) return;
+            bytes = pending.toByteArray();
+            pending.reset();
+            finished = closed;
+        }
+        try {
+            if (fileOut == null) {
+                fileOut = new BufferedOutputStream(new FileOutputStream(file));
+            }
+            fileOut.write(bytes);
+            fileOut.flush();
+            if (finished) {
+                fileClosed = true;
+                fileOut.close();
+                System.out.println("리플레이 저장 : " + file + " (" + file.length() + " bytes)");
+            }
+        } catch (IOException e) {
+            System.err.println("리플레이 기록 실패 : " + file + " - " + e.getMessage());
+            fileClosed = true;
+            open.remove(this);
+        }
+    }
+
+    // 기록 비용 측정 : java ReplayRecorder <선 개수>
+    public static void main(String[] args) throws Exception {
+        int strokes = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        ReplayRecorder recorder = start("bench", System.currentTimeMillis());
+        recorder.join("a");
+        recorder.role("a", "떡볶이");
+        Paint paint = new Paint(10, 20, 30, 40, Color.BLACK, false);
+        long start = System.nanoTime();
+        for (int i = 0; i < strokes; i++) {
+            recorder.stroke(paint);
+        }
+        long elapsed = System.nanoTime() - start;
+        recorder.finish(null, true);
+        Thread.sleep(FLUSH_INTERVAL * 2);
+        System.out.println("선 " + strokes + "개 기록 : 평균 " + elapsed / strokes + "ns");
+        recorder.getFile().delete();
+    }
+}
@@ -0,0 +1,106 @@
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+
+// 리플레이 보기 : java ReplayViewer [replays/방이름-시작시각.rpl]
+// GamePanel에 그 시점의 캔버스를 그리고, 슬라이더로 원하는 초로 바로 이동
+public class ReplayViewer extends JFrame {
+    private static final int PLAY_STEP = 100; // ms
+
+    private final ReplayReader reader;
+    private final GamePanel gamePanel = new GamePanel(null);
+    private final JSlider slider;
+    private final JLabel timeLabel = new JLabel();
+    private final JTextArea eventArea = new JTextArea(8, 30);
+    private final Timer playTimer;
+    private int position = 0;
+
+    public ReplayViewer(ReplayReader reader) {
+        super("캐치 라이어 리플레이 - " + reader.getRoomName());
+        this.reader = reader;
+
+        gamePanel.setDrawingEnabled(false);
+        gamePanel.setBackground(Color.WHITE);
+        gamePanel.setPreferredSize(new Dimension(600, 400));
+
+        slider = new JSlider(0, reader.getDuration(), 0);
+        slider.addChangeListener(e -> {
+            if (slider.getValue() != position) showAt(slider.getValue());
+        });
+
+        JToggleButton playButton = new JToggleButton("재생");
+        playTimer = new Timer(PLAY_STEP, e -> {
+            if (position >= reader.getDuration()) {
+                playButton.setSelected(false);
+                ((Timer) e.getSource()).stop();
+                return;
+            }
+            showAt(Math.min(position + PLAY_STEP, reader.getDuration()));
+        });
+        playButton.addActionListener(e -> {
+            if (playButton.isSelected()) playTimer.start();
+            else playTimer.stop();
+        });
+
+        JPanel controlPanel = new JPanel(new BorderLayout(5, 0));
+        controlPanel.add(playButton, BorderLayout.WEST);
+        controlPanel.add(slider, BorderLayout.CENTER);
+        controlPanel.add(timeLabel, BorderLayout.EAST);
+
+        eventArea.setEditable(false);
+
+        setLayout(new BorderLayout());
+        add(gamePanel, BorderLayout.CENTER);
+        add(new JScrollPane(eventArea), BorderLayout.EAST);
+        add(controlPanel, BorderLayout.SOUTH);
+
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        pack();
+        setLocationRelativeTo(null);
+        showAt(0);
+    }
+
+    // time(ms) 시점으로 이동 : 직전 키프레임부터만 다시 만듦
+    private void showAt(int time) {
+        position = time;
+        slider.setValue(time);
+
+        long start = System.nanoTime();
+        int[] lines = reader.canvasAt(time);
+        gamePanel.clearLines();
+        for (int i = 0; i < lines.length; i += 5) {
+            gamePanel.receiveRemoteDrawing(lines[i], lines[i + 1], lines[i + 2], lines[i + 3], new Color(lines[i + 4], true));
+        }
+        gamePanel.repaint();
+        long elapsed = System.nanoTime() - start;
+
+        StringBuilder sb = new StringBuilder();
+        for (ReplayReader.Event event : reader.getEvents()) {
+            if (event.time > time) break;
+            sb.append(event).append('\n');
+        }
+        eventArea.setText(sb.toString());
+        timeLabel.setText(String.format("%02d:%02d / %02d:%02d (선 %d개, %dus)",
+                time / 60000, time / 1000 % 60, reader.getDuration() / 60000, reader.getDuration() / 1000 % 60,
+                lines.length / 5, elapsed / 1000));
+    }
+
+    public static void main(String[] args) {
+        SwingUtilities.invokeLater(() -> {
+            File file;
+            if (args.length > 0) {
+                file = new File(args[0]);
+            } else {
+                JFileChooser chooser = new JFileChooser(new File("replays"));
+                if (chooser.showOpenDialog(null) != JFileChooser.APPROVE_OPTION) return;
+                file = chooser.getSelectedFile();
+            }
+            try {
+                new ReplayViewer(new ReplayReader(file)).setVisible(true);
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(null, "리플레이를 열 수 없습니다 : " + e.getMessage());
+            }
+        });
+    }
+}
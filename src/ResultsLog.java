@@ -0,0 +1,605 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+// 게임 결과를 고정 크기 레코드로 이어 붙이기만 하는 결과 로그 (results.log)
+// - append()는 큐에 넣기만 하고 바로 반환 (게임 루프가 디스크를 기다리지 않음)
+// - 기록 스레드가 쌓인 결과를 모아 한 번에 쓰고 force는 묶음마다 한 번만 함 (group commit)
+// - 플레이어별 레코드 번호 인덱스는 메모리 매핑한 파일(results.log.idx)에 두고 기록할 때마다 이어 씀
+//   -> 시작할 때 로그 전체를 훑지 않고, 인덱스보다 뒤에 기록된 레코드만 인덱스에 더함
+// - 플레이어는 잘리지 않은 전체 이름의 64비트 키(keyOf)로 찾음 (레코드의 이름은 PLAYER_BYTES에서 잘림)
+//
+// 형식 : [헤더 HEADER_SIZE] { [레코드 RECORD_SIZE] } ...
+// 레코드 : [시작 시각][종료 시각][인원][라이어 번호][지목된 번호][라이어 승리]
+//          [방 이름][키워드] { [플레이어 키][플레이어 이름][득표 수] } x MAX_PLAYERS
+public class ResultsLog {
+    private static final int MAGIC = 0x434C5253; // "CLRS"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+
+    public static final int MAX_PLAYERS = 8;
+    private static final int NAME_BYTES = 30;   // 방 이름, 키워드 (UTF-8, 넘치면 자름)
+    private static final int PLAYER_BYTES = 22; // 플레이어 이름
+    public static final int RECORD_SIZE = 8 + 8 + 4
+            + (2 + NAME_BYTES) * 2
+            + (8 + 2 + PLAYER_BYTES + 2) * MAX_PLAYERS; // = 356
+
+    private static final int MAX_BATCH = 1024;
+
+    private final File file;
+    private FileChannel channel;
+    private final LinkedBlockingQueue<GameResult> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private volatile boolean closed = false;
+
+    // 플레이어 키 -> 레코드 번호 (this로 동기화)
+    private PlayerIndex playerIndex;
+    private int recordCount = 0;
+    private final List<Consumer<GameResult>> listeners = new ArrayList<>();
+
+    // 통계
+    private volatile long committedBatches = 0;
+    private volatile long lastBatchSize = 0;
+    private volatile long lastCommitNanos = 0;
+
+    public ResultsLog(String fileName) {
+        this.file = new File(fileName);
+        try {
+            open();
+        } catch (IOException e) {
+            System.err.println("결과 로그를 열 수 없습니다. 결과를 저장하지 않습니다 : " + e.getMessage());
+            channel = null;
+        }
+        writerThread = new Thread(this::runWriter, "results-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private void open() throws IOException {
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        if (channel.size() < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).flip();
+            channel.truncate(0);
+            channel.write(header, 0);
+            channel.force(true);
+        }
+
+        long start = System.nanoTime();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        int magic = header.getInt();
+        int version = header.getInt();
+        int recordSize = header.getInt();
+        if (magic != MAGIC || version != VERSION || recordSize != RECORD_SIZE) {
+            channel.close();
+            throw new IOException("결과 로그 형식이 다릅니다 : " + file);
+        }
+        // 마지막 레코드가 덜 쓰였으면 (비정상 종료) 잘라냄
+        long size = channel.size();
+        int count = (int) ((size - HEADER_SIZE) / RECORD_SIZE);
+        long validSize = HEADER_SIZE + (long) count * RECORD_SIZE;
+        if (validSize != size) {
+            channel.truncate(validSize);
+        }
+        recordCount = count;
+
+        playerIndex = new PlayerIndex(new File(file.getPath() + ".idx"));
+        int indexed = playerIndex.load(count);
+        if (indexed < 0) {
+            // 인덱스가 없거나 깨졌으면 로그로 다시 만듦
+            playerIndex.create(PlayerIndex.INITIAL_CAPACITY);
+            indexed = 0;
+        }
+        if (indexed < count) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, validSize);
+            for (int i = indexed; i < count; i++) {
+                ByteBuffer record = map.duplicate();
+                record.position(HEADER_SIZE + i * RECORD_SIZE).limit(HEADER_SIZE + (i + 1) * RECORD_SIZE);
+                index(decode(record.slice()), i);
+            }
+            playerIndex.force();
+        }
+        System.out.println("결과 로그 로드 : " + file + " (" + count + "개, 인덱스에 " + (count - indexed) + "개 추가, "
+                + (System.nanoTime() - start) / 1_000_000 + "ms)");
+    }
+
+    // 게임 루프에서 호출. 디스크 기록은 기록 스레드가 함
+    public void append(GameResult result) {
+        if (closed || channel == null) return;
+        queue.offer(result);
+    }
+
+    // 기록이 끝난 결과를 받을 리스너 (기록 스레드에서 호출됨)
+    public synchronized void addListener(Consumer<GameResult> listener) {
+        listeners.add(listener);
+    }
+
+    private void runWriter() {
+        List<GameResult> batch = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * MAX_BATCH);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                GameResult first = queue.poll(500, java.util.concurrent.TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                commit(batch, buffer);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeFiles(); // 마지막 묶음을 기록한 뒤에만 닫음
+        }
+    }
+
+    private void commit(List<GameResult> batch, ByteBuffer buffer) {
+        if (channel == null) return;
+        long start = System.nanoTime();
+        buffer.clear();
+        for (GameResult result : batch) {
+            encode(result, buffer);
+        }
+        buffer.flip();
+        try {
+            long position = HEADER_SIZE + (long) recordCount * RECORD_SIZE;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false); // 묶음마다 한 번만
+        } catch (IOException e) {
+            System.err.println("결과 로그 기록 실패 (" + batch.size() + "개) : " + e.getMessage());
+            return;
+        }
+
+        List<Consumer<GameResult>> currentListeners;
+        synchronized (this) {
+            for (GameResult result : batch) {
+                index(result, recordCount++);
+            }
+            playerIndex.force();
+            currentListeners = new ArrayList<>(listeners);
+        }
+        for (GameResult result : batch) {
+            for (Consumer<GameResult> listener : currentListeners) {
+                listener.accept(result);
+            }
+        }
+        committedBatches++;
+        lastBatchSize = batch.size();
+        lastCommitNanos = System.nanoTime() - start;
+    }
+
+    private synchronized void index(GameResult result, int recordNo) {
+        try {
+            for (int i = 0; i < result.players.length && i < MAX_PLAYERS; i++) {
+                playerIndex.add(result.playerKey(i), recordNo);
+            }
+            playerIndex.setIndexedRecords(recordNo + 1);
+        } catch (IOException e) {
+            System.err.println("결과 인덱스 기록 실패 : " + e.getMessage());
+        }
+    }
+
+    // 플레이어의 최근 결과 (최신순, 최대 limit개)
+    public List<GameResult> findByPlayer(String player, int limit) {
+        int[] records;
+        synchronized (this) {
+            if (playerIndex == null) return new ArrayList<>();
+            records = playerIndex.find(keyOf(player), limit);
+        }
+        List<GameResult> results = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        try {
+            for (int recordNo : records) {
+                results.add(readRecord(recordNo, buffer));
+            }
+        } catch (IOException e) {
+            System.err.println("결과 로그 조회 실패 : " + e.getMessage());
+        }
+        return results;
+    }
+
+    private GameResult readRecord(int recordNo, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        long position = HEADER_SIZE + (long) recordNo * RECORD_SIZE;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) break;
+        }
+        buffer.flip();
+        return decode(buffer);
+    }
+
+    // 저장된 결과를 처음부터 모두 훑음 (시작 시 통계 재구성용)
+    public void forEach(Consumer<GameResult> consumer) {
+        if (channel == null) return;
+        int count;
+        synchronized (this) {
+            count = recordCount;
+        }
+        try {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE + (long) count * RECORD_SIZE);
+            for (int i = 0; i < count; i++) {
+                ByteBuffer record = map.duplicate();
+                record.position(HEADER_SIZE + i * RECORD_SIZE).limit(HEADER_SIZE + (i + 1) * RECORD_SIZE);
+                consumer.accept(decode(record.slice()));
+            }
+        } catch (IOException e) {
+            System.err.println("결과 로그 읽기 실패 : " + e.getMessage());
+        }
+    }
+
+    public synchronized int getRecordCount() { return recordCount; }
+    public int getPendingCount() { return queue.size(); }
+    public long getCommittedBatches() { return committedBatches; }
+    public long getLastBatchSize() { return lastBatchSize; }
+    public long getLastCommitNanos() { return lastCommitNanos; }
+
+    // 남은 결과를 모두 기록하고 닫음. 파일은 기록 스레드가 마지막 묶음을 쓴 뒤 직접 닫음
+    // (기다리는 시간을 넘기면 기록 중인 파일을 닫지 않고 그대로 돌아감)
+    public void close() {
+        closed = true;
+        try {
+            writerThread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            System.err.println("결과 로그 기록이 아직 끝나지 않았습니다 (남은 결과 " + queue.size() + "개). 기록이 끝나면 닫습니다.");
+        }
+    }
+
+    private void closeFiles() {
+        try {
+            synchronized (this) {
+                if (playerIndex != null) playerIndex.close();
+            }
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            System.err.println("결과 로그 닫기 오류 : " + e.getMessage());
+        }
+    }
+
+    private static void encode(GameResult result, ByteBuffer buffer) {
+        int start = buffer.position();
+        int count = Math.min(result.players.length, MAX_PLAYERS);
+        buffer.putLong(result.startMillis);
+        buffer.putLong(result.endMillis);
+        buffer.put((byte) count);
+        buffer.put((byte) result.liarIndex);
+        buffer.put((byte) result.accusedIndex);
+        buffer.put((byte) (result.liarVictory ? 1 : 0));
+        putString(buffer, result.roomName, NAME_BYTES);
+        putString(buffer, result.keyword, NAME_BYTES);
+        for (int i = 0; i < MAX_PLAYERS; i++) {
+            buffer.putLong(i < count ? result.playerKey(i) : 0);
+            putString(buffer, i < count ? result.players[i] : null, PLAYER_BYTES);
+            buffer.putShort((short) (i < count ? result.votes[i] : 0));
+        }
+        buffer.position(start + RECORD_SIZE);
+    }
+
+    private static GameResult decode(ByteBuffer buffer) {
+        GameResult result = new GameResult();
+        result.startMillis = buffer.getLong();
+        result.endMillis = buffer.getLong();
+        int count = buffer.get();
+        result.liarIndex = buffer.get();
+        result.accusedIndex = buffer.get();
+        result.liarVictory = buffer.get() == 1;
+        result.roomName = getString(buffer, NAME_BYTES);
+        result.keyword = getString(buffer, NAME_BYTES);
+        result.players = new String[count];
+        result.playerKeys = new long[count];
+        result.votes = new int[count];
+        for (int i = 0; i < MAX_PLAYERS; i++) {
+            long key = buffer.getLong();
+            String name = getString(buffer, PLAYER_BYTES);
+            int votes = buffer.getShort();
+            if (i < count) {
+                result.players[i] = name;
+                result.playerKeys[i] = key;
+                result.votes[i] = votes;
+            }
+        }
+        return result;
+    }
+
+    private static void putString(ByteBuffer buffer, String value, int max) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, max);
+        // UTF-8 글자 중간에서 잘리지 않도록
+        while (length > 0 && length < bytes.length && (bytes[length] & 0xC0) == 0x80) length--;
+        buffer.putShort((short) length);
+        buffer.put(bytes, 0, length);
+        buffer.position(buffer.position() + max - length);
+    }
+
+    private static String getString(ByteBuffer buffer, int max) {
+        int length = buffer.getShort();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        buffer.position(buffer.position() + max - length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // 플레이어 이름(잘리지 않은 전체 이름)의 64비트 키 (FNV-1a 후 섞음, 0은 빈 칸 표시라 쓰지 않음)
+    public static long keyOf(String player) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : player.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+
+    // 플레이어 키 -> 레코드 번호 인덱스 파일 (메모리 매핑)
+    // 형식 : [헤더 HEADER_SIZE] [슬롯 SLOT_SIZE x capacity] { [항목 ENTRY_SIZE] } ...
+    // 헤더 : [MAGIC][VERSION][capacity][항목 수][인덱스에 넣은 레코드 수]
+    // 슬롯 : [플레이어 키 (0이면 빈 칸)][마지막 항목 번호][마지막 레코드 번호]  (열린 주소법, 선형 탐사)
+    // 항목 : [플레이어 키][레코드 번호][같은 플레이어의 이전 항목 번호 (-1이면 처음)]
+    // - 항목을 먼저 쓰고 항목 수를 올린 뒤 슬롯을 바꾸므로 중간에 죽어도 이미 가리키는 항목을 덮어쓰지 않음
+    // - 슬롯의 마지막 레코드 번호보다 작거나 같은 레코드는 다시 넣지 않음 -> 끝부분을 다시 인덱스해도 안전
+    private static class PlayerIndex {
+        static final int MAGIC = 0x434C5249; // "CLRI"
+        static final int VERSION = 1;
+        static final int HEADER_SIZE = 32;
+        static final int SLOT_SIZE = 16;
+        static final int ENTRY_SIZE = 16;
+        static final int INITIAL_CAPACITY = 1024;
+        private static final int CAPACITY_AT = 8, ENTRIES_AT = 12, INDEXED_AT = 16;
+
+        private final File file;
+        private FileChannel channel;
+        private MappedByteBuffer map;
+        private int capacity;
+        private int playerCount;
+        private int entryCount;
+        private int entryLimit; // 지금 매핑에 들어가는 항목 수
+
+        PlayerIndex(File file) {
+            this.file = file;
+        }
+
+        // 인덱스에 넣은 레코드 수, 없거나 깨졌으면 -1
+        int load(int recordCount) {
+            if (!file.exists()) return -1;
+            try {
+                channel = new RandomAccessFile(file, "rw").getChannel();
+                long size = channel.size();
+                if (size < HEADER_SIZE) return -1;
+                map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                capacity = map.getInt(CAPACITY_AT);
+                entryCount = map.getInt(ENTRIES_AT);
+                int indexed = map.getInt(INDEXED_AT);
+                long slotsEnd = HEADER_SIZE + (long) capacity * SLOT_SIZE;
+                if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION
+                        || capacity <= 0 || (capacity & (capacity - 1)) != 0 || entryCount < 0
+                        || slotsEnd + (long) entryCount * ENTRY_SIZE > size
+                        || indexed < 0 || indexed > recordCount) {
+                    return -1;
+                }
+                entryLimit = (int) ((size - slotsEnd) / ENTRY_SIZE);
+                playerCount = 0;
+                for (int i = 0; i < capacity; i++) {
+                    int slot = HEADER_SIZE + i * SLOT_SIZE;
+                    if (map.getLong(slot) == 0) continue;
+                    int latest = map.getInt(slot + 8);
+                    if (latest < 0 || latest >= entryCount) return -1;
+                    playerCount++;
+                }
+                return indexed;
+            } catch (IOException e) {
+                System.err.println("결과 인덱스를 읽을 수 없습니다. 다시 만듭니다 : " + e.getMessage());
+                return -1;
+            }
+        }
+
+        // 비어 있는 인덱스로 초기화
+        void create(int newCapacity) throws IOException {
+            if (channel == null) {
+                channel = new RandomAccessFile(file, "rw").getChannel();
+            }
+            capacity = newCapacity;
+            entryLimit = Math.max(entryLimit, capacity * 4);
+            remap();
+            map.putInt(INDEXED_AT, 0);
+            map.putInt(ENTRIES_AT, 0);
+            map.putInt(CAPACITY_AT, capacity);
+            map.putInt(0, MAGIC).putInt(4, VERSION);
+            for (int i = 0; i < capacity; i++) {
+                map.putLong(HEADER_SIZE + i * SLOT_SIZE, 0);
+            }
+            entryCount = 0;
+            playerCount = 0;
+        }
+
+        private void remap() throws IOException {
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) capacity * SLOT_SIZE + (long) entryLimit * ENTRY_SIZE);
+        }
+
+        private int entryAt(int entry) {
+            return HEADER_SIZE + capacity * SLOT_SIZE + entry * ENTRY_SIZE;
+        }
+
+        // 키의 슬롯 위치 (없으면 비어 있는 슬롯)
+        private int slotOf(long key) {
+            int i = (int) (key ^ (key >>> 32)) & (capacity - 1);
+            while (true) {
+                int slot = HEADER_SIZE + i * SLOT_SIZE;
+                long found = map.getLong(slot);
+                if (found == key || found == 0) return slot;
+                i = (i + 1) & (capacity - 1);
+            }
+        }
+
+        void add(long key, int recordNo) throws IOException {
+            int slot = slotOf(key);
+            boolean isNew = map.getLong(slot) == 0;
+            if (!isNew && map.getInt(slot + 12) >= recordNo) return; // 이미 넣은 레코드
+            if (isNew && (playerCount + 1) * 2 > capacity) {
+                grow();
+                slot = slotOf(key);
+            }
+            if (entryCount == entryLimit) {
+                entryLimit *= 2;
+                remap();
+            }
+            int entry = entryCount;
+            int position = entryAt(entry);
+            map.putLong(position, key);
+            map.putInt(position + 8, recordNo);
+            map.putInt(position + 12, isNew ? -1 : map.getInt(slot + 8));
+            map.putInt(ENTRIES_AT, ++entryCount);
+            map.putInt(slot + 8, entry);
+            map.putInt(slot + 12, recordNo);
+            if (isNew) {
+                map.putLong(slot, key);
+                playerCount++;
+            }
+        }
+
+        // 슬롯이 절반 넘게 차면 두 배로 늘리고 항목을 순서대로 다시 넣음
+        private void grow() throws IOException {
+            int count = entryCount;
+            long[] keys = new long[count];
+            int[] records = new int[count];
+            for (int i = 0; i < count; i++) {
+                int position = entryAt(i);
+                keys[i] = map.getLong(position);
+                records[i] = map.getInt(position + 8);
+            }
+            int indexed = map.getInt(INDEXED_AT);
+            create(capacity * 2);
+            for (int i = 0; i < count; i++) {
+                add(keys[i], records[i]);
+            }
+            map.putInt(INDEXED_AT, indexed);
+        }
+
+        void setIndexedRecords(int count) {
+            map.putInt(INDEXED_AT, count);
+        }
+
+        // 최신순 레코드 번호 (최대 limit개)
+        int[] find(long key, int limit) {
+            int slot = slotOf(key);
+            if (map.getLong(slot) == 0) return new int[0];
+            int[] records = new int[Math.min(limit, 64)];
+            int size = 0;
+            int entry = map.getInt(slot + 8);
+            while (entry >= 0 && entry < entryCount && size < limit) {
+                int position = entryAt(entry);
+                if (map.getLong(position) != key) break; // 깨진 연결
+                if (size == records.length) records = Arrays.copyOf(records, size * 2);
+                records[size++] = map.getInt(position + 8);
+                int prev = map.getInt(position + 12);
+                if (prev >= entry) break;
+                entry = prev;
+            }
+            return Arrays.copyOf(records, size);
+        }
+
+        void force() {
+            if (map != null) map.force();
+        }
+
+        void close() throws IOException {
+            force();
+            if (channel != null) channel.close();
+        }
+    }
+
+    // 한 판의 결과
+    public static class GameResult {
+        public String roomName;
+        public String keyword;
+        public String[] players;   // 기록된 이름은 PLAYER_BYTES에서 잘릴 수 있음
+        public long[] playerKeys;  // 전체 이름의 keyOf (null이면 players로 계산)
+        public int[] votes;        // players와 같은 순서의 득표 수
+        public int liarIndex;      // players 안에서 라이어 위치
+        public int accusedIndex;   // 최다 득표자 위치 (아무도 투표하지 않았으면 -1)
+        public boolean liarVictory;
+        public long startMillis;
+        public long endMillis;
+
+        public String getLiar() {
+            return liarIndex >= 0 && liarIndex < players.length ? players[liarIndex] : null;
+        }
+
+        public long playerKey(int index) {
+            return playerKeys != null ? playerKeys[index] : keyOf(players[index]);
+        }
+
+        // index번째 플레이어가 이긴 판인지 (라이어는 라이어 승리, 나머지는 라이어 패배일 때)
+        public boolean isWinner(int index) {
+            return (index == liarIndex) == liarVictory;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + roomName + "] 키워드 " + keyword + ", 라이어 " + getLiar()
+                    + (liarVictory ? " 승리" : " 패배") + ", 참가 " + Arrays.toString(players);
+        }
+    }
+
+    // 처리량 측정 : java ResultsLog <파일> <개수>
+    public static void main(String[] args) throws Exception {
+        String fileName = args.length > 0 ? args[0] : "results-bench.log";
+        int total = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        new File(fileName).delete();
+        new File(fileName + ".idx").delete();
+
+        ResultsLog log = new ResultsLog(fileName);
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            GameResult result = new GameResult();
+            result.roomName = "food";
+            result.keyword = "떡볶이";
+            result.players = new String[]{"p" + (i % 50), "p" + ((i + 1) % 50), "p" + ((i + 2) % 50), "p" + ((i + 3) % 50)};
+            result.votes = new int[]{2, 1, 1, 0};
+            result.liarIndex = i % 4;
+            result.accusedIndex = 0;
+            result.liarVictory = result.liarIndex != 0;
+            result.startMillis = System.currentTimeMillis() - 90_000;
+            result.endMillis = System.currentTimeMillis();
+            log.append(result);
+        }
+        long enqueued = System.nanoTime() - start;
+        log.close();
+        long elapsed = System.nanoTime() - start;
+        System.out.println("append " + total + "개 : " + enqueued / 1000 + "us (호출 쪽), 기록 완료 : " + elapsed / 1_000_000 + "ms, "
+                + (long) (total / (elapsed / 1e9)) + "개/초, 묶음 " + log.getCommittedBatches() + "번");
+
+        // 다시 열기 : 저장된 인덱스를 쓰는 경우와 인덱스 파일이 없어 로그로 다시 만드는 경우
+        long open = System.nanoTime();
+        ResultsLog reopened = new ResultsLog(fileName);
+        long withIndex = System.nanoTime() - open;
+        long lookup = System.nanoTime();
+        List<GameResult> recent = reopened.findByPlayer("p7", 20);
+        System.out.println("다시 열기 (인덱스 사용) : " + withIndex / 1000 + "us, p7 최근 " + recent.size() + "개 조회 : "
+                + (System.nanoTime() - lookup) / 1000 + "us");
+        reopened.close();
+
+        new File(fileName + ".idx").delete();
+        open = System.nanoTime();
+        reopened = new ResultsLog(fileName);
+        System.out.println("다시 열기 (인덱스 재생성) : " + (System.nanoTime() - open) / 1000 + "us, p7 최근 "
+                + reopened.findByPlayer("p7", 20).size() + "개");
+        reopened.close();
+    }
+}
@@ -1,54 +1,78 @@
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
+// 멤버/준비 목록은 바뀔 때마다 새 스냅샷(Members)으로 통째로 교체 (copy-on-write)
+// - 읽는 쪽(브로드캐스트, 타이머)은 volatile 참조 하나만 읽고 잠금 없이 배열을 그대로 씀
+// - 쓰는 쪽은 CAS로 교체. 입장/퇴장/준비는 한 판에 몇 번뿐이라 복사 비용이 문제 되지 않음
 public class Room implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final AtomicReferenceFieldUpdater<Room, Members> MEMBERS =
+            AtomicReferenceFieldUpdater.newUpdater(Room.class, Members.class, "members");
+    private static final AtomicReferenceFieldUpdater<Room, Members> READY_USERS =
+            AtomicReferenceFieldUpdater.newUpdater(Room.class, Members.class, "readyUsers");
+
+    // 진행 단계 (서버 지표용)
+    public static final int WAITING = 0;
+    public static final int DRAWING = 1;
+    public static final int VOTING = 2;
+    public static final String[] PHASE_NAMES = {"waiting", "drawing", "voting"};
+
     private String roomName; // 방 이름
-    private Vector<User> members; // 방에 있는 클라이언트 닉네임 목록
-    private Vector<User> readyUsers;
+    private volatile Members members = Members.EMPTY; // 방에 있는 클라이언트 목록
+    private volatile Members readyUsers = Members.EMPTY;
     public String Keywords;
 
     private int currentTurnIndex = -1; // 현재 그림을 그릴 사용자 인덱스
     private User currentTurnUser = null;
-    private Map<String, Integer> voteCounts = new HashMap<>();
+    private final IntIntMap voteCounts = new IntIntMap(); // 지목된 플레이어 id -> 표 수
+    private transient KeywordDictionary.ShuffleBag keywordBag; // 방별 키워드 셔플 백
+    private int stateVersion = 0; // 클라이언트에 보낸 방 상태 변경분 번호
+    private long startedAt = 0; // 이번 판 시작 시각 (결과 로그용)
+    private transient volatile int phase = WAITING;
+    private transient volatile int timeLeft = 0; // 현재 단계의 남은 초
+    private transient long strokeCount = 0; // 이 방에서 중계한 획 수 (대시보드 획/초 계산용)
 
     public Room(String name) {
         this.roomName = name;
-        this.members = new Vector<>();
-        this.readyUsers = new Vector<>();
     }
 
     public void addMember(User user) {
-        synchronized (members) {
-            members.add(user);
-            if (members.size() == 1) {
-                // 첫 번째 사용자가 방에 들어오면 첫 턴으로 설정
-                currentTurnIndex = 0;
-            }
+        Members current;
+        do {
+            current = members;
+        } while (!MEMBERS.compareAndSet(this, current, current.with(user)));
+        if (current.size() == 0) {
+            // 첫 번째 사용자가 방에 들어오면 첫 턴으로 설정
+            currentTurnIndex = 0;
         }
         System.out.println("Room 에서 addMember : " + roomName + "에서 " + user.getName() + "님이 입장");
         System.out.println("현재 방에 있는 멤버들 : " + members);
     }
 
     public void removeMember(User user) {
-        synchronized (members) {
-            members.remove(user);
-        }
+        Members current;
+        do {
+            current = members;
+        } while (!MEMBERS.compareAndSet(this, current, current.without(user)));
         System.out.println("Room 에서 removeMember : " + roomName + "에서 " + user.getName() + "님이 퇴장");
         System.out.println("현재 방에 있는 멤버들 : " + members);
     }
 
     public void addReadyUser(User user) {
-        synchronized (readyUsers) {
-            readyUsers.add(user);
-        }
+        Members current;
+        do {
+            current = readyUsers;
+        } while (!READY_USERS.compareAndSet(this, current, current.with(user)));
         System.out.println("Room 에서 addReadyUser : " + roomName + "에서 " + user.getName() + "님이 준비");
         System.out.println("현재 준비한 멤버들 : " + readyUsers);
     }
 
     public void removeReadyUser(User user) {
-        synchronized (readyUsers) {
-            readyUsers.remove(user);
-        }
+        Members current;
+        do {
+            current = readyUsers;
+        } while (!READY_USERS.compareAndSet(this, current, current.without(user)));
         System.out.println("Room 에서 removeReadyUser : " + roomName + "에서 " + user.getName() + "님이 준비 해제");
         System.out.println("현재 준비한 멤버들 : " + readyUsers);
     }
@@ -59,44 +83,76 @@ public class Room implements Serializable {
     }
     public void setRoomName(String roomName) { this.roomName = roomName; }
 
+    // 메시지에 실어 보낼 때만 (GameMsg는 Vector로 보냄). 읽기만 할 때는 getMemberArray()
     public Vector<User> getMembers() {
-        synchronized (members) {
-            return new Vector<>(members);
-        }
+        return members.toVector();
     }
-    public void setMembers(Vector<User> members) { this.members = members; }
+    public void setMembers(Vector<User> members) {
+        MEMBERS.getAndUpdate(this, current -> current.replacedBy(members));
+    }
+
+    // 현재 멤버 배열 (잠금, 복사 없음). 멤버가 바뀌기 전까지 같은 배열이므로 수정하지 말 것
+    // (바뀌었는지는 배열이 같은 객체인지나 getMemberVersion()으로 확인 가능)
+    public User[] getMemberArray() { return members.users; }
+    public boolean hasMember(int playerId) { return members.indexOf(playerId) >= 0; }
+    // 방에 있는 플레이어 (없으면 null)
+    public User getMember(int playerId) {
+        Members snapshot = members;
+        int index = snapshot.indexOf(playerId);
+        return index >= 0 ? snapshot.users[index] : null;
+    }
+    public int getMemberVersion() { return members.version; }
     public int getMemberCount() { return members.size(); }
 
     public Vector<User> getReadyUsers() {
-        synchronized (readyUsers) {
-            return new Vector<>(readyUsers);
-        }
+        return readyUsers.toVector();
     }
+    public User[] getReadyUserArray() { return readyUsers.users; }
 
     public void setReadyUsers(Vector<User> readyUsers) {
-        synchronized (readyUsers) {
-            this.readyUsers = readyUsers;
-        }
+        READY_USERS.getAndUpdate(this, current -> current.replacedBy(readyUsers));
     }
 
     public String getKeyword() { return Keywords; }
     public void setKeyword(String keywords) { Keywords = keywords; }
 
+    public synchronized KeywordDictionary.ShuffleBag getKeywordBag() {
+        if (keywordBag == null) keywordBag = new KeywordDictionary.ShuffleBag();
+        return keywordBag;
+    }
+
+    // 변경분(입장, 퇴장, 준비, 턴)을 보낼 때마다 하나씩 증가
+    public synchronized int nextStateVersion() {
+        return ++stateVersion;
+    }
+    public synchronized int getStateVersion() { return stateVersion; }
+
+    public int getPhase() { return phase; }
+    public void setPhase(int phase) { this.phase = phase; }
+    public int getTimeLeft() { return timeLeft; }
+    public void setTimeLeft(int timeLeft) { this.timeLeft = timeLeft; }
+    public synchronized void countStroke() { strokeCount++; }
+    public synchronized long getStrokeCount() { return strokeCount; }
+
+    public long getStartedAt() { return startedAt; }
+    public void setStartedAt(long startedAt) { this.startedAt = startedAt; }
+
     public boolean isEmpty() {
-        return members.isEmpty();
+        return members.size() == 0;
     }
 
     public User getCurrentTurnUser() {
-        if (members.isEmpty()) return null;
+        Members snapshot = members;
+        if (snapshot.size() == 0) return null;
         if (currentTurnIndex == -1) return null;// 첫 턴이 설정되지 않았다면 null 반환
-        System.out.println("getCurrentTurnUser에서 현재 members : " + members);
-        return members.get(currentTurnIndex); // 현재 그림 그릴 사용자 반환
+        return snapshot.users[currentTurnIndex % snapshot.size()]; // 현재 그림 그릴 사용자 반환 (턴 중에 누가 나가도 범위 안)
     }
 
     public void nextTurn() {
-        if (members.isEmpty()) return; // 멤버가 없을 때 방어 코드
+        Members snapshot = members;
+        if (snapshot.size() == 0) return; // 멤버가 없을 때 방어 코드
 
-        currentTurnIndex = (currentTurnIndex + 1) % members.size(); // 다음 턴으로 전환
+        currentTurnIndex = (currentTurnIndex + 1) % snapshot.size(); // 다음 턴으로 전환
     }
 
     public void resetTurns() {
@@ -106,17 +162,82 @@ public class Room implements Serializable {
     }
 
     //----------투표 관련
-    public void addVote(String userName) {
-        voteCounts.put(userName, voteCounts.getOrDefault(userName, 0) + 1);
+    // 여러 핸들러 스레드에서 동시에 들어오므로 방 잠금 안에서 셈
+    public synchronized void addVote(int playerId) {
+        voteCounts.add(playerId, 1);
+    }
+
+    public synchronized int getVoteCount(int playerId) {
+        return voteCounts.get(playerId, 0);
+    }
+
+    public synchronized int getVoteTotal() {
+        return voteCounts.sum();
     }
 
-    public Map<String, Integer> getVoteCounts() {
-        return voteCounts;
+    // 최다 득표자 id (아무도 투표하지 않았으면 0)
+    public synchronized int getMostVoted() {
+        return voteCounts.maxKey();
     }
 
     // 기존 투표 결과 초기화
-    public void resetVoteCounts() {
+    public synchronized void resetVoteCounts() {
         voteCounts.clear();
         System.out.println("[Room] 투표 결과 초기화 완료");
     }
-}
\ No newline at end of file
+
+    // 멤버 목록 스냅샷 (만든 뒤에는 바뀌지 않음). version은 교체될 때마다 1씩 증가
+    public static final class Members implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        static final Members EMPTY = new Members(new User[0], 0);
+
+        public final User[] users;
+        public final int version;
+        private final IntIntMap index; // 플레이어 id -> users 위치 + 1
+
+        private Members(User[] users, int version) {
+            this.users = users;
+            this.version = version;
+            this.index = new IntIntMap(users.length);
+            for (int i = users.length - 1; i >= 0; i--) { // 중복이면 앞쪽 위치가 남음
+                if (users[i] != null && users[i].id != 0) index.put(users[i].id, i + 1);
+            }
+        }
+
+        public int size() { return users.length; }
+
+        public int indexOf(int playerId) {
+            return playerId == 0 ? -1 : index.get(playerId, 0) - 1;
+        }
+
+        Members with(User user) {
+            User[] added = Arrays.copyOf(users, users.length + 1);
+            added[users.length] = user;
+            return new Members(added, version + 1);
+        }
+
+        // 처음 일치하는 한 명만 뺌 (Vector.remove와 같음). 없으면 그대로
+        Members without(User user) {
+            int i = user.id != 0 ? indexOf(user.id) : Arrays.asList(users).indexOf(user); // id가 없으면 이름으로 찾음
+            if (i < 0) return this;
+            User[] removed = new User[users.length - 1];
+            System.arraycopy(users, 0, removed, 0, i);
+            System.arraycopy(users, i + 1, removed, i, users.length - i - 1);
+            return new Members(removed, version + 1);
+        }
+
+        Members replacedBy(Collection<User> list) {
+            return new Members(list == null ? new User[0] : list.toArray(new User[0]), version + 1);
+        }
+
+        Vector<User> toVector() {
+            return new Vector<>(Arrays.asList(users));
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(users);
+        }
+    }
+}
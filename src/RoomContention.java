@@ -0,0 +1,81 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Room 멤버 스냅샷의 읽기 경합 측정 (서버에서는 쓰지 않음)
+public class RoomContention {
+    // 읽기 경합 비교 : java RoomContention [읽기 스레드 수] [초]
+    // 읽기 스레드들이 멤버를 계속 훑는 동안 한 스레드가 1ms마다 입장/퇴장을 반복
+    // 예전 방식(잠그고 Vector 복사)과 스냅샷 방식의 초당 읽기 횟수를 비교
+    public static void main(String[] args) throws Exception {
+        int readers = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(2, Runtime.getRuntime().availableProcessors());
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // addMember 로그 끔
+        for (int round = 0; round < 2; round++) {
+            long copying = contention(readers, seconds, false);
+            long snapshot = contention(readers, seconds, true);
+            console.printf("읽기 스레드 %d개 : 잠그고 복사 %,d회/초, 스냅샷 %,d회/초%n", readers, copying, snapshot);
+        }
+        System.setOut(console);
+    }
+
+    private static long contention(int readers, int seconds, boolean snapshot) throws InterruptedException {
+        Room room = new Room("bench");
+        Vector<User> legacy = new Vector<>();
+        for (int i = 0; i < 4; i++) {
+            User user = new User("u" + i);
+            user.setId(i + 1);
+            room.addMember(user);
+            legacy.add(user);
+        }
+        LongAdder reads = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(() -> {
+                long count = 0, names = 0;
+                while (running.get()) {
+                    if (snapshot) {
+                        for (User member : room.getMemberArray()) names += member.name.length();
+                    } else {
+                        Vector<User> copy;
+                        synchronized (legacy) {
+                            copy = new Vector<>(legacy);
+                        }
+                        for (User member : copy) names += member.name.length();
+                    }
+                    count++;
+                }
+                reads.add(count + (names == 42 ? 1 : 0));
+            }));
+        }
+        threads.add(new Thread(() -> {
+            User churn = new User("churn");
+            churn.setId(100);
+            while (running.get()) {
+                if (snapshot) {
+                    room.addMember(churn);
+                    room.removeMember(churn);
+                } else {
+                    legacy.add(churn);
+                    legacy.remove(churn);
+                }
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }));
+        for (Thread thread : threads) thread.start();
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread thread : threads) thread.join();
+        return reads.sum() / seconds;
+    }
+}
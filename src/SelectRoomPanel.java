@@ -5,6 +5,8 @@ import java.awt.event.*;
 public class SelectRoomPanel extends JPanel {
     private ClientManager clientManager;
     private JButton foodRoomButton, placeRoomButton, animalRoomButton, characterRoomButton;
+    private JTextArea leaderboardArea;
+    private JCheckBox spectateCheckBox;
 
     public SelectRoomPanel(ClientManager clientManager) {
         this.clientManager = clientManager;
@@ -16,16 +18,43 @@ public class SelectRoomPanel extends JPanel {
         setLayout(new BorderLayout());
         add(createTitlePanel(), BorderLayout.NORTH);
         add(createButtonPanel(), BorderLayout.CENTER);
+        add(createLeaderboardPanel(), BorderLayout.SOUTH);
+    }
+
+    private JPanel createLeaderboardPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBackground(new Color(64,48,47));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+
+        JLabel title = new JLabel("순위표");
+        title.setFont(new Font("맑은 고딕", Font.BOLD, 14));
+        title.setForeground(Color.WHITE);
+        panel.add(title, BorderLayout.NORTH);
+
+        spectateCheckBox = new JCheckBox("관전하기");
+        spectateCheckBox.setForeground(Color.WHITE);
+        spectateCheckBox.setOpaque(false);
+        spectateCheckBox.setFocusPainted(false);
+        panel.add(spectateCheckBox, BorderLayout.EAST);
+
+        leaderboardArea = new JTextArea("불러오는 중...", 6, 40);
+        leaderboardArea.setEditable(false);
+        leaderboardArea.setFocusable(false);
+        leaderboardArea.setFont(new Font("맑은 고딕", Font.PLAIN, 12));
+        panel.add(new JScrollPane(leaderboardArea), BorderLayout.CENTER);
+        return panel;
+    }
+
+    public void setLeaderboard(String text) {
+        leaderboardArea.setText(text);
+        leaderboardArea.setCaretPosition(0);
     }
 
     private JPanel createTitlePanel() {
         JPanel titlePanel = new JPanel();
         titlePanel.setBackground(new Color(64,48,47)); // 배경색 설정
 
-        ImageIcon roomLogoIcon = new ImageIcon(SelectRoomPanel.class.getResource("/images/roomLogo.png"));
-        Image originalImage = roomLogoIcon.getImage(); // 원본 이미지 가져오기
-        Image resizedImage = originalImage.getScaledInstance(400, 95, Image.SCALE_SMOOTH); // 새 크기로 조정
-        ImageIcon resizedIcon = new ImageIcon(resizedImage); // 크기 조정된 이미지를 새로운 ImageIcon으로 설정
+        ImageIcon resizedIcon = ImageCache.getIcon("/images/roomLogo.png", 400, 95); // 크기 조정된 이미지
         JLabel title = new JLabel(resizedIcon); // JLabel에 설정
         title.setOpaque(true);
         title.setBackground(new Color(64,48,47)); // 배경색 설정
@@ -55,28 +84,28 @@ public class SelectRoomPanel extends JPanel {
             @Override
             public void actionPerformed(ActionEvent e) {
                 String roomName = "food";
-                clientManager.sendRoomSelection(roomName); // 방 선택 서버로 전송
+                enterRoom(roomName);
             }
         });
         placeRoomButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
                 String roomName = "place";
-                clientManager.sendRoomSelection(roomName); // 방 선택 서버로 전송
+                enterRoom(roomName);
             }
         });
         animalRoomButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
                 String roomName = "animal";
-                clientManager.sendRoomSelection(roomName); // 방 선택 서버로 전송
+                enterRoom(roomName);
             }
         });
         characterRoomButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
                 String roomName = "character";
-                clientManager.sendRoomSelection(roomName); // 방 선택 서버로 전송
+                enterRoom(roomName);
             }
         });
 
@@ -88,6 +117,15 @@ public class SelectRoomPanel extends JPanel {
         return buttonPanel;
     }
 
+    // 관전하기를 체크했으면 관전으로, 아니면 방 입장
+    private void enterRoom(String roomName) {
+        if (spectateCheckBox.isSelected()) {
+            clientManager.sendSpectate(roomName);
+        } else {
+            clientManager.sendRoomSelection(roomName); // 방 선택 서버로 전송
+        }
+    }
+
     private JButton createRoomButton(String text) {
         JButton button = new JButton("<html><center>" + text.replace("\n", "<br>") + "</center></html>"); // 줄바꿈 HTML 사용
         button.setFont(new Font("맑은 고딕", Font.BOLD, 20)); // 폰트 설정
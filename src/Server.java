@@ -26,9 +26,17 @@ public class Server extends JFrame {
     }
 
     private void buildGUI() {
-        setBounds(700, 200, 600, 400);
-        add(createFilterPanel(), BorderLayout.NORTH);
-        add(createDisplayPanel(), BorderLayout.CENTER);
+        setBounds(700, 200, 700, 500);
+        // 대시보드를 기본 화면으로, 기존 로그는 두 번째 탭
+        JPanel logPanel = new JPanel(new BorderLayout());
+        logPanel.add(createFilterPanel(), BorderLayout.NORTH);
+        logPanel.add(createDisplayPanel(), BorderLayout.CENTER);
+
+        JTabbedPane tabbedPane = new JTabbedPane();
+        tabbedPane.addTab("대시보드", new DashboardPanel(serverManager));
+        tabbedPane.addTab("처리 시간", new LatencyPanel(serverManager.getDispatchLatency()));
+        tabbedPane.addTab("로그", logPanel);
+        add(tabbedPane, BorderLayout.CENTER);
         add(createControlPanel(), BorderLayout.SOUTH);
     }
 
@@ -117,13 +125,22 @@ public class Server extends JFrame {
         return panel;
     }
 
+    // 네트워크/타이머 스레드에서 호출되므로 화면 갱신은 EDT로 넘김
     public void printDisplay(String msg) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> printDisplay(msg));
+            return;
+        }
         t_display.append(msg + "\n");
         t_display.setCaretPosition(t_display.getDocument().getLength());
     }
 
     // 로그 출력 메서드
     public void printDisplay(String msg, String type) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> printDisplay(msg, type));
+            return;
+        }
         logsByType.get("모두").add(msg); // 모든 로그에 추가
         if (logsByType.containsKey(type)) {
             logsByType.get(type).add(msg); // 해당 타입에 추가
@@ -0,0 +1,92 @@
+import jdk.jfr.*;
+
+// 서버 JFR(Java Flight Recorder) 이벤트
+// 기록 : java -XX:StartFlightRecording=filename=server.jfr,settings=profile Server
+// JDK Mission Control이나 `jfr print --events catchliar.* server.jfr`로 GC/잠금/IO 이벤트와 같은 시간축에서 확인
+// 기록하지 않을 때는 shouldCommit()이 false라서 필드도 채우지 않음 (이벤트 객체는 JIT가 없애 줌)
+public class ServerEvents {
+
+    @Name("catchliar.Dispatch")
+    @Label("Message Dispatch")
+    @Category({"Catch Liar", "Server"})
+    @Description("클라이언트 메시지 하나를 처리한 시간 (ClientHandler.receiveMessage)")
+    public static class Dispatch extends Event {
+        @Label("Room") public String room;
+        @Label("User") public String user;
+        @Label("Mode") public String mode;
+    }
+
+    @Name("catchliar.Broadcast")
+    @Label("Room Broadcast")
+    @Category({"Catch Liar", "Server"})
+    @Description("방 멤버 모두의 전송 큐에 메시지를 넣은 시간")
+    public static class Broadcast extends Event {
+        @Label("Room") public String room;
+        @Label("Mode") public String mode;
+        @Label("Fan-out") public int fanOut;
+    }
+
+    // 전송 큐에 넣기만 하므로 보통 수 us. 잠금 경쟁으로 늦어진 경우만 남김
+    @Name("catchliar.Send")
+    @Label("Enqueue Send")
+    @Category({"Catch Liar", "Server"})
+    @Description("한 클라이언트의 전송 큐에 메시지를 넣은 시간")
+    @Threshold("100 us")
+    public static class Send extends Event {
+        @Label("Room") public String room;
+        @Label("User") public String user;
+        @Label("Mode") public String mode;
+        @Label("Detached") public boolean detached;
+    }
+
+    @Name("catchliar.Phase")
+    @Label("Room Phase Change")
+    @Category({"Catch Liar", "Game"})
+    public static class Phase extends Event {
+        @Label("Room") public String room;
+        @Label("Phase") public String phase;
+        @Label("Members") public int members;
+    }
+
+    @Name("catchliar.VoteResult")
+    @Label("Vote Result")
+    @Category({"Catch Liar", "Game"})
+    @Description("투표 집계와 결과 전송에 걸린 시간")
+    public static class VoteResult extends Event {
+        @Label("Room") public String room;
+        @Label("Accused") public String accused;
+        @Label("Liar Victory") public boolean liarVictory;
+        @Label("Votes") public int votes;
+    }
+
+    public static void phase(Room room, int phase) {
+        Phase event = new Phase();
+        if (!event.shouldCommit()) return;
+        event.room = room.getRoomName();
+        event.phase = phase >= 0 && phase < Room.PHASE_NAMES.length ? Room.PHASE_NAMES[phase] : String.valueOf(phase);
+        event.members = room.getMemberCount();
+        event.commit();
+    }
+
+    // 기록하지 않을 때의 비용 측정 : java ServerEvents
+    public static void main(String[] args) {
+        int iterations = 50_000_000;
+        long blackhole = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                Dispatch event = new Dispatch();
+                event.begin();
+                blackhole += i;
+                event.end();
+                if (event.shouldCommit()) {
+                    event.mode = "DRAW_ACTION";
+                    event.commit();
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("이벤트 %d개 (기록 안 함) : %.2fns/개%n", iterations, elapsed / (double) iterations);
+        }
+        if (blackhole == 42) System.out.println();
+    }
+}
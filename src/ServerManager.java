@@ -1,9 +1,22 @@
 import java.awt.*;
 import java.io.*;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.security.SecureRandom;
 import java.util.*;
+import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ServerManager {
     private int port;
@@ -12,29 +25,208 @@ public class ServerManager {
     private ServerSocket serverSocket;
     private Thread acceptThread = null;
     private Vector<ClientHandler> users = new Vector<ClientHandler>();
+    private final AtomicInteger usersVersion = new AtomicInteger(); // users나 핸들러 이름이 바뀔 때마다 증가
+    private final Map<Room, RelayTargets> relayTargets = new ConcurrentHashMap<>(); // 방 -> 중계 대상 캐시
+    private final AtomicInteger nextPlayerId = new AtomicInteger(); // 로그인 순서대로 1부터
+    private final Map<Integer, ClientHandler> handlersById = new ConcurrentHashMap<>(); // 플레이어 id -> 핸들러
     private Vector<Room> rooms = new Vector<>();
+    private KeywordDictionary keywordDictionary = new KeywordDictionary("keywords.txt");
+    private final ResultsLog resultsLog;
+    private Leaderboard leaderboard = new Leaderboard();
+    private static final int LEADERBOARD_SIZE = 10;
+    private Map<String, ReplayRecorder> replays = new ConcurrentHashMap<>(); // 방 이름 -> 진행 중인 판의 리플레이
+
+    // 관전 중계 (플레이어 전송과 다른 스레드에서 처리)
+    private static final long SPECTATOR_TICK = 100; // ms
+    private Map<String, SpectatorFeed> spectatorFeeds = new ConcurrentHashMap<>(); // 방 이름 -> 관전 중계
+    private final ScheduledExecutorService spectatorScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "spectator-fanout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 재접속 : 로그인할 때 토큰을 주고, 연결이 끊겨도 GRACE_MILLIS 동안 자리와 보낼 메시지를 유지
+    static final long GRACE_MILLIS = 30_000;
+    private static final int MAX_MISSED = 10_000; // 끊긴 동안 쌓아 둘 메시지 수 (넘으면 오래된 것부터 버림)
+    private final Map<String, ClientHandler> sessions = new ConcurrentHashMap<>(); // 토큰 -> 핸들러
+    private final SecureRandom tokenRandom = new SecureRandom();
 
     private static final int DRAWING_TIME=60; //60
     private static final int DRAWING_PERTIME=DRAWING_TIME/4;
     private static final int VOTE_TIME=30;
 
+    // 채팅/이모티콘 도배 제한
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "rate-limit-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 지표 (127.0.0.1:metrics.port/metrics, -Dmetrics.port=-1이면 끔)
+    private static final int METRICS_PORT = Integer.getInteger("metrics.port", 9400);
+    private final Metrics metrics = new Metrics();
+    private final LongAdder connections = metrics.counter("catchliar_connections_total", "Accepted client connections");
+    private final LongAdder[] messagesIn = metrics.counterPerMode("catchliar_messages_received_total", "Messages received from clients by mode");
+    private final LongAdder[] messagesOut = metrics.counterPerMode("catchliar_messages_sent_total", "Messages written to client sockets by mode");
+    private final LongAdder bytesIn = metrics.counter("catchliar_bytes_received_total", "Bytes read from client sockets");
+    private final LongAdder bytesOut = metrics.counter("catchliar_bytes_sent_total", "Bytes written to client sockets");
+    private final LongAdder payloadIn = metrics.counter("catchliar_payload_bytes_received_total", "Bytes received from clients after decompression");
+    private final LongAdder payloadOut = metrics.counter("catchliar_payload_bytes_sent_total", "Bytes sent to clients before compression");
+    private final LongAdder udpReceived = metrics.counter("catchliar_udp_strokes_received_total", "Stroke segments received over UDP");
+    private final LongAdder udpRelayed = metrics.counter("catchliar_udp_packets_sent_total", "Stroke datagrams relayed to clients");
+    private final LongAdder udpRecovered = metrics.counter("catchliar_udp_strokes_recovered_total", "Stroke segments the server only got from a TCP commit");
+    private final LongAdder udpRejected = metrics.counter("catchliar_udp_packets_rejected_total", "Datagrams dropped because handling them threw");
+    private final LongAdder droppedChats = metrics.counter("catchliar_dropped_chats_total", "Chats dropped by the rate limiter");
+    private final LongAdder mergedEmoticons = metrics.counter("catchliar_merged_emoticons_total", "Emoticons merged by the rate limiter");
+    private final Metrics.Histogram broadcastTime = metrics.histogram("catchliar_broadcast_seconds", "Time to enqueue one room broadcast to every member");
+    private final Metrics.Histogram timerLag = metrics.histogram("catchliar_timer_lag_seconds", "How late each 1s room/vote timer tick woke up");
+
+    // 획 미리보기 UDP (StrokeDatagram). 포트는 -Dudp.port, 기본은 TCP 포트와 같은 번호
+    private static final int MAX_COMMIT_SEGMENTS = StrokeDatagram.COMMIT_SEGMENTS * 16;
+    private int udpPort; // udp.port가 0이면 열고 나서 실제 포트로 바뀜
+    private volatile DatagramChannel udpChannel = null; // 열지 못했거나 꺼져 있으면 null
+    private static final long UDP_ERROR_LOG_INTERVAL = 1_000_000_000L; // 잘못된 패킷 로그는 1초에 한 번만 (ns)
+    private long lastUdpErrorLog = System.nanoTime() - UDP_ERROR_LOG_INTERVAL; // UDP 수신 스레드만 씀
+
+    // 모드별 처리 시간 (-Dslow.dispatch.ms를 넘으면 메시지 전체를 로그에 남김)
+    private static final long SLOW_DISPATCH_NANOS = Long.getLong("slow.dispatch.ms", 50) * 1_000_000L;
+    private static final long LATENCY_ROLLOVER = 60; // 초
+    private final DispatchLatency dispatchLatency = new DispatchLatency(SLOW_DISPATCH_NANOS);
+
     public ServerManager(int port, Server server) {
+        this(port, server, "results.log");
+    }
+
+    // resultsFile : 결과 로그 경로 (벤치마크는 임시 파일을 넘겨 실제 기록을 건드리지 않음)
+    ServerManager(int port, Server server, String resultsFile) {
         this.port = port;
         this.server = server;
+        this.resultsLog = new ResultsLog(resultsFile);
+        this.udpPort = Integer.getInteger("udp.port", port);
+        registerGauges();
+        metrics.register("catchliar_dispatch_seconds", "Handler time per message mode (quantiles over the last 1-2 minutes, sum and count since start)", "summary", dispatchLatency);
+        metrics.register("catchliar_dispatch_max_seconds", "Slowest handler time per message mode over the last 1-2 minutes", "gauge", dispatchLatency::formatMax);
+        scheduler.scheduleAtFixedRate(dispatchLatency::rollover, LATENCY_ROLLOVER, LATENCY_ROLLOVER, TimeUnit.SECONDS);
+        // 기존 결과로 순위표를 만든 뒤, 이후 기록되는 결과만 더함
+        leaderboard.rebuild(resultsLog);
+        resultsLog.addListener(leaderboard::onResult);
+        spectatorScheduler.scheduleWithFixedDelay(() -> {
+            for (SpectatorFeed feed : spectatorFeeds.values()) {
+                feed.release();
+            }
+        }, SPECTATOR_TICK, SPECTATOR_TICK, TimeUnit.MILLISECONDS);
+    }
+
+    private void registerGauges() {
+        metrics.gauge("catchliar_connected_clients", "Client handlers currently connected", users::size);
+        metrics.gauge("catchliar_sessions", "Logged-in sessions including detached ones", sessions::size);
+        metrics.gauge("catchliar_detached_sessions", "Sessions waiting for a reconnect", this::getDetachedCount);
+        metrics.gauge("catchliar_spectators", "Connected spectators", this::getSpectatorCount);
+        for (int phase = 0; phase < Room.PHASE_NAMES.length; phase++) {
+            final int p = phase;
+            metrics.gauge("catchliar_rooms", "Rooms by phase", "phase=\"" + Room.PHASE_NAMES[p] + "\"", () -> countRooms(p));
+        }
+        metrics.gauge("catchliar_send_queue_depth", "Messages waiting in client send queues", "lane=\"control\"", () -> sendQueueDepth(PrioritySender.CONTROL));
+        metrics.gauge("catchliar_send_queue_depth", "Messages waiting in client send queues", "lane=\"bulk\"", () -> sendQueueDepth(PrioritySender.BULK));
+        metrics.gauge("catchliar_udp_clients", "Connections receiving stroke previews over UDP", this::getUdpClientCount);
+        metrics.gauge("catchliar_compressing_connections", "Connections currently compressing what they send", this::getCompressingCount);
+        metrics.gauge("catchliar_results_pending", "Game results waiting for the results writer", resultsLog::getPendingCount);
+    }
+
+    private long countRooms(int phase) {
+        long count = 0;
+        synchronized (rooms) {
+            for (Room room : rooms) {
+                if (room.getPhase() == phase) count++;
+            }
+        }
+        return count;
+    }
+
+    private long getCompressingCount() {
+        long count = 0;
+        synchronized (users) {
+            for (ClientHandler handler : users) {
+                if (handler.compressedOut != null && handler.compressedOut.isActive()) count++;
+            }
+        }
+        return count;
+    }
+
+    private long getUdpClientCount() {
+        long count = 0;
+        synchronized (users) {
+            for (ClientHandler handler : users) {
+                if (handler.udpAddress != null) count++;
+            }
+        }
+        return count;
+    }
+
+    private long sendQueueDepth(int lane) {
+        long depth = 0;
+        synchronized (users) {
+            for (ClientHandler handler : users) {
+                PrioritySender sender = handler.getSender();
+                if (sender != null) depth += sender.getQueueDepth(lane);
+            }
+        }
+        return depth;
+    }
+
+    public Metrics getMetrics() { return metrics; }
+    public DispatchLatency getDispatchLatency() { return dispatchLatency; }
+
+    // 대시보드용 : 지금 값들을 한 번에 읽어 둠 (Swing 쪽은 이 객체만 봄)
+    public ServerSnapshot snapshot() {
+        ServerSnapshot snapshot = new ServerSnapshot();
+        snapshot.takenAt = System.nanoTime();
+        snapshot.connected = users.size();
+        snapshot.sessions = sessions.size();
+        snapshot.detached = getDetachedCount();
+        snapshot.spectators = getSpectatorCount();
+        snapshot.messagesIn = Metrics.total(messagesIn);
+        snapshot.messagesOut = Metrics.total(messagesOut);
+        snapshot.bytesIn = bytesIn.sum();
+        snapshot.bytesOut = bytesOut.sum();
+        snapshot.payloadOut = payloadOut.sum();
+        snapshot.broadcastCount = broadcastTime.getCount();
+        snapshot.broadcastNanos = broadcastTime.getSum();
+        snapshot.timerTicks = timerLag.getCount();
+        snapshot.timerLagNanos = timerLag.getSum();
+        synchronized (rooms) {
+            for (Room room : rooms) {
+                snapshot.rooms.add(new ServerSnapshot.RoomRow(room.getRoomName(), room.getPhase(),
+                        room.getMemberCount(), room.getTimeLeft(), room.getStrokeCount()));
+            }
+        }
+        return snapshot;
     }
 
     public void startServer() {
+        if (METRICS_PORT >= 0) {
+            try {
+                metrics.startHttp(METRICS_PORT);
+                server.printDisplay("[접속] 지표 : http://127.0.0.1:" + METRICS_PORT + "/metrics", "접속");
+            } catch (IOException e) {
+                server.printDisplay("[접속] 지표 서버를 열 수 없습니다 : " + e.getMessage(), "접속");
+            }
+        }
+        openUdp();
         acceptThread = new Thread(() -> {
             try {
                 serverSocket = new ServerSocket(port);
                 server.printDisplay("[접속] 서버가 시작되었습니다. 포트 : " + port, "접속");
+                server.printDisplay("[접속] 키워드 카테고리 " + keywordDictionary.getCategoryCount() + "개 로드", "접속");
 
                 while (acceptThread == Thread.currentThread()) {
                     Socket clientSocket = serverSocket.accept();
                     server.printDisplay("[접속] 새로운 클라이언트가 연결되었습니다  (" + clientSocket.getInetAddress().getHostAddress() + ")", "접속");
 
+                    connections.increment();
                     ClientHandler handler = new ClientHandler(clientSocket);
                     users.add(handler);
+                    usersVersion.incrementAndGet();
                     handler.start();
                 }
             } catch (IOException e) {
@@ -46,8 +238,71 @@ public class ServerManager {
         acceptThread.start();
     }
 
+    // UDP를 열지 못해도 서버는 그대로 씀 (로그인 응답에 포트를 0으로 보내서 클라이언트는 TCP로만 그림)
+    private void openUdp() {
+        if (!StrokeDatagram.ENABLED) return;
+        try {
+            DatagramChannel channel = DatagramChannel.open().bind(new InetSocketAddress(udpPort));
+            udpPort = channel.socket().getLocalPort();
+            udpChannel = channel;
+            Thread thread = new Thread(() -> receiveDatagrams(channel), "udp-strokes");
+            thread.setDaemon(true);
+            thread.start();
+            server.printDisplay("[접속] 획 미리보기 UDP 포트 : " + udpPort, "접속");
+        } catch (IOException e) {
+            server.printDisplay("[접속] UDP 포트 " + udpPort + "를 열 수 없어 그림은 TCP로만 보냅니다 : " + e.getMessage(), "접속");
+        }
+    }
+
+    // UDP 수신 스레드 : HELLO에는 주소를 기억하고 답하고, STROKE는 그린 사람의 핸들러가 방에 중계
+    private void receiveDatagrams(DatagramChannel channel) {
+        ByteBuffer packet = ByteBuffer.allocate(StrokeDatagram.MAX_PACKET);
+        ByteBuffer reply = ByteBuffer.allocate(StrokeDatagram.MAX_PACKET);
+        try {
+            while (true) {
+                packet.clear();
+                SocketAddress from = channel.receive(packet);
+                packet.flip();
+                try {
+                    receiveDatagram(channel, packet, reply, from);
+                } catch (RuntimeException e) {
+                    // 잘못된 패킷 하나 때문에 UDP 수신 스레드가 끝나지 않도록 버리고 계속 받음
+                    udpRejected.increment();
+                    long now = System.nanoTime();
+                    if (now - lastUdpErrorLog >= UDP_ERROR_LOG_INTERVAL) {
+                        lastUdpErrorLog = now;
+                        server.printDisplay("[접속] UDP 패킷 처리 오류 (" + from + ", 누적 " + udpRejected.sum() + "건) : " + e, "접속");
+                    }
+                }
+            }
+        } catch (ClosedChannelException e) {
+            // 서버 종료
+        } catch (IOException e) {
+            server.printDisplay("[접속] UDP 수신 종료 : " + e.getMessage(), "접속");
+        }
+    }
+
+    private void receiveDatagram(DatagramChannel channel, ByteBuffer packet, ByteBuffer reply, SocketAddress from) throws IOException {
+        byte type = StrokeDatagram.typeOf(packet);
+        if ((type != StrokeDatagram.HELLO && type != StrokeDatagram.STROKE) || packet.remaining() < 12) return;
+        ClientHandler handler = handlersById.get(packet.getInt());
+        if (handler == null || handler.udpKey != packet.getLong()) return; // 모르는 플레이어이거나 키가 다름
+        if (!from.equals(handler.udpAddress)) handler.udpAddress = from;
+        if (type == StrokeDatagram.HELLO) {
+            StrokeDatagram.header(reply, StrokeDatagram.HELLO_ACK);
+            reply.flip();
+            StrokeDatagram.send(channel, reply, from);
+        } else if (packet.remaining() >= 4 + 17) {
+            int seq = packet.getInt();
+            handler.relayPreview(seq, StrokeDatagram.getSegment(packet), reply);
+        }
+    }
+
     public void stopServer() {
         try {
+            DatagramChannel channel = udpChannel;
+            udpChannel = null;
+            if (channel != null) channel.close();
             if (serverSocket != null) serverSocket.close();
             acceptThread = null;
 //            server.printDisplay("[접속] 서버가 종료되었습니다.", "접속");
@@ -57,6 +312,8 @@ public class ServerManager {
     }
 
     public void exit() {
+        resultsLog.close(); // 남은 결과 기록
+        metrics.stopHttp();
         try {
             if (serverSocket != null) serverSocket.close();
         } catch (IOException e) {
@@ -67,101 +324,385 @@ public class ServerManager {
     }
 
 
+    public long getDroppedChats() { return droppedChats.sum(); }
+    public long getMergedEmoticons() { return mergedEmoticons.sum(); }
+    public ResultsLog getResultsLog() { return resultsLog; }
+    public Leaderboard getLeaderboard() { return leaderboard; }
+
+    public int getSessionCount() { return sessions.size(); }
+
+    public int getDetachedCount() {
+        int count = 0;
+        for (ClientHandler handler : sessions.values()) {
+            if (handler.detached) count++;
+        }
+        return count;
+    }
+
+    private String newResumeToken() {
+        byte[] bytes = new byte[16];
+        tokenRandom.nextBytes(bytes);
+        StringBuilder sb = new StringBuilder(32);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    // RelayAllocationBench용 : 소켓 없이 방 하나에 senders.length명의 핸들러를 로그인한 것처럼 넣고
+    // 각자의 전송 스레드(버리는 스트림)를 돌림. 돌려주는 것은 첫 멤버가 메시지를 받았을 때의 처리
+    // (timedDispatch -> handleDrawAction -> broadcasting -> relayTargetsOf -> sendGameMsg, 실제 서버와 같은 경로)
+    java.util.function.Consumer<GameMsg> benchmarkRoom(PrioritySender[] senders) throws IOException {
+        Room room = new Room("bench");
+        rooms.add(room);
+        ClientHandler first = null;
+        for (int i = 0; i < senders.length; i++) {
+            ClientHandler handler = new ClientHandler(null);
+            handler.playerId = nextPlayerId.incrementAndGet();
+            handler.userName = "bench-" + i;
+            handler.user = new User(handler.userName);
+            handler.user.setId(handler.playerId);
+            handler.user.joinRoom(room);
+            handler.currentRoom = room;
+            handler.out = new ObjectOutputStream(OutputStream.nullOutputStream());
+            handler.sender = new PrioritySender(handler.out, handler.userName, messagesOut);
+            handler.sender.start();
+            senders[i] = handler.sender;
+            users.add(handler);
+            handlersById.put(handler.playerId, handler);
+            usersVersion.incrementAndGet();
+            if (first == null) first = handler;
+        }
+        return first::timedDispatch;
+    }
+
+    public int getSpectatorCount() {
+        int count = 0;
+        for (SpectatorFeed feed : spectatorFeeds.values()) {
+            count += feed.getSpectatorCount();
+        }
+        return count;
+    }
+
     private class ClientHandler extends Thread {
         private Socket clientSocket;
         private ObjectInputStream in;
         private ObjectOutputStream out;
+        private PrioritySender sender; // 제어 메시지를 그림 데이터보다 먼저 보내는 전송 스레드
+        private Compression.Output compressedOut; // 로그인 때 압축을 정함
+        private Compression.Input compressedIn; // 정하기 전에는 압축 프레임을 받지 않음
         private User user;
+        private int playerId = 0; // 로그인 때 받은 플레이어 번호 (handlersById의 키)
         public String userName;
         private Room currentRoom = null;
         public boolean isLiar = false;
         private Vector<User> readyUsers = new Vector<>();
         public User liar;
 
+        private final RateLimiter rateLimiter = new RateLimiter();
+        private GameMsg pendingEmoticon = null; // 제한에 걸려 합쳐서 보낼 이모티콘 (마지막 것만 유지)
+        private int pendingEmoticonCount = 0;
+        private boolean chatLimitNotified = false;
+        private SpectatorFeed spectatingFeed = null; // 관전 중이면 해당 방의 중계 (방 멤버가 아님)
+
+        // 재접속 (아래 필드는 이 핸들러 객체로 동기화)
+        private String resumeToken = null;
+        private volatile boolean detached = false; // 연결은 끊겼지만 유예 시간 동안 자리 유지 중
+        private boolean loggedOut = false;
+        private ClientHandler resumedBy = null; // 이어받은 새 핸들러 (이후 메시지는 그쪽으로)
+        private final ArrayDeque<GameMsg> missed = new ArrayDeque<>(); // 끊긴 동안 보내지 못한 메시지
+        private long missedDropped = 0;
+        private long detachedAt = 0;
+        private volatile ResultsLog.GameResult lastResult = null; // 이 핸들러가 진행한 마지막 판 (JFR 이벤트용)
+
+        // 획 미리보기 UDP : 키는 로그인 때 정하고 재접속해도 유지. 주소는 HELLO를 받으면 채움 (null이면 TCP로만 보냄)
+        private long udpKey = 0;
+        private volatile SocketAddress udpAddress = null;
+        private StrokeDatagram.Sequence udpIn = new StrokeDatagram.Sequence(); // 이 클라이언트가 보낸 구간 순번
+
         public ClientHandler(Socket clientSocket) {
             this.clientSocket = clientSocket;
         }
 
         private void receiveMessage() {
             try {
-                in = new ObjectInputStream(new BufferedInputStream(clientSocket.getInputStream()));
-                out = new ObjectOutputStream(new BufferedOutputStream(clientSocket.getOutputStream()));
+                // 소켓 <- 바이트 수(전송량) <- 압축 프레임 <- 바이트 수(압축 전) <- 객체 스트림
+                compressedIn = new Compression.Input(new BufferedInputStream(new Metrics.CountingInputStream(clientSocket.getInputStream(), bytesIn)));
+                in = new ObjectInputStream(new Metrics.CountingInputStream(compressedIn, payloadIn));
+                compressedOut = new Compression.Output(new Metrics.CountingOutputStream(clientSocket.getOutputStream(), bytesOut));
+                out = new ObjectOutputStream(new Metrics.CountingOutputStream(compressedOut, payloadOut));
                 out.flush();
+                sender = new PrioritySender(out, clientSocket.getInetAddress().getHostAddress(), messagesOut);
+                sender.start();
 
                 GameMsg inMsg;
                 while ((inMsg = (GameMsg) in.readObject()) != null) {
-                    switch (inMsg.getMode()) {
-                        case GameMsg.LOGIN:
-                            handleLogin(inMsg);
-                            break;
-                        case GameMsg.ROOM_SELECT:
-                            handleRoomSelect(inMsg);
-                            break;
-                        case GameMsg.CHAT_MESSAGE:
-                            handleChatMessage(inMsg);
-                            break;
-                        case GameMsg.CHAT_EMOTICON:
-                            handleChatEmoticon(inMsg);
-                            break;
-                        case GameMsg.GAME_READY:
-                            handleGameReady(inMsg);
-                            break;
-                        case GameMsg.GAME_UN_READY:
-                            handleGameUnReady(inMsg);
-                            break;
-                        case GameMsg.GAME_START:
-                            handleGameStart(inMsg);
-                            break;
-                        case GameMsg.VOTE:
-                            handleVote(inMsg);
-                            break;
-                        case GameMsg.DRAW_ACTION:
-                            handleDrawAction(inMsg);
-                            break;
-                        case GameMsg.GAME_RETRY:
-                            handleGameRetry(inMsg);
-                            break;
-                        case GameMsg.ROOM_EXIT:
-                            handleRoomExit(inMsg);
-                            break;
-                        case GameMsg.LOGOUT:
-                            handleLogout(inMsg);
-                            break;
-                        default:
-                            server.printDisplay("[접속][에러] 서버 receiveMessage 알 수 없는 메시지 모드: " + inMsg.getMode(), "접속");
+                    Metrics.increment(messagesIn, inMsg.getMode());
+                    if (spectatingFeed != null) { // 관전자는 읽기 전용
+                        handleSpectatorMessage(inMsg);
+                        continue;
                     }
+                    timedDispatch(inMsg);
                 }
             } catch (IOException | ClassNotFoundException e) {
+                if (detached || canResume()) { // 로그인한 채로 끊김 : 바로 내보내지 않고 재접속을 기다림
+                    detach(String.valueOf(e));
+                    return;
+                }
                 disconnectClient();
                 server.printDisplay("[접속][에러] 서버 receiveMessage 클라이언트 연결 해제: " + e.getMessage(), "접속");
-                broadcasting(new GameMsg(GameMsg.LOGOUT, user));
+                if (user != null && !loggedOut) {
+                    broadcasting(new GameMsg(GameMsg.LOGOUT, user));
+                }
             } finally {
-                disconnectClient();
+                if (!detached) disconnectClient();
+            }
+        }
+
+        // 처리 시간을 재고(지표, 느린 요청 로그, JFR 이벤트) 모드별 처리기로 넘김
+        void timedDispatch(GameMsg inMsg) {
+            ServerEvents.Dispatch event = new ServerEvents.Dispatch();
+            event.begin();
+            long start = System.nanoTime();
+            dispatch(inMsg);
+            long elapsed = System.nanoTime() - start;
+            event.end();
+            if (dispatchLatency.record(inMsg.getMode(), elapsed)) {
+                server.printDisplay("[접속][느린 요청] " + GameMsg.modeName(inMsg.getMode()) + " " + elapsed / 1000 + "us ("
+                        + userName + (currentRoom != null ? ", " + currentRoom.getRoomName() : "") + ") " + inMsg, "접속");
+            }
+            if (event.shouldCommit()) {
+                event.room = currentRoom != null ? currentRoom.getRoomName() : null;
+                event.user = userName;
+                event.mode = GameMsg.modeName(inMsg.getMode());
+                event.commit();
+            }
+        }
+
+        private void dispatch(GameMsg inMsg) {
+            switch (inMsg.getMode()) {
+                case GameMsg.LOGIN:
+                    handleLogin(inMsg);
+                    break;
+                case GameMsg.RESUME:
+                    handleResume(inMsg);
+                    break;
+                case GameMsg.ROOM_SELECT:
+                    handleRoomSelect(inMsg);
+                    break;
+                case GameMsg.SPECTATE:
+                    handleSpectate(inMsg);
+                    break;
+                case GameMsg.ROOM_STATE_REQUEST:
+                    handleRoomStateRequest();
+                    break;
+                case GameMsg.CHAT_MESSAGE:
+                    handleChatMessage(inMsg);
+                    break;
+                case GameMsg.CHAT_EMOTICON:
+                    handleChatEmoticon(inMsg);
+                    break;
+                case GameMsg.GAME_READY:
+                    handleGameReady(inMsg);
+                    break;
+                case GameMsg.GAME_UN_READY:
+                    handleGameUnReady(inMsg);
+                    break;
+                case GameMsg.GAME_START:
+                    handleGameStart(inMsg);
+                    break;
+                case GameMsg.VOTE:
+                    handleVote(inMsg);
+                    break;
+                case GameMsg.DRAW_ACTION:
+                    handleDrawAction(inMsg);
+                    break;
+                case GameMsg.STROKE_COMMIT:
+                    handleStrokeCommit(inMsg);
+                    break;
+                case GameMsg.GAME_RETRY:
+                    handleGameRetry(inMsg);
+                    break;
+                case GameMsg.ROOM_EXIT:
+                    handleRoomExit(inMsg);
+                    break;
+                case GameMsg.LOGOUT:
+                    handleLogout(inMsg);
+                    break;
+                case GameMsg.LEADERBOARD:
+                    handleLeaderboard();
+                    break;
+                default:
+                    server.printDisplay("[접속][에러] 서버 receiveMessage 알 수 없는 메시지 모드: " + inMsg.getMode(), "접속");
+            }
+        }
+
+        private synchronized boolean canResume() {
+            return resumeToken != null && user != null && !loggedOut && resumedBy == null;
+        }
+
+        // 소켓만 닫고 방 자리는 유지. 아직 보내지 못한 메시지는 재접속 때 보내도록 옮겨 둠
+        private synchronized void detach(String reason) {
+            if (detached) return;
+            detached = true;
+            detachedAt = System.nanoTime();
+            udpAddress = null; // 끊긴 동안의 미리보기는 TCP 쪽(놓친 메시지)으로
+            if (spectatingFeed != null) leaveFeed(spectatingFeed); // 재접속하면 joinFeed로 다시 들어옴
+            if (sender != null) {
+                for (GameMsg msg : sender.drainPending()) {
+                    addMissed(msg);
+                }
+                sender.close();
+            }
+            try {
+                if (clientSocket != null) clientSocket.close();
+            } catch (IOException e) {
+                server.printDisplay("[접속][에러]클라이언트 소켓 닫기 오류: " + e.getMessage(), "접속");
+            }
+            String where = currentRoom != null ? "[" + currentRoom.getRoomName() + "]" : "";
+            server.printDisplay(where + "[연결 끊김] " + userName + "님 연결이 끊겼습니다 (" + reason + "). "
+                    + GRACE_MILLIS / 1000 + "초 동안 자리를 유지합니다.", "접속");
+            scheduler.schedule(this::expire, GRACE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        private void addMissed(GameMsg msg) {
+            if (missed.size() >= MAX_MISSED) {
+                missed.poll();
+                missedDropped++;
+            }
+            missed.add(msg);
+        }
+
+        // 유예 시간 안에 돌아오지 않음 : 방에서 나간 것으로 처리
+        private void expire() {
+            synchronized (this) {
+                if (!detached || resumedBy != null) return;
+                resumedBy = this; // 이후 재접속 요청은 실패
+                missed.clear();
             }
+            if (currentRoom != null) {
+                synchronized (currentRoom) {
+                    currentRoom.removeReadyUser(user);
+                    currentRoom.removeMember(user);
+                    broadcastExceptUser(user, roomDelta(GameMsg.ROOM_EXIT, user));
+                }
+                ReplayRecorder replay = replayOf(currentRoom);
+                if (replay != null) replay.exit(userName);
+            }
+            server.printDisplay("[접속][연결 끊김] " + userName + "님이 " + GRACE_MILLIS / 1000 + "초 안에 돌아오지 않아 퇴장 처리했습니다.", "접속");
+            disconnectClient();
+        }
+
+        // 새 연결이 끊긴 세션을 이어받음 : 방 자리와 상태를 옮기고, 방 전체 상태 -> 놓친 메시지 순서로 보냄
+        // 잠금 순서는 broadcasting과 같게 방 -> 새 핸들러 -> 이전 핸들러
+        private void handleResume(GameMsg inMsg) {
+            String token = inMsg.getResumeToken();
+            ClientHandler old = token == null ? null : sessions.get(token);
+            if (old == null || old == this) {
+                server.printDisplay("[접속][재접속 실패] 알 수 없거나 만료된 토큰", "접속");
+                sendGameMsg(new GameMsg(GameMsg.RESUME_FAILED));
+                return;
+            }
+            Room room = old.currentRoom;
+            Object roomLock = room != null ? room : new Object();
+            int missedCount;
+            long dropped;
+            long detachedMillis;
+            synchronized (roomLock) {
+                synchronized (this) {
+                    List<GameMsg> pending;
+                    synchronized (old) {
+                        if (old.resumedBy != null) { // 이미 만료됨
+                            sendGameMsg(new GameMsg(GameMsg.RESUME_FAILED));
+                            return;
+                        }
+                        old.detach("재접속 요청"); // 서버가 아직 끊김을 모르는 경우
+                        user = old.user;
+                        userName = old.userName;
+                        playerId = old.playerId;
+                        currentRoom = old.currentRoom;
+                        isLiar = old.isLiar;
+                        readyUsers = old.readyUsers;
+                        liar = old.liar;
+                        resumeToken = old.resumeToken;
+                        udpKey = old.udpKey;
+                        udpIn = old.udpIn;
+                        spectatingFeed = old.spectatingFeed;
+                        pending = new ArrayList<>(old.missed);
+                        dropped = old.missedDropped;
+                        detachedMillis = (System.nanoTime() - old.detachedAt) / 1_000_000;
+                        old.missed.clear();
+                        old.resumedBy = this;
+                    }
+                    users.remove(old);
+                    handlersById.put(playerId, this);
+                    usersVersion.incrementAndGet();
+                    sessions.put(resumeToken, this);
+                    if (spectatingFeed != null) spectatingFeed = joinFeed(spectatingFeed); // 지연된 시점의 상태부터 다시 받음
+
+                    GameMsg snapshot = room != null
+                            ? new GameMsg(GameMsg.RESUME_OK, user, room.getMembers(), room.getReadyUsers(), room.getRoomName())
+                            : new GameMsg(GameMsg.RESUME_OK, user, new Vector<>(), new Vector<>(), null);
+                    if (room != null) snapshot.setVersion(room.getStateVersion());
+                    snapshot.setResumeToken(resumeToken);
+                    snapshot.setCompress(negotiateCompression(inMsg));
+                    offerUdp(snapshot);
+                    sendGameMsg(snapshot);
+                    for (GameMsg msg : pending) {
+                        sendGameMsg(msg);
+                    }
+                    missedCount = pending.size();
+                }
+            }
+            server.printDisplay((room != null ? "[" + room.getRoomName() + "]" : "") + "[재접속] " + userName + "님이 "
+                    + detachedMillis + "ms 만에 돌아왔습니다. 놓친 메시지 " + missedCount + "개 전송"
+                    + (dropped > 0 ? " (" + dropped + "개 버림)" : ""), "접속");
         }
 
         private void handleLogin(GameMsg inMsg) {
+            playerId = nextPlayerId.incrementAndGet();
             user = inMsg.getUser();
+            user.setId(playerId);
             userName = user.name;
+            handlersById.put(playerId, this);
+            usersVersion.incrementAndGet();
             server.printDisplay("[접속][로그인] " + userName + "님이 로그인하였습니다.", "접속");
-            sendGameMsg(new GameMsg(GameMsg.LOGIN_OK, user));
+            synchronized (this) {
+                resumeToken = newResumeToken();
+                do {
+                    udpKey = tokenRandom.nextLong();
+                } while (udpKey == 0);
+            }
+            sessions.put(resumeToken, this);
+            GameMsg loginOk = new GameMsg(GameMsg.LOGIN_OK, user);
+            loginOk.setResumeToken(resumeToken);
+            loginOk.setCompress(negotiateCompression(inMsg));
+            offerUdp(loginOk);
+            sendGameMsg(loginOk);
         }
 
+        // 방 입장, 관전, 채팅은 보낸 User가 아니라 로그인 때 만든 이 연결의 user로 처리 (Room.Members에 들어가는 것도 이 객체)
         private void handleRoomSelect(GameMsg inMsg) {
-            user = inMsg.user;
             enterRoom(inMsg.getMsg());
             user.setCurrentRoom(currentRoom);
 //            user.currentRoom.setReadyUsers(currentRoom.getReadyUsers());
-            user.joinRoom(currentRoom);
-            if(user.currentRoom.getMemberCount() > 4) {
-                user.leaveRoom();
-                sendGameMsg(new GameMsg(GameMsg.ROOM_SELECT_DENIED, user));
-                server.printDisplay("[" + currentRoom.getRoomName() + "][방 입장 실패] " + userName + "님이 " + inMsg.getMsg() + "방에 입장하지 못했습니다.", "접속");
-                return;
+            synchronized (currentRoom) {
+                user.joinRoom(currentRoom);
+                if(user.currentRoom.getMemberCount() > 4) {
+                    user.leaveRoom();
+                    sendGameMsg(new GameMsg(GameMsg.ROOM_SELECT_DENIED, user));
+                    server.printDisplay("[" + currentRoom.getRoomName() + "][방 입장 실패] " + userName + "님이 " + inMsg.getMsg() + "방에 입장하지 못했습니다.", "접속");
+                    return;
+                }
+                server.printDisplay("[" + currentRoom.getRoomName() + "][방 입장] " + userName + "님 " + user.getCurrentRoom().getRoomName() + " 방 입장. 현재 : " + user.currentRoom.getMemberCount() + "명", "접속");
+                // 들어온 유저에게는 전체 상태, 나머지에게는 입장한 유저만 보냄 (같은 버전)
+                GameMsg snapshot = new GameMsg(GameMsg.ROOM_SELECT, user, currentRoom.getMembers(), currentRoom.getReadyUsers(), inMsg.getMsg());
+                GameMsg delta = roomDelta(GameMsg.ROOM_NEW_MEMBER, user);
+                delta.setMsg(inMsg.getMsg());
+                snapshot.setVersion(delta.getVersion());
+                sendGameMsg(snapshot);
+                broadcastExceptUser(user, delta);
             }
-            server.printDisplay("[" + currentRoom.getRoomName() + "][방 입장] " + userName + "님 " + user.getCurrentRoom().getRoomName() + " 방 입장. 현재 : " + user.currentRoom.getMemberCount() + "명", "접속");
-            sendGameMsg(new GameMsg(GameMsg.ROOM_SELECT, user, currentRoom.getMembers(), currentRoom.getReadyUsers(), inMsg.getMsg()));
-            broadcastExceptUser(user, new GameMsg(GameMsg.ROOM_NEW_MEMBER, user, currentRoom.getMembers(), currentRoom.getReadyUsers(), inMsg.getMsg())); // currentRoom
 
             // 4명 다 들어오면 준비 가능하도록
             if(user.currentRoom.getMemberCount() == 4) {
@@ -169,177 +710,460 @@ public class ServerManager {
             }
         }
 
+        private void startReplay(Room room) {
+            ReplayRecorder replay = ReplayRecorder.start(room.getRoomName(), room.getStartedAt());
+            if (replay == null) return;
+            for (User member : room.getMemberArray()) {
+                replay.join(member.name);
+            }
+            replay.role(liar != null ? liar.name : null, room.getKeyword());
+            ReplayRecorder previous = replays.put(room.getRoomName(), replay);
+            if (previous != null) previous.close(); // 결과 없이 끝난 이전 판
+        }
+
+        // 진행 중인 판이 없으면 null
+        private ReplayRecorder replayOf(Room room) {
+            return room == null ? null : replays.get(room.getRoomName());
+        }
+
+        private void handleLeaderboard() {
+            GameMsg leaderboardMsg = new GameMsg(GameMsg.LEADERBOARD);
+            leaderboardMsg.setMsg(leaderboard.format(LEADERBOARD_SIZE, userName));
+            sendGameMsg(leaderboardMsg);
+        }
+
+        // 관전 시작 : 방 멤버로 넣지 않고 중계에만 등록
+        private void handleSpectate(GameMsg inMsg) {
+            if (currentRoom != null) { // 방에 앉은 채로는 관전할 수 없음 (자리를 비우지 않고 남의 화면을 보게 됨)
+                sendGameMsg(new GameMsg(GameMsg.ROOM_SELECT_DENIED, user, "방에 입장한 상태에서는 관전할 수 없습니다."));
+                server.printDisplay("[" + currentRoom.getRoomName() + "][관전 거절] " + userName + "님은 방에 입장한 상태", "접속");
+                return;
+            }
+            Room room = findRoom(inMsg.getMsg());
+            if (room == null) { // 관전 요청으로는 방을 만들지 않음
+                sendGameMsg(new GameMsg(GameMsg.ROOM_SELECT_DENIED, user, "관전할 방이 없습니다."));
+                server.printDisplay("[관전 거절] " + userName + "님이 없는 방(" + inMsg.getMsg() + ")을 관전 요청", "접속");
+                return;
+            }
+            SpectatorFeed feed = joinFeed(new SpectatorFeed(room)); // 첫 상태(SPECTATE)도 지연된 시점의 것을 중계 스레드가 보냄
+            spectatingFeed = feed;
+            server.printDisplay("[" + room.getRoomName() + "][관전] " + userName + "님 관전 시작. 관전자 : " + feed.getSpectatorCount() + "명", "접속");
+        }
+
+        private void handleSpectatorMessage(GameMsg inMsg) {
+            switch (inMsg.getMode()) {
+                case GameMsg.ROOM_EXIT:
+                    stopSpectating();
+                    sendGameMsg(new GameMsg(GameMsg.ROOM_EXIT_OK, user));
+                    break;
+                case GameMsg.LOGOUT:
+                    synchronized (this) {
+                        loggedOut = true;
+                    }
+                    stopSpectating();
+                    sendGameMsg(new GameMsg(GameMsg.LOGOUT, user));
+                    break;
+                case GameMsg.LEADERBOARD:
+                    handleLeaderboard();
+                    break;
+                default:
+                    // 관전자의 채팅, 그림, 투표, 준비 등은 무시
+                    break;
+            }
+        }
+
+        private void stopSpectating() {
+            if (spectatingFeed == null) return;
+            leaveFeed(spectatingFeed);
+            server.printDisplay("[관전] " + userName + "님 관전 종료", "접속");
+            spectatingFeed = null;
+        }
+
+        // 그 방의 중계에 관전자로 넣음. 중계가 없으면 feed를 등록 (처음 관전하면 새 중계, 재접속이면 끊기 전의 중계)
+        // 맵 항목을 잠근 채로 넣어서, 마지막 관전자가 나가며 중계를 지우는 것(leaveFeed)과 겹치지 않게 함
+        private SpectatorFeed joinFeed(SpectatorFeed feed) {
+            return spectatorFeeds.compute(feed.getRoomName(), (name, current) -> {
+                SpectatorFeed joined = current != null ? current : feed;
+                joined.addSpectator(sender, user);
+                return joined;
+            });
+        }
+
+        // 관전자가 하나도 남지 않으면 중계를 지움 (다음 관전 요청 때 다시 만듦)
+        private void leaveFeed(SpectatorFeed feed) {
+            feed.removeSpectator(sender);
+            spectatorFeeds.computeIfPresent(feed.getRoomName(), (name, current) -> current.hasSpectators() ? current : null);
+        }
+
+        // 관전자가 있는 방이면 지연 중계 큐에 넣음 (없으면 아무것도 안 함)
+        private void publishToSpectators(Room room, GameMsg msg) {
+            SpectatorFeed feed = spectatorFeeds.get(room.getRoomName());
+            if (feed != null && feed.hasSpectators()) {
+                feed.publish(msg);
+            }
+        }
+
+        // 클라이언트가 버전 차이를 발견하면 전체 상태를 다시 보냄
+        private void handleRoomStateRequest() {
+            if (currentRoom == null) return;
+            synchronized (currentRoom) {
+                GameMsg snapshot = new GameMsg(GameMsg.ROOM_STATE, currentRoom.getCurrentTurnUser(), currentRoom.getMembers(), currentRoom.getReadyUsers());
+                snapshot.setVersion(currentRoom.getStateVersion());
+                sendGameMsg(snapshot);
+            }
+        }
+
+        // 방 상태 변경분 메시지 (버전 증가)
+        private GameMsg roomDelta(int mode, User changedUser) {
+            GameMsg msg = new GameMsg(mode, changedUser);
+            msg.setVersion(currentRoom.nextStateVersion());
+            return msg;
+        }
+
         private void handleChatMessage(GameMsg inMsg) {
-            user = inMsg.user;
-            broadcasting(new GameMsg(GameMsg.CHAT_MESSAGE, user, inMsg.getMsg()));
-            server.printDisplay("[채팅][" + currentRoom.getRoomName() + "] " + inMsg.user.name + "님 : " + inMsg.getMsg(), "채팅+이모티콘");
+            if (currentRoom == null) return;
+            if (!rateLimiter.tryAcquire(GameMsg.CHAT_MESSAGE)) {
+                droppedChats.increment();
+                if (!chatLimitNotified) { // 연속으로 막힐 때는 한 번만 알림
+                    chatLimitNotified = true;
+                    sendGameMsg(new GameMsg(GameMsg.CHAT_MESSAGE, null, "채팅을 너무 빠르게 보내고 있습니다."));
+                    server.printDisplay("[채팅][" + currentRoom.getRoomName() + "] " + userName + "님 채팅 제한 (누적 차단 " + droppedChats.sum() + "건)", "채팅+이모티콘");
+                }
+                return;
+            }
+            chatLimitNotified = false;
+            broadcasting(new GameMsg(GameMsg.CHAT_MESSAGE, user.publicCopy(), inMsg.getMsg()));
+            ReplayRecorder replay = replayOf(currentRoom);
+            if (replay != null) replay.chat(userName, inMsg.getMsg());
+            server.printDisplay("[채팅][" + currentRoom.getRoomName() + "] " + userName + "님 : " + inMsg.getMsg(), "채팅+이모티콘");
         }
 
         private void handleChatEmoticon(GameMsg inMsg) {
-            broadcasting(new GameMsg(GameMsg.CHAT_EMOTICON, inMsg.user, inMsg.getMsg()));
-            server.printDisplay("[이모티콘][" + user.currentRoom.getRoomName() + "] " + inMsg.user.name + "님 : \"" + inMsg.getMsg() + "\" 이모티콘 전송", "채팅+이모티콘");
+            if (currentRoom == null) return;
+            synchronized (this) {
+                if (pendingEmoticon != null || !rateLimiter.tryAcquire(GameMsg.CHAT_EMOTICON)) {
+                    // 제한에 걸리면 마지막 이모티콘만 남겨 두었다가 토큰이 생길 때 한 번에 전송
+                    if (pendingEmoticon == null) {
+                        long delay = rateLimiter.nanosUntilAvailable(GameMsg.CHAT_EMOTICON);
+                        scheduler.schedule(this::flushPendingEmoticon, delay, TimeUnit.NANOSECONDS);
+                    } else {
+                        mergedEmoticons.increment();
+                    }
+                    pendingEmoticon = inMsg;
+                    pendingEmoticonCount++;
+                    return;
+                }
+            }
+            broadcasting(new GameMsg(GameMsg.CHAT_EMOTICON, user.publicCopy(), inMsg.getMsg()));
+            server.printDisplay("[이모티콘][" + currentRoom.getRoomName() + "] " + userName + "님 : \"" + inMsg.getMsg() + "\" 이모티콘 전송", "채팅+이모티콘");
+        }
+
+        private void flushPendingEmoticon() {
+            GameMsg msg;
+            int count;
+            synchronized (this) {
+                if (pendingEmoticon == null) return;
+                if (!rateLimiter.tryAcquire(GameMsg.CHAT_EMOTICON)) { // 아직 토큰이 없으면 다시 예약
+                    scheduler.schedule(this::flushPendingEmoticon, rateLimiter.nanosUntilAvailable(GameMsg.CHAT_EMOTICON), TimeUnit.NANOSECONDS);
+                    return;
+                }
+                msg = pendingEmoticon;
+                count = pendingEmoticonCount;
+                pendingEmoticon = null;
+                pendingEmoticonCount = 0;
+            }
+            if (currentRoom == null) return;
+            broadcasting(new GameMsg(GameMsg.CHAT_EMOTICON, user.publicCopy(), msg.getMsg()));
+            server.printDisplay("[이모티콘][" + currentRoom.getRoomName() + "] " + userName + "님 : \"" + msg.getMsg() + "\" 이모티콘 전송 (" + count + "개 병합, 누적 병합 " + mergedEmoticons.sum() + "건)", "채팅+이모티콘");
         }
 
+        // 준비/해제, 퇴장, 로그아웃은 보낸 User가 아니라 이 연결의 user로 처리 (다른 사람 User를 보내도 그 사람이 바뀌지 않음)
         private void handleGameReady(GameMsg inMsg) {
-            inMsg.user.setCurrentRoom(currentRoom);
-            inMsg.user.setReady();
-            currentRoom = inMsg.user.getCurrentRoom();
+            if (currentRoom == null) return;
+            synchronized (currentRoom) {
+                user.setReady();
+                broadcasting(roomDelta(GameMsg.GAME_READY_OK, user));
+            }
             server.printDisplay("[" + currentRoom.getRoomName() + "][준비]" + user.name + " 님 준비 완료", "게임상태");
-            broadcasting(new GameMsg(GameMsg.GAME_READY_OK, inMsg.user, currentRoom.getReadyUsers()));
         }
 
         private void handleGameUnReady(GameMsg inMsg) {
+            if (currentRoom == null) return;
             server.printDisplay("[" + currentRoom.getRoomName() + "][준비 해제]" + user.name + " 님 준비 해제", "게임상태");
-            inMsg.user.setCurrentRoom(currentRoom);
-            inMsg.user.setUnReady();
-            currentRoom = inMsg.user.getCurrentRoom();
-            broadcasting(new GameMsg(GameMsg.GAME_UN_READY_OK, inMsg.user, currentRoom.getReadyUsers()));
+            synchronized (currentRoom) {
+                user.setUnReady();
+                broadcasting(roomDelta(GameMsg.GAME_UN_READY_OK, user));
+            }
         }
 
+        // 방, 멤버, 준비 목록은 모두 서버 것만 씀 (보낸 User의 방이나 목록은 믿지 않음)
         private void handleGameStart(GameMsg inMsg) {
-            currentRoom = inMsg.user.getCurrentRoom();
+            if (currentRoom == null) return;
             server.printDisplay("[" + currentRoom.getRoomName() + "][시작] 게임이 시작됩니다.", "게임상태");
-//            currentRoom = inMsg.user.currentRoom;
-            readyUsers = inMsg.readyUsers;
-            liar = selectLiar(inMsg.readyUsers);
-            liar.isLiar = true;
+            User[] ready = currentRoom.getReadyUserArray();
+            readyUsers = new Vector<>(Arrays.asList(ready));
+            liar = selectLiar(ready);
             if(liar == null) {
                 System.out.println("라이어가 뽑히지 않았습니다.");
                 server.printDisplay("[" + currentRoom.getRoomName() + "][에러] 라이어가 뽑히지 않았습니다.", "게임상태");
-            } else {
-                server.printDisplay("[" + currentRoom.getRoomName() + "][라이어] 라이어 : "+ liar.name, "게임상태");
-                System.out.println("뽑힌 라이어 이름 : " + liar.name);
+                return;
             }
-            currentRoom.setMembers(inMsg.userNames);
+            liar.isLiar = true;
+            server.printDisplay("[" + currentRoom.getRoomName() + "][라이어] 라이어 : "+ liar.name, "게임상태");
+            System.out.println("뽑힌 라이어 이름 : " + liar.name);
+            // 방 카테고리에서 이번 판 키워드 뽑기
+            currentRoom.setKeyword(keywordDictionary.nextKeyword(currentRoom));
+            server.printDisplay("[" + currentRoom.getRoomName() + "][키워드] " + currentRoom.getKeyword(), "게임상태");
             //턴 초기화
             currentRoom.resetTurns();
-            System.out.println("setMembers 함 : " + currentRoom.getMembers());
+            currentRoom.setStartedAt(System.currentTimeMillis());
+            startReplay(currentRoom);
 
             broadcastIndividualUser(liar, new GameMsg(GameMsg.LIAR_NOTIFICATION, liar, currentRoom.getKeyword()));
             broadcastExceptUser(liar, new GameMsg(GameMsg.KEYWORD_NOTIFICATION, user, currentRoom.getKeyword()));
+            SpectatorFeed feed = spectatorFeeds.get(currentRoom.getRoomName());
+            if (feed != null && feed.hasSpectators()) feed.publishStart(user);
             // 타이머 시작
             server.printDisplay("[" + currentRoom.getRoomName() + "][타이머] 타이머 시작", "게임상태");
+            currentRoom.setPhase(Room.DRAWING);
+            ServerEvents.phase(currentRoom, Room.DRAWING);
             startRoomTimer(currentRoom, DRAWING_TIME);
         }
 
         private void handleVote(GameMsg inMsg) {
-            String votedUser = inMsg.getMsg();
-            if (votedUser != null) {
+            User voted = currentRoom.getMember(inMsg.getTargetId());
+            if (voted != null) {
                 String message = userName + "님이 투표를 완료했습니다.";
-                server.printDisplay("[" + currentRoom.getRoomName() + "][투표] " + userName + "님이 " + votedUser + "에게 투표했습니다.", "투표");
+                server.printDisplay("[" + currentRoom.getRoomName() + "][투표] " + userName + "님이 " + voted.name + "에게 투표했습니다.", "투표");
                 broadcasting(new GameMsg(GameMsg.CHAT_MESSAGE, null, message));
-                currentRoom.addVote(votedUser);
+                currentRoom.addVote(voted.getId());
+                ReplayRecorder replay = replayOf(currentRoom);
+                if (replay != null) replay.vote(userName, voted.name);
             } else {
-                server.printDisplay("[" + currentRoom.getRoomName() + "][투표] 투표 값이 null입니다.", "투표");
+                server.printDisplay("[" + currentRoom.getRoomName() + "][투표] 방에 없는 플레이어(#" + inMsg.getTargetId() + ")에게 투표했습니다.", "투표");
             }
         }
 
         // 그림 데이터를 처리하는 메서드
         private void handleDrawAction(GameMsg inMsg) {
             Paint paintData = inMsg.getPaintData();
-            Color color = inMsg.getPaintData().getColor() != null ? inMsg.getPaintData().getColor() : Color.BLACK;
-            //드로잉 확인 패널
-            server.printDisplay("[페인팅][" + currentRoom.getRoomName()+ "][" + user.name + "]" + "시작(" + paintData.getStartX() + ", " + paintData.getStartY() +
-                    "), 끝(" + paintData.getEndX() + ", " + paintData.getEndY() + "), 색상: " + paintData.getColor() +
-                    ", 지우개 모드: " + paintData.isErasing(), "페인팅");
-            broadcasting(new GameMsg(GameMsg.DRAW_ACTION, paintData)); // 그림 데이터를 다른 클라이언트들에게 전송
+            // 받은 메시지를 그대로 중계 (획마다 새 GameMsg와 로그 문자열을 만들지 않음. 획 수는 턴이 바뀔 때 로그로)
+            broadcasting(inMsg); // 그림 데이터를 다른 클라이언트들에게 전송
+            currentRoom.countStroke();
+            ReplayRecorder replay = replayOf(currentRoom);
+            if (replay != null) replay.stroke(paintData);
+        }
+
+        // UDP로 받은 미리보기 구간 (UDP 수신 스레드) : 그린 사람을 뺀 방 멤버 중 UDP가 되는 쪽은 UDP로,
+        // 나머지와 관전자에게는 TCP DRAW_ACTION으로
+        void relayPreview(int seq, Paint paint, ByteBuffer relay) throws IOException {
+            Room room = currentRoom;
+            DatagramChannel channel = udpChannel;
+            if (room == null || channel == null) return;
+            if (!udpIn.accept(seq)) return; // 중복이거나 이미 커밋으로 처리함
+            udpReceived.increment();
+            StrokeDatagram.header(relay, StrokeDatagram.RELAY);
+            relay.putInt(playerId).putInt(seq);
+            StrokeDatagram.putSegment(relay, paint);
+            relay.flip();
+            GameMsg tcpCopy = null;
+            for (ClientHandler handler : relayTargetsOf(room)) {
+                if (handler == null || handler == this) continue;
+                SocketAddress address = handler.udpAddress;
+                if (address != null) {
+                    if (StrokeDatagram.send(channel, relay, address)) udpRelayed.increment();
+                } else {
+                    if (tcpCopy == null) tcpCopy = new GameMsg(GameMsg.DRAW_ACTION, paint);
+                    handler.sendGameMsg(tcpCopy);
+                }
+            }
+            SpectatorFeed feed = spectatorFeeds.get(room.getRoomName());
+            if (feed != null && feed.hasSpectators()) {
+                feed.publish(tcpCopy != null ? tcpCopy : new GameMsg(GameMsg.DRAW_ACTION, paint));
+            }
+        }
+
+        // UDP로 미리 보낸 구간들의 확정본 : 서버가 UDP로 못 받은 구간은 TCP만 쓰는 멤버와 관전자에게 DRAW_ACTION으로,
+        // UDP 멤버에게는 커밋을 그대로 보내서 각자 빠진 구간을 채우게 함. 획 수와 리플레이는 여기서 기록
+        private void handleStrokeCommit(GameMsg inMsg) {
+            Paint[] segments = inMsg.getStrokeSegments();
+            if (currentRoom == null || segments == null || segments.length == 0) return;
+            // 커밋은 이미 그려진 획의 확정본이라 버리면 다른 멤버 그림에 구멍이 남음 -> 개수 제한 없이 크기만 제한
+            // (정상 클라이언트는 COMMIT_SEGMENTS개마다 커밋하므로 MAX_COMMIT_SEGMENTS를 넘을 일이 없음)
+            if (segments.length > MAX_COMMIT_SEGMENTS) {
+                server.printDisplay("[" + currentRoom.getRoomName() + "][그림] " + userName + "님의 너무 큰 획 커밋(" + segments.length + "개)을 무시합니다.", "게임상태");
+                return;
+            }
+            int firstSeq = inMsg.getFirstSeq();
+            inMsg.setDrawerId(playerId);
+            ReplayRecorder replay = replayOf(currentRoom);
+            synchronized (currentRoom) {
+                ClientHandler[] targets = relayTargetsOf(currentRoom);
+                for (int i = 0; i < segments.length; i++) {
+                    if (udpIn.accept(firstSeq + i)) { // 서버도 못 받음
+                        udpRecovered.increment();
+                        GameMsg missed = new GameMsg(GameMsg.DRAW_ACTION, segments[i]);
+                        for (ClientHandler handler : targets) {
+                            if (handler != null && handler != this && handler.udpAddress == null) handler.sendGameMsg(missed);
+                        }
+                        publishToSpectators(currentRoom, missed);
+                    }
+                    currentRoom.countStroke();
+                    if (replay != null) replay.stroke(segments[i]);
+                }
+                udpIn.commitThrough(firstSeq + segments.length - 1);
+                for (ClientHandler handler : targets) {
+                    if (handler != null && handler != this && handler.udpAddress != null) handler.sendGameMsg(inMsg);
+                }
+            }
         }
 
         private void handleGameRetry(GameMsg inMsg) {
+            if (currentRoom == null) return;
             server.printDisplay("[" + currentRoom.getRoomName() + "][재시작] " + userName + "님이 다시 시작을 눌렀습니다.", "게임상태");
             user.isLiar = false;
-            currentRoom.setReadyUsers(inMsg.readyUsers);
-            inMsg.user.setCurrentRoom(currentRoom);
-            inMsg.user.setUnReady();
-            broadcasting(new GameMsg(GameMsg.GAME_UN_READY_OK, user, inMsg.user.currentRoom.getReadyUsers()));
+            synchronized (currentRoom) {
+                user.setCurrentRoom(currentRoom);
+                user.setUnReady();
+                broadcasting(roomDelta(GameMsg.GAME_UN_READY_OK, user));
+            }
         }
 
         private void handleRoomExit(GameMsg inMsg) {
 //            user = inMsg.user;
-            currentRoom.setReadyUsers(inMsg.readyUsers);
-            currentRoom.removeReadyUser(inMsg.user);
-            currentRoom.setMembers(inMsg.userNames);
-            currentRoom.removeMember(inMsg.user);
-            broadcastExceptUser(inMsg.user, new GameMsg(GameMsg.ROOM_EXIT, inMsg.user, currentRoom.getMembers(), currentRoom.getReadyUsers()));
+            if (currentRoom == null) return;
+            synchronized (currentRoom) {
+                currentRoom.removeReadyUser(user);
+                currentRoom.removeMember(user); // 멤버 목록은 서버 것만 씀 (보낸 목록으로 덮어쓰지 않음)
+                broadcastExceptUser(user, roomDelta(GameMsg.ROOM_EXIT, user));
+            }
+            ReplayRecorder replay = replayOf(currentRoom);
+            if (replay != null) replay.exit(userName);
             server.printDisplay("[" + currentRoom.getRoomName() + "][방 퇴장] " + userName + "님이 " + currentRoom.getRoomName() + "방을 나갔습니다. 현재 인원 : " + currentRoom.getMemberCount() +"명", "접속");
 
-            inMsg.user.setCurrentRoom(currentRoom);
+            user.setCurrentRoom(currentRoom);
 //            inMsg.user.setUnReady(); // inMsg.user.currentRoom 이미 null임 여기서
 //            inMsg.user.leaveRoom(); // user의 currentRoom null됨
-            sendGameMsg(new GameMsg(GameMsg.ROOM_EXIT_OK, inMsg.user));
+            sendGameMsg(new GameMsg(GameMsg.ROOM_EXIT_OK, user));
 //            currentRoom = null;
         }
 
         private void handleLogout(GameMsg inMsg) {
-            currentRoom.setReadyUsers(inMsg.readyUsers);
-            currentRoom.removeReadyUser(inMsg.user);
-            currentRoom.setMembers(inMsg.userNames);
-            currentRoom.removeMember(inMsg.user);
-
-            broadcastExceptUser(inMsg.user, new GameMsg(GameMsg.ROOM_EXIT, inMsg.user, currentRoom.getMembers(), currentRoom.getReadyUsers()));
+            synchronized (this) {
+                loggedOut = true; // 이후 연결이 끊겨도 재접속 대기 없음
+            }
+            if (resumeToken != null) sessions.remove(resumeToken, this);
+            if (currentRoom == null) {
+                sendGameMsg(new GameMsg(GameMsg.LOGOUT, user));
+                return;
+            }
+            synchronized (currentRoom) {
+                currentRoom.removeReadyUser(user);
+                currentRoom.removeMember(user);
+                broadcastExceptUser(user, roomDelta(GameMsg.ROOM_EXIT, user));
+            }
+            ReplayRecorder replay = replayOf(currentRoom);
+            if (replay != null) replay.exit(userName);
             server.printDisplay("[" + currentRoom.getRoomName() + "][방 퇴장] " + userName + "님이 " + currentRoom.getRoomName() + "방을 나갔습니다. 현재 인원 : " + currentRoom.getMemberCount() +"명", "접속");
             server.printDisplay("[" + currentRoom.getRoomName() + "][로그아웃] " + userName + "님이 로그아웃했습니다.", "접속");
 
-            inMsg.user.setCurrentRoom(currentRoom);
+            user.setCurrentRoom(currentRoom);
 //            inMsg.user.setUnReady();
 //            inMsg.user.leaveRoom(); // user의 currentRoom null됨
-            sendGameMsg(new GameMsg(GameMsg.LOGOUT, inMsg.user));
+            sendGameMsg(new GameMsg(GameMsg.LOGOUT, user));
 //            currentRoom = null;
         }
 
         //
 
+        // 전송 스레드의 레인 큐에 넣기만 함 (호출한 스레드는 소켓 쓰기를 기다리지 않음)
+        // 연결이 끊긴 동안은 쌓아 두고, 이어받은 핸들러가 있으면 그쪽으로 넘김
         private void sendGameMsg(GameMsg msg) {
-            try {
-                out.writeObject(msg);
-                out.flush();
-            } catch (IOException e) {
-                System.out.println("[접속][에러] 서버 sendGameMsg 전송 오류>" + e.getMessage());
-                e.printStackTrace();
+            ClientHandler target;
+            ServerEvents.Send event = new ServerEvents.Send();
+            event.begin();
+            synchronized (this) {
+                target = resumedBy;
+                if (target == null) {
+                    if (detached) {
+                        addMissed(msg);
+                    } else if (sender != null) {
+                        sender.send(msg);
+                    }
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.room = currentRoom != null ? currentRoom.getRoomName() : null;
+                        event.user = userName;
+                        event.mode = GameMsg.modeName(msg.mode);
+                        event.detached = detached;
+                        event.commit();
+                    }
+                    return;
+                }
             }
+            if (target != this) target.sendGameMsg(msg); // 만료된 경우(자기 자신)는 버림
+        }
+
+        public PrioritySender getSender() {
+            return sender;
         }
 
         private void startRoomTimer(Room room, int totalTime) {
             new Thread(() -> {
                 int remainingTime = totalTime;
                 int turns = 0; // 현재 턴 횟수
-                int totalTurns = room.getMembers().size(); // 총 턴 횟수
+                int totalTurns = room.getMemberCount(); // 총 턴 횟수
                 int turnTimeRemaining = DRAWING_PERTIME; // 각 턴의 남은 시간 초기화
+                long turnStrokes = room.getStrokeCount();
                 try {
                     // 첫 번째 사용자 알림
                     room.nextTurn(); // 첫 사용자 설정
                     User currentUser = room.getCurrentTurnUser();
                     if (currentUser != null) {
-                        GameMsg firstTurnMsg = new GameMsg(GameMsg.TIME, currentUser, "Your turn!", remainingTime, room.getMembers());
-                        broadcasting(firstTurnMsg);
+                        GameMsg firstTurnMsg = new GameMsg(GameMsg.TIME, currentUser, "Your turn!", remainingTime, null);
+                        synchronized (room) {
+                            firstTurnMsg.setVersion(room.nextStateVersion());
+                            broadcasting(firstTurnMsg);
+                        }
+                        ReplayRecorder replay = replayOf(room);
+                        if (replay != null) replay.turn(currentUser.getName());
                         server.printDisplay("[" + room.getRoomName() + "][턴] " + currentUser.getName() + " 님이 그림을 그릴 차례입니다.", "게임상태");
                     }
 
+                    room.setTimeLeft(remainingTime);
                     while (remainingTime > 0) {
-                        Thread.sleep(1000); // 1초 간격으로 실행
+                        sleepTick(); // 1초 간격으로 실행
                         remainingTime--;
+                        room.setTimeLeft(remainingTime);
                         turnTimeRemaining--; // 현재 턴의 남은 시간 감소
                         // 턴 종료 조건 확인
                         if (turnTimeRemaining <= 0 && remainingTime > 0) {
+                            turnStrokes = logTurnStrokes(room, currentUser, turnStrokes);
                             turnTimeRemaining = DRAWING_PERTIME; // 다음 턴 시간 초기화
                             room.nextTurn(); // 다음 사용자로 턴 전환
                             currentUser = room.getCurrentTurnUser();
 
                             // 다음 사용자 알림
                             if (currentUser != null) {
-                                GameMsg turnMsg = new GameMsg(GameMsg.TIME, currentUser, "Your turn!", remainingTime, room.getMembers());
-                                broadcasting(turnMsg);
+                                GameMsg turnMsg = new GameMsg(GameMsg.TIME, currentUser, "Your turn!", remainingTime, null);
+                                synchronized (room) {
+                                    turnMsg.setVersion(room.nextStateVersion());
+                                    broadcasting(turnMsg);
+                                }
+                                ReplayRecorder replay = replayOf(room);
+                                if (replay != null) replay.turn(currentUser.getName());
                                 server.printDisplay("[" + room.getRoomName() + "][턴] " + currentUser.getName() + " 님이 그림을 그릴 차례입니다.", "게임상태");
                             }
                         }
-                        // TIME 메시지를 생성하여 브로드캐스트
-                        GameMsg timeMsg = new GameMsg(GameMsg.TIME, null, null, remainingTime, currentRoom.getMembers());
+                        // TIME 메시지를 생성하여 브로드캐스트 (멤버 목록은 변경분으로만 보냄)
+                        GameMsg timeMsg = new GameMsg(GameMsg.TIME, null, null, remainingTime, null);
                         broadcasting(timeMsg);
                     }
+                    logTurnStrokes(room, currentUser, turnStrokes);
                     //시간 종료되면 투표 모드 전환
                     server.printDisplay("[" + room.getRoomName() + "][타이머] 타이머 종료", "게임상태");
                     // 투표 타이머:
-                    GameMsg voteStartMsg = new GameMsg(GameMsg.VOTE, null, "투표를 시작하세요!", VOTE_TIME, currentRoom.getMembers());
+                    GameMsg voteStartMsg = new GameMsg(GameMsg.VOTE, null, "투표를 시작하세요!", VOTE_TIME, null);
                     voteStartMsg.setVoteStart(true); // 투표 시작 메시지로 설정
                     broadcasting(voteStartMsg);
                     // 투표 타이머 시작
@@ -351,20 +1175,54 @@ public class ServerManager {
             }).start();
         }
 
+        // 한 턴 동안 중계한 획 수를 로그로 남기고 현재 누적 획 수를 돌려줌
+        private long logTurnStrokes(Room room, User drawer, long strokesBefore) {
+            long strokes = room.getStrokeCount();
+            if (drawer != null) {
+                server.printDisplay("[페인팅][" + room.getRoomName() + "][" + drawer.getName() + "] 획 " + (strokes - strokesBefore) + "개", "페인팅");
+            }
+            return strokes;
+        }
+
+        // 타이머 1초 대기 (늦게 깬 만큼을 지표에 기록)
+        private void sleepTick() throws InterruptedException {
+            long start = System.nanoTime();
+            Thread.sleep(1000);
+            timerLag.record(System.nanoTime() - start - 1_000_000_000L);
+        }
+
         // 투표 타이머 실행
         private void startVoteTimer(Room room, int voteTime) {
             new Thread(() -> {
                 int remainingTime = voteTime;
+                room.setPhase(Room.VOTING);
+                ServerEvents.phase(room, Room.VOTING);
+                room.setTimeLeft(remainingTime);
                 try {
                     while (remainingTime > 0) {
-                        Thread.sleep(1000);
+                        sleepTick();
                         remainingTime--;
+                        room.setTimeLeft(remainingTime);
                         // 타이머 메시지 전송
-                        GameMsg voteTimeMsg = new GameMsg(GameMsg.VOTE, null, null, remainingTime, currentRoom.getMembers());
+                        GameMsg voteTimeMsg = new GameMsg(GameMsg.VOTE, null, null, remainingTime, null);
                         voteTimeMsg.setVoteStart(false); // 타이머 메시지
                         broadcasting(voteTimeMsg);
                     }
+                    ServerEvents.VoteResult event = new ServerEvents.VoteResult();
+                    event.begin();
+                    int votes = room.getVoteTotal();
                     collectVoteResults(room);
+                    event.end();
+                    if (event.shouldCommit()) {
+                        ResultsLog.GameResult result = lastResult;
+                        event.room = room.getRoomName();
+                        event.accused = result != null && result.accusedIndex >= 0 ? result.players[result.accusedIndex] : null;
+                        event.liarVictory = result != null && result.liarVictory;
+                        event.votes = votes;
+                        event.commit();
+                    }
+                    room.setPhase(Room.WAITING);
+                    ServerEvents.phase(room, Room.WAITING);
                     // 투표 결과 집계
                     server.printDisplay("[" + room.getRoomName() + "][타이머] 투표 시간 종료", "게임상태");
                 } catch (InterruptedException e) {
@@ -375,9 +1233,9 @@ public class ServerManager {
 
         //투표 결과 집계
         private void collectVoteResults(Room room) {
-            Map<String, Integer> voteCounts = room.getVoteCounts();
+            int mostVoted = room.getMostVoted();
             // 아무도 투표하지 않은 경우 처리
-            if (voteCounts.isEmpty()) {
+            if (mostVoted == 0) {
                 String liarVictoryMessage = "라이어: " + liar.name;
                 System.out.println(liarVictoryMessage);
                 // 라이어에게 메시지 전송
@@ -390,20 +1248,19 @@ public class ServerManager {
                         liar,
                         new GameMsg(GameMsg.GAME_END, liar, liarVictoryMessage, false) // false = 라이어가 승리
                 );
+                recordResult(room, null, true);
                 // 투표 상태 및 게임 상태 초기화
                 room.resetVoteCounts();
                 server.printDisplay("[" + room.getRoomName() + "][투표] 아무도 투표하지 않음. 게임 상태 초기화 완료", "투표");
                 return; // 조기 종료
             }
 
-            // 최다 득표자 계산
-            String liarCandidate = voteCounts.entrySet().stream()
-                    .max(Map.Entry.comparingByValue())
-                    .get()
-                    .getKey();
+            // 최다 득표자 (투표 뒤에 나갔으면 이름 대신 번호로 표시)
+            User accused = room.getMember(mostVoted);
+            String liarCandidate = accused != null ? accused.name : "#" + mostVoted;
 
             // 라이어 승리 여부 판단
-            boolean liarVictory = !liarCandidate.equals(liar.name);
+            boolean liarVictory = mostVoted != liar.getId();
 
             // 서버 패널 표시용 ----------
             String resultMessage = liarVictory
@@ -433,6 +1290,7 @@ public class ServerManager {
                     new GameMsg(GameMsg.GAME_END, liar, userResultMessage, isWinner)
             );
 
+            recordResult(room, accused, liarVictory);
             server.printDisplay("[" + room.getRoomName() + "][투표] 결과 : " + liarCandidate, "투표");
             server.printDisplay("[" + room.getRoomName() + "][투표] 결과 : " + resultMessage, "게임상태");
             room.resetVoteCounts(); // 투표 초기화
@@ -440,43 +1298,109 @@ public class ServerManager {
             server.printDisplay("[" + room.getRoomName() + "][게임상태] 투표 값, 라이어 초기화", "게임상태");
         }
 
+        // 결과 로그에 넣기만 함 (기록은 results-writer 스레드가 모아서 처리)
+        private void recordResult(Room room, User accused, boolean liarVictory) {
+            User[] members = room.getMemberArray();
+            int count = Math.min(members.length, ResultsLog.MAX_PLAYERS);
+
+            ResultsLog.GameResult result = new ResultsLog.GameResult();
+            result.roomName = room.getRoomName();
+            result.keyword = room.getKeyword();
+            result.players = new String[count];
+            result.votes = new int[count];
+            result.liarIndex = -1;
+            result.accusedIndex = -1;
+            for (int i = 0; i < count; i++) {
+                result.players[i] = members[i].name;
+                result.votes[i] = room.getVoteCount(members[i].id);
+                if (liar != null && members[i].id == liar.getId()) result.liarIndex = i;
+                if (accused != null && members[i].id == accused.getId()) result.accusedIndex = i;
+            }
+            result.liarVictory = liarVictory;
+            result.startMillis = room.getStartedAt();
+            result.endMillis = System.currentTimeMillis();
+            resultsLog.append(result);
+            lastResult = result;
+
+            ReplayRecorder replay = replays.remove(room.getRoomName());
+            if (replay != null) replay.finish(accused != null ? accused.name : null, liarVictory);
+        }
+
         private void broadcasting(GameMsg msg) {
             if (currentRoom == null) {
-                server.printDisplay("[접속] broadcasting 실패: " + msg.user.name + " 클라이언트가 방에 속해 있지 않습니다.", "접속");
+                server.printDisplay("[접속] broadcasting 실패: " + userName + " 클라이언트가 방에 속해 있지 않습니다.", "접속");
                 return;
             }
             // 같은 방에 있는 멤버들에게만 메시지를 전송
+            ServerEvents.Broadcast event = new ServerEvents.Broadcast();
+            event.begin();
+            long start = System.nanoTime();
+            int fanOut = 0;
             synchronized (currentRoom) {
-                for (User member : currentRoom.getMembers()) {
-//                    System.out.println("Broadcast 대상: " + member.name);
-                    ClientHandler handler = findHandlerByUser(member);
+                for (ClientHandler handler : relayTargetsOf(currentRoom)) {
                     if (handler != null) { // 핸들어 있을때
                         handler.sendGameMsg(msg);
+                        fanOut++;
                     }
                 }
             }
+            broadcastTime.record(System.nanoTime() - start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.room = currentRoom.getRoomName();
+                event.mode = GameMsg.modeName(msg.mode);
+                event.fanOut = fanOut;
+                event.commit();
+            }
+            publishToSpectators(currentRoom, msg);
         }
 
-        private ClientHandler findHandlerByUser(User user) {
-            for (ClientHandler handler : users) {
-                if (handler.userName.equals(user.name)) {
-                    return handler;
-                }
+        // 방 멤버 순서대로의 핸들러 배열. 멤버 배열과 users가 그대로면 캐시를 그대로 씀
+        private ClientHandler[] relayTargetsOf(Room room) {
+            User[] members = room.getMemberArray();
+            int version = usersVersion.get();
+            RelayTargets cached = relayTargets.get(room);
+            if (cached != null && cached.members == members && cached.usersVersion == version) {
+                return cached.handlers;
+            }
+            ClientHandler[] handlers = new ClientHandler[members.length];
+            for (int i = 0; i < members.length; i++) {
+                handlers[i] = findHandlerByUser(members[i]);
             }
-            return null;
+            relayTargets.put(room, new RelayTargets(members, version, handlers));
+            return handlers;
+        }
+
+        private ClientHandler findHandlerByUser(User user) {
+            return handlersById.get(user.getId());
+        }
+
+        // 클라이언트가 원하고 서버도 허용하면 이 연결에서 보내는 것을 압축 (프레임마다 표시가 있어서 바로 켜도 됨)
+        private boolean negotiateCompression(GameMsg request) {
+            boolean compress = Compression.ENABLED && request.isCompress();
+            compressedOut.setNegotiated(compress);
+            compressedIn.setNegotiated(compress);
+            return compress;
+        }
+
+        // UDP를 열었으면 포트와 이 세션의 키를 알려 줌 (클라이언트가 HELLO를 보내야 UDP로 중계 시작)
+        private void offerUdp(GameMsg reply) {
+            if (udpChannel == null) return;
+            reply.setUdpPort(udpPort);
+            reply.setUdpKey(udpKey);
         }
 
         private void broadcastIndividualUser(User liar, GameMsg msg) {
             if (currentRoom == null) {
-                server.printDisplay("[접속] broadcasting 실패: " + msg.user.name + " 클라이언트가 방에 속해 있지 않습니다.", "접속");
+                server.printDisplay("[접속] broadcasting 실패: " + userName + " 클라이언트가 방에 속해 있지 않습니다.", "접속");
                 return;
             }
             // 같은 방에 있는 멤버들에게만 메시지를 전송
             synchronized (currentRoom) {
-                for (User member : currentRoom.getMembers()) {
+                for (User member : currentRoom.getMemberArray()) {
                     System.out.println("Broadcast 대상: " + member.name);
                     ClientHandler handler = findHandlerByUser(member);
-                    if (handler.userName.equals(liar.name)) { // 라이어만
+                    if (handler != null && member.getId() == liar.getId()) { // 라이어만
                         handler.isLiar = true;
                         handler.sendGameMsg(msg);
                     }
@@ -486,34 +1410,32 @@ public class ServerManager {
 
         private void broadcastExceptUser(User liar, GameMsg msg) {
             if (currentRoom == null) {
-                server.printDisplay("[접속] broadcasting 실패: " + msg.user.name + " 클라이언트가 방에 속해 있지 않습니다.", "접속");
+                server.printDisplay("[접속] broadcasting 실패: " + userName + " 클라이언트가 방에 속해 있지 않습니다.", "접속");
                 return;
             }
             // 같은 방에 있는 멤버들에게만 메시지를 전송
             synchronized (currentRoom) {
-                for (User member : currentRoom.getMembers()) {
+                for (User member : currentRoom.getMemberArray()) {
                     ClientHandler handler = findHandlerByUser(member);
-                    if (!handler.userName.equals(liar.name)) { // 라이어 빼고
+                    if (handler != null && member.getId() != liar.getId()) { // 라이어 빼고
                         System.out.println("broadcastExceptUser 대상: " + member.name);
                         handler.sendGameMsg(msg);
                     }
                 }
             }
+            // 관전자에게는 입장/퇴장, 시민 쪽 결과만
+            if (msg.mode == GameMsg.ROOM_NEW_MEMBER || msg.mode == GameMsg.ROOM_EXIT || msg.mode == GameMsg.GAME_END) {
+                publishToSpectators(currentRoom, msg);
+            }
         }
 
+        // 이름이 같은 방 (없으면 null, 새로 만들지 않음)
         private Room findRoom(String roomName) {
             synchronized (rooms) {
-                // 방 검색
-                Room room = rooms.stream()
-                        .filter(r -> r.getRoomName().equals(roomName)) // 이름이 같은 방 필터링
-                        .findFirst() // 첫 번째 방 반환
-                        .orElseGet(() -> { // 방이 없으면 새로 생성
-                            Room newRoom = new Room(roomName);
-                            rooms.add(newRoom); // 새 방을 목록에 추가
-                            server.printDisplay("[접속] 새 방 생성 : " + roomName, "접속");
-                            return newRoom; // 새로 만든 방 반환
-                        });
-                return room;
+                return rooms.stream()
+                        .filter(r -> r.getRoomName().equals(roomName))
+                        .findFirst()
+                        .orElse(null);
             }
         }
 
@@ -538,24 +1460,6 @@ public class ServerManager {
 //                user.joinRoom(room);
 //                user.setCurrentRoom(room);
                 currentRoom = room; // 현재 클라이언트의 방 업데이트
-
-                // 방 이름에 따라 키워드 설정
-                switch (currentRoom.getRoomName()) {
-                    case "food":
-                        currentRoom.setKeyword("햄버거");
-                        break;
-                    case "place":
-                        currentRoom.setKeyword("에펠탑");
-                        break;
-                    case "animal":
-                        currentRoom.setKeyword("사자");
-                        break;
-                    case "character":
-                        currentRoom.setKeyword("뽀로로");
-                        break;
-                    default:
-                        currentRoom.setKeyword("마카롱");
-                }
             }
         }
 
@@ -566,8 +1470,9 @@ public class ServerManager {
 //                    currentRoom.removeMember(user);
                     user.leaveRoom();
                     // 방의 멤버가 아무도 없다면 방 삭제
-                    if (currentRoom.getMembers().isEmpty()) {
+                    if (currentRoom.isEmpty()) {
                         rooms.remove(currentRoom);
+                        relayTargets.remove(currentRoom);
                         server.printDisplay("[접속] 빈 방 삭제: " + currentRoom.getRoomName(), "접속");
                     }
                     // 현재 방 정보 초기화
@@ -576,27 +1481,39 @@ public class ServerManager {
             }
         }
 
-        private User selectLiar(Vector<User> readyUsers) {
+        // 준비한 사람이 없으면 null
+        private User selectLiar(User[] readyUsers) {
+            if (readyUsers.length == 0) return null;
             // 랜덤으로 라이어 선택
             Random random = new Random();
-            int liarIndex = random.nextInt(readyUsers.size());
-            User liarUser = readyUsers.get(liarIndex);
+            int liarIndex = random.nextInt(readyUsers.length);
+            User liarUser = readyUsers[liarIndex];
 
             return liarUser;
         }
 
         private void disconnectClient() {
+            if (resumeToken != null) sessions.remove(resumeToken, this);
+            stopSpectating();
             if (user != null) {
                 user.leaveRoom(); // User 메서드 호출
             }
 
             users.remove(this); // 클라이언트 목록에서 제거
+            if (playerId != 0) handlersById.remove(playerId, this);
+            usersVersion.incrementAndGet();
             try {
+                if (sender != null) {
+                    sender.close();
+                    sender.join(200); // 남은 메시지(LOGOUT 등)를 보낼 시간을 잠깐 줌
+                }
                 if (in != null) in.close();
                 if (out != null) out.close();
                 if (clientSocket != null) clientSocket.close();
             } catch (IOException e) {
                 server.printDisplay("[접속][에러]클라이언트 소켓 닫기 오류: " + e.getMessage(), "접속");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
 
@@ -605,4 +1522,17 @@ public class ServerManager {
             receiveMessage();
         }
     }
+
+    // 방 하나의 중계 대상 캐시 (members는 Room.getMemberArray()가 돌려준 배열 그대로)
+    private static class RelayTargets {
+        final User[] members;
+        final int usersVersion;
+        final ClientHandler[] handlers;
+
+        RelayTargets(User[] members, int usersVersion, ClientHandler[] handlers) {
+            this.members = members;
+            this.usersVersion = usersVersion;
+            this.handlers = handlers;
+        }
+    }
 }
@@ -0,0 +1,31 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// 대시보드용 서버 상태 한 장 (ServerManager.snapshot()이 만들고, 이후에는 바뀌지 않음)
+// 누적 값만 담고 초당 값은 대시보드가 직전 스냅샷과의 차이로 계산
+public class ServerSnapshot {
+    public long takenAt; // nanoTime
+    public int connected, sessions, detached, spectators;
+    public long messagesIn, messagesOut;
+    public long bytesIn, bytesOut;
+    public long payloadOut; // 압축 전 보낸 바이트
+    public long broadcastCount, broadcastNanos;
+    public long timerTicks, timerLagNanos;
+    public final List<RoomRow> rooms = new ArrayList<>();
+
+    public static class RoomRow {
+        public final String name;
+        public final int phase;
+        public final int members;
+        public final int timeLeft;
+        public final long strokes;
+
+        public RoomRow(String name, int phase, int members, int timeLeft, long strokes) {
+            this.name = name;
+            this.phase = phase;
+            this.members = members;
+            this.timeLeft = timeLeft;
+            this.strokes = strokes;
+        }
+    }
+}
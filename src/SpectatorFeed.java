@@ -0,0 +1,216 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// 한 방의 관전자용 지연 중계
+// - 플레이어 쪽 broadcasting은 publish()로 큐에 넣기만 함 (관전자가 없으면 이 객체 자체가 없음)
+// - 관전 전용 스레드가 DELAY가 지난 메시지를 모아 한 번만 직렬화하고
+//   같은 바이트 배열을 모든 관전자의 전송 큐에 넣음 (관전자 수만큼 직렬화하지 않음)
+// - 키워드/라이어 통보는 관전자에게 보내지 않고, 지연을 둬서 관전자가 진행 상황을 알려 줄 수 없게 함
+// - 서버의 User에는 방(키워드)과 라이어 여부가 달려 있으므로 직렬화할 때는 GameMsg.publicCopy()로 바꿔서 씀
+// - 멤버/준비 목록이 바뀔 때마다 그 시점의 상태(Snapshot)도 같은 큐에 넣어 함께 지연시킴
+//   새 관전자와 밀려서 묶음을 건너뛴 관전자는 지연된 시점의 상태부터 다시 받음 (현재 방 상태는 보내지 않음)
+public class SpectatorFeed {
+    public static final long DELAY = 15_000_000_000L; // ns
+    public static final String HIDDEN_KEYWORD = "???";
+    private static final int MAX_BACKLOG = 64; // 관전자 전송 큐가 이보다 밀려 있으면 이번 묶음은 건너뛰고 다시 맞춤
+
+    private final Room room;
+    private final String roomName;
+    private final ArrayDeque<Object[]> delayed = new ArrayDeque<>(); // {GameMsg 또는 Snapshot, 넣은 시각(Long)}
+    private final List<PrioritySender> spectators = new CopyOnWriteArrayList<>();
+    private final Map<PrioritySender, User> joining = new ConcurrentHashMap<>(); // 첫 상태를 기다리는 관전자 -> 관전자 User
+    private final Set<PrioritySender> resyncing = ConcurrentHashMap.newKeySet(); // 묶음을 건너뛰어 상태를 다시 받아야 하는 관전자
+    private long droppedBatches = 0;
+
+    // delayed 잠금 안에서만 : 마지막으로 큐에 넣은 상태 (바뀌었는지는 배열이 같은 객체인지로 확인)
+    private User[] queuedMembers;
+    private User[] queuedReady;
+    private int queuedVersion = 0;
+    private Snapshot released = null; // delayed 잠금 안에서만 : DELAY가 지나 내보낸 마지막 상태
+
+    // 지연된 시점의 방 상태. 만들 때 바로 공개용 복사본으로 바꿔 둠 (이후 준비 여부 등이 바뀌어도 그대로)
+    private static class Snapshot {
+        final Vector<User> members;
+        final Vector<User> ready;
+        final int version;
+
+        Snapshot(User[] members, User[] ready, int version) {
+            this.members = publicCopies(members);
+            this.ready = publicCopies(ready);
+            this.version = version;
+        }
+
+        private static Vector<User> publicCopies(User[] users) {
+            Vector<User> copies = new Vector<>(users.length);
+            for (User user : users) {
+                copies.add(user.publicCopy());
+            }
+            return copies;
+        }
+    }
+
+    public SpectatorFeed(Room room) {
+        this.room = room;
+        this.roomName = room.getRoomName();
+        this.queuedVersion = room.getStateVersion();
+    }
+
+    public String getRoomName() { return roomName; }
+
+    public static boolean isVisible(GameMsg msg) {
+        return msg.mode != GameMsg.LIAR_NOTIFICATION && msg.mode != GameMsg.KEYWORD_NOTIFICATION;
+    }
+
+    public void publish(GameMsg msg) {
+        if (!isVisible(msg)) return;
+        add(msg);
+    }
+
+    // 게임 시작 알림 (키워드는 가림)
+    public void publishStart(User starter) {
+        add(new GameMsg(GameMsg.KEYWORD_NOTIFICATION, starter, HIDDEN_KEYWORD));
+    }
+
+    private void add(GameMsg msg) {
+        long now = System.nanoTime();
+        synchronized (delayed) {
+            queuedVersion = Math.max(queuedVersion, msg.getVersion());
+            delayed.add(new Object[]{msg, now});
+            queueSnapshotIfChanged(now, false); // 이 메시지로 바뀐 상태는 메시지 바로 뒤에
+        }
+    }
+
+    // 멤버/준비 목록은 바뀔 때마다 배열을 새로 만드므로 잠금 없이 같은 객체인지만 봄
+    private void queueSnapshotIfChanged(long now, boolean force) {
+        User[] members = room.getMemberArray();
+        User[] ready = room.getReadyUserArray();
+        if (!force && members == queuedMembers && ready == queuedReady) return;
+        queuedMembers = members;
+        queuedReady = ready;
+        delayed.add(new Object[]{new Snapshot(members, ready, queuedVersion), now});
+    }
+
+    // 관전 시작 : 지연된 시점의 상태(SPECTATE)를 보낸 뒤부터 중계를 받음. 상태는 관전 스레드의 release()에서 보냄
+    // 관전자가 없던 동안에는 아무것도 큐에 넣지 않았으므로, 그때는 지금 상태부터 다시 쌓고 DELAY 뒤에 시작
+    public void addSpectator(PrioritySender sender, User spectator) {
+        synchronized (delayed) {
+            if (!hasSpectators()) {
+                delayed.clear();
+                released = null;
+                queueSnapshotIfChanged(System.nanoTime(), true);
+            }
+            joining.put(sender, spectator);
+        }
+    }
+
+    public void removeSpectator(PrioritySender sender) {
+        synchronized (delayed) {
+            joining.remove(sender);
+            resyncing.remove(sender);
+            spectators.remove(sender);
+        }
+    }
+
+    public boolean hasSpectators() {
+        return !spectators.isEmpty() || !joining.isEmpty();
+    }
+
+    public int getSpectatorCount() {
+        return spectators.size() + joining.size();
+    }
+
+    public synchronized long getDroppedBatches() {
+        return droppedBatches;
+    }
+
+    // 관전 스레드에서 주기적으로 호출
+    // 이번 묶음은 중계 중인 관전자에게만 보냄. 새 관전자와 다시 맞출 관전자는 묶음 대신 이번 묶음까지 반영된 상태를 받고
+    // 다음 묶음부터 이어서 받음 (아직 DELAY가 지난 상태가 없으면 생길 때까지 기다림)
+    public void release() {
+        List<GameMsg> due = new ArrayList<>();
+        Snapshot state;
+        List<PrioritySender> joined = new ArrayList<>(); // 이번 묶음까지 반영된 상태를 받았으므로 이번 묶음은 건너뜀
+        long now = System.nanoTime();
+        synchronized (delayed) {
+            while (!delayed.isEmpty() && now - (Long) delayed.peek()[1] >= DELAY) {
+                Object entry = delayed.poll()[0];
+                if (entry instanceof Snapshot) released = (Snapshot) entry;
+                else due.add((GameMsg) entry);
+            }
+            state = released;
+            // 새 관전자는 addSpectator와 같은 잠금 안에서 옮겨야 비운 뒤의 상태만 받음
+            if (state != null) {
+                for (Map.Entry<PrioritySender, User> entry : joining.entrySet()) {
+                    GameMsg snapshot = new GameMsg(GameMsg.SPECTATE, entry.getValue(), state.members, state.ready, roomName);
+                    snapshot.setVersion(state.version);
+                    byte[] encoded = encodeOrLog(List.of(snapshot));
+                    if (encoded == null) break;
+                    entry.getKey().sendEncoded(encoded);
+                    spectators.add(entry.getKey());
+                    joined.add(entry.getKey());
+                    joining.remove(entry.getKey());
+                }
+            }
+        }
+
+        if (!due.isEmpty() && !spectators.isEmpty()) {
+            byte[] encoded = encodeOrLog(due);
+            if (encoded == null) return;
+            for (PrioritySender sender : spectators) {
+                if (resyncing.contains(sender) || joined.contains(sender)) continue;
+                if (sender.getQueueDepth(PrioritySender.BULK) > MAX_BACKLOG) {
+                    synchronized (this) {
+                        droppedBatches++;
+                    }
+                    resyncing.add(sender); // 빠진 묶음이 있으므로 이후 변경분만으로는 상태를 맞출 수 없음
+                    continue;
+                }
+                sender.sendEncoded(encoded);
+            }
+        }
+        if (state != null && !resyncing.isEmpty()) {
+            byte[] encoded = null;
+            for (PrioritySender sender : resyncing) {
+                if (sender.getQueueDepth(PrioritySender.BULK) > MAX_BACKLOG) continue; // 아직 밀려 있음
+                if (encoded == null) {
+                    GameMsg roomState = new GameMsg(GameMsg.ROOM_STATE, null, state.members, state.ready);
+                    roomState.setVersion(state.version);
+                    encoded = encodeOrLog(List.of(roomState));
+                    if (encoded == null) return;
+                }
+                sender.sendEncoded(encoded);
+                resyncing.remove(sender);
+            }
+        }
+    }
+
+    private byte[] encodeOrLog(List<GameMsg> messages) {
+        try {
+            return encode(messages);
+        } catch (IOException e) {
+            System.err.println("관전 데이터 직렬화 실패 [" + roomName + "] : " + e.getMessage());
+            return null;
+        }
+    }
+
+    // [메시지 개수][GameMsg]... 를 독립된 객체 스트림 하나로
+    static byte[] encode(List<GameMsg> messages) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + messages.size() * 128);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeInt(messages.size());
+            for (GameMsg msg : messages) {
+                out.writeObject(msg.publicCopy());
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -17,7 +17,7 @@ public class StartPanel extends JPanel {
         private Image background;
         // 생성자에서 배경 이미지 설정
         public BackgroundPanel(String imagePath) {
-            background = new ImageIcon(getClass().getResource(imagePath)).getImage();
+            background = ImageCache.getIcon(imagePath).getImage();
             setLayout(null); // 컴포넌트 배치를 자유롭게 설정
         }
 
@@ -46,9 +46,7 @@ public class StartPanel extends JPanel {
         t_nickname.addActionListener(e -> connectAndSendNickname());
         t_nickname.setAlignmentX(JTextField.CENTER_ALIGNMENT);
 
-        ImageIcon originalIcon = new ImageIcon(getClass().getResource("/images/start.png"));
-        Image resizedImage = originalIcon.getImage().getScaledInstance(60, 60, Image.SCALE_SMOOTH);
-        ImageIcon resizedIcon = new ImageIcon(resizedImage);
+        ImageIcon resizedIcon = ImageCache.getIcon("/images/start.png", 60, 60);
         JLabel startButton = new JLabel(resizedIcon);
         // MouseListener 추가
         startButton.addMouseListener(new java.awt.event.MouseAdapter() {
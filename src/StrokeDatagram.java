@@ -0,0 +1,293 @@
+import java.awt.*;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+// 그리는 중인 획을 TCP 제어 스트림 옆의 UDP로 미리 보내는 채널 (선택 사항)
+// - 그리는 사람은 구간마다 순번을 붙여 UDP로 보내고, 획이 끝나거나 COMMIT_SEGMENTS개/COMMIT_MILLIS마다
+//   그 구간들을 TCP로 한 번 더 보냄 (STROKE_COMMIT, 서버와 받는 쪽은 이것을 기준으로 삼음)
+// - UDP는 잃어버려도 되고, TCP 한 스트림에서 앞의 큰 메시지나 재전송 뒤에 막히지 않음 (head-of-line blocking)
+// - 받는 쪽은 그린 사람마다 Sequence로 중복/늦은 패킷을 거르고, 커밋에서 UDP로 못 받은 구간만 그림
+// - 서버는 로그인 때 UDP 포트와 키를 알려 주고, 클라이언트가 HELLO를 보내면 그 주소로 중계함
+//   (HELLO_ACK를 받기 전, 또는 UDP를 못 쓰는 클라이언트는 지금처럼 TCP DRAW_ACTION만 씀)
+//
+// 패킷 형식 : [MAGIC][종류][...]
+//   HELLO     : [플레이어 번호 int][키 long]                          클라이언트 -> 서버
+//   HELLO_ACK : (없음)                                              서버 -> 클라이언트
+//   STROKE    : [플레이어 번호 int][키 long][순번 int][구간]            클라이언트 -> 서버
+//   RELAY     : [그린 플레이어 번호 int][순번 int][구간]                서버 -> 클라이언트
+//   구간      : [x1, y1, x2, y2 (short)][색상 argb (int)][지우개 (byte)][그린 시각 (int)]
+//
+// -Dudp=false로 끔 (양쪽 모두), -Dudp.loss=0.1이면 보내는 패킷의 10%를 버림 (손실 시험용)
+public class StrokeDatagram {
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("udp", "true"));
+    public static final int COMMIT_SEGMENTS = 16; // 이만큼 모이면 획이 안 끝났어도 커밋
+    public static final int COMMIT_MILLIS = 100; // 가장 오래된 구간이 이만큼 지났으면 커밋
+    public static final int MAX_PACKET = 64;
+
+    static final byte MAGIC = (byte) 0xC7;
+    public static final byte HELLO = 1;
+    public static final byte HELLO_ACK = 2;
+    public static final byte STROKE = 3;
+    public static final byte RELAY = 4;
+
+    private static volatile double loss = Double.parseDouble(System.getProperty("udp.loss", "0"));
+
+    static void setLoss(double value) { loss = value; }
+
+    // 손실 시험 중이면 일부러 버림 (버렸으면 false). packet은 position부터 limit까지 보내고 그대로 둠
+    public static boolean send(DatagramChannel channel, ByteBuffer packet, SocketAddress to) throws IOException {
+        if (loss > 0 && ThreadLocalRandom.current().nextDouble() < loss) return false;
+        int position = packet.position();
+        channel.send(packet, to);
+        packet.position(position);
+        return true;
+    }
+
+    public static void header(ByteBuffer packet, byte type) {
+        packet.clear();
+        packet.put(MAGIC).put(type);
+    }
+
+    // MAGIC이 맞으면 종류, 아니면 0
+    public static byte typeOf(ByteBuffer packet) {
+        if (packet.remaining() < 2 || packet.get() != MAGIC) return 0;
+        return packet.get();
+    }
+
+    public static void putSegment(ByteBuffer packet, Paint paint) {
+        packet.putShort((short) paint.getStartX()).putShort((short) paint.getStartY())
+                .putShort((short) paint.getEndX()).putShort((short) paint.getEndY());
+        packet.putInt(paint.getColor() != null ? paint.getColor().getRGB() : 0xFF000000);
+        packet.put((byte) (paint.isErasing() ? 1 : 0));
+        packet.putInt(paint.getDrawnAt());
+    }
+
+    public static Paint getSegment(ByteBuffer packet) {
+        int startX = packet.getShort(), startY = packet.getShort(), endX = packet.getShort(), endY = packet.getShort();
+        Color color = new Color(packet.getInt(), true);
+        Paint paint = new Paint(startX, startY, endX, endY, color, packet.get() != 0);
+        paint.setDrawnAt(packet.getInt());
+        return paint;
+    }
+
+    // 그린 사람 한 명의 순번 창 (여러 스레드에서 써도 됨)
+    // committed까지는 커밋으로 처리가 끝났고, 그 뒤는 받은 순번을 seen에 표시
+    public static class Sequence {
+        private static final int WINDOW = 4096; // 이보다 앞선 순번이 오면 창을 옮김 (사이는 버린 것으로 봄)
+        private int committed = 0;
+        private BitSet seen = new BitSet();
+
+        // 처음 보는 순번이면 true (그려야 함). 이미 받았거나 커밋이 지난 순번이면 false
+        public synchronized boolean accept(int seq) {
+            if (seq - committed <= 0) return false;
+            if (seq - committed > WINDOW) commitThrough(seq - WINDOW);
+            int offset = seq - committed - 1;
+            if (seen.get(offset)) return false;
+            seen.set(offset);
+            return true;
+        }
+
+        // seq까지 처리 끝 (늦게 온 UDP 패킷은 이제 버림)
+        public synchronized void commitThrough(int seq) {
+            int shift = seq - committed;
+            if (shift <= 0) return;
+            seen = shift >= seen.length() ? new BitSet() : seen.get(shift, seen.length());
+            committed = seq;
+        }
+    }
+
+    // 펜에서 화면까지 걸리는 시간을 루프백에서 비교 : java StrokeDatagram [구간 수]
+    // 같은 획을 (1) TCP로만, (2) UDP 미리보기 + TCP 커밋으로 동시에 보내고, 받는 쪽에 처음 나타날 때까지의 시간을 잼
+    // 손실은 보내는 쪽에서 흉내 냄
+    // - UDP : 패킷을 그냥 버림 (위의 send)
+    // - TCP : 사용자 공간에서는 세그먼트를 버릴 수 없어서, 잃어버린 세그먼트는 최소 재전송 시간(TCP_RTO) 뒤에 쓰고
+    //         그 뒤의 데이터도 그때까지 막아 둠 (재전송 + head-of-line blocking과 같은 효과)
+    public static void main(String[] args) throws Exception {
+        int segments = args.length > 0 ? Integer.parseInt(args[0]) : 600;
+        for (double rate : new double[]{0, 0.02, 0.1}) {
+            Bench bench = new Bench(segments, rate);
+            bench.run();
+            System.out.printf("손실 %4.1f%% : TCP만 %s | UDP+커밋 %s (커밋으로 채움 %d)%n",
+                    rate * 100, bench.summary(bench.tcpLatency), bench.summary(bench.udpLatency), bench.recovered);
+        }
+    }
+
+    private static class Bench {
+        static final int PEN_MILLIS = 5; // 마우스 이벤트 간격
+        static final long TCP_RTO = 200_000_000L; // 리눅스 최소 RTO (ns)
+
+        final int segments;
+        final double rate;
+        final long[] sentAt;
+        final long[] tcpLatency, udpLatency;
+        int recovered = 0;
+
+        Bench(int segments, double rate) {
+            this.segments = segments;
+            this.rate = rate;
+            sentAt = new long[segments + 1];
+            tcpLatency = new long[segments + 1];
+            udpLatency = new long[segments + 1];
+        }
+
+        void run() throws Exception {
+            setLoss(rate);
+            InetAddress loopback = InetAddress.getLoopbackAddress();
+            try (ServerSocket listener = new ServerSocket(0, 2, loopback);
+                 DatagramChannel udpIn = DatagramChannel.open().bind(new InetSocketAddress(loopback, 0));
+                 DatagramChannel udpOut = DatagramChannel.open()) {
+                Socket tcpPlain = new Socket(loopback, listener.getLocalPort());
+                Socket tcpPlainIn = listener.accept();
+                Socket tcpCommit = new Socket(loopback, listener.getLocalPort());
+                Socket tcpCommitIn = listener.accept();
+                for (Socket socket : new Socket[]{tcpPlain, tcpPlainIn, tcpCommit, tcpCommitIn}) socket.setTcpNoDelay(true);
+                SocketAddress udpTarget = udpIn.getLocalAddress();
+                Sequence sequence = new Sequence();
+
+                LossyTcp plain = new LossyTcp(tcpPlain.getOutputStream(), rate);
+                LossyTcp commits = new LossyTcp(tcpCommit.getOutputStream(), rate);
+                Thread plainReader = reader(tcpPlainIn, in -> tcpLatency[in.readInt()] = System.nanoTime());
+                Thread commitReader = reader(tcpCommitIn, in -> {
+                    int first = in.readInt(), count = in.readInt();
+                    long now = System.nanoTime();
+                    for (int seq = first; seq < first + count; seq++) {
+                        if (sequence.accept(seq)) {
+                            udpLatency[seq] = now;
+                            recovered++;
+                        }
+                    }
+                    sequence.commitThrough(first + count - 1);
+                });
+                Thread udpReader = new Thread(() -> {
+                    ByteBuffer packet = ByteBuffer.allocate(MAX_PACKET);
+                    try {
+                        while (true) {
+                            packet.clear();
+                            udpIn.receive(packet);
+                            packet.flip();
+                            if (typeOf(packet) != RELAY) continue;
+                            packet.getInt();
+                            int seq = packet.getInt();
+                            if (sequence.accept(seq)) udpLatency[seq] = System.nanoTime();
+                        }
+                    } catch (IOException e) {
+                        // 채널 닫힘
+                    }
+                });
+                udpReader.setDaemon(true);
+                udpReader.start();
+
+                // 펜 : PEN_MILLIS마다 한 구간. 120구간(한 획)마다 펜을 뗌
+                ByteBuffer packet = ByteBuffer.allocate(MAX_PACKET);
+                Paint paint = new Paint(0, 0, 1, 1, Color.BLACK, false);
+                int commitFirst = 1;
+                long commitStarted = 0;
+                long next = System.nanoTime();
+                for (int seq = 1; seq <= segments; seq++) {
+                    next += PEN_MILLIS * 1_000_000L;
+                    while (System.nanoTime() < next) Thread.sleep(0, 200_000);
+                    long now = System.nanoTime();
+                    sentAt[seq] = now;
+                    plain.write(seq);
+                    header(packet, RELAY);
+                    packet.putInt(1).putInt(seq);
+                    putSegment(packet, paint);
+                    packet.flip();
+                    send(udpOut, packet, udpTarget);
+                    if (commitStarted == 0) commitStarted = now;
+                    boolean penUp = seq % 120 == 0 || seq == segments;
+                    if (penUp || seq - commitFirst + 1 >= COMMIT_SEGMENTS || now - commitStarted >= COMMIT_MILLIS * 1_000_000L) {
+                        commits.write(commitFirst, seq - commitFirst + 1);
+                        commitFirst = seq + 1;
+                        commitStarted = 0;
+                    }
+                }
+                plain.close();
+                commits.close();
+                plainReader.join();
+                commitReader.join();
+                tcpPlain.close();
+                tcpCommit.close();
+            } finally {
+                setLoss(0);
+            }
+            for (int seq = 1; seq <= segments; seq++) {
+                tcpLatency[seq] -= sentAt[seq];
+                udpLatency[seq] -= sentAt[seq];
+            }
+        }
+
+        String summary(long[] arrived) {
+            long[] sorted = Arrays.copyOfRange(arrived, 1, arrived.length);
+            Arrays.sort(sorted);
+            return String.format("p50 %5.2fms, p99 %6.2fms, 최대 %6.2fms",
+                    sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6, sorted[sorted.length - 1] / 1e6);
+        }
+
+        interface Frame {
+            void read(DataInputStream in) throws IOException;
+        }
+
+        static Thread reader(Socket socket, Frame frame) {
+            Thread thread = new Thread(() -> {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+                    while (true) frame.read(in);
+                } catch (IOException e) {
+                    // 보내는 쪽이 닫음
+                }
+            });
+            thread.start();
+            return thread;
+        }
+    }
+
+    // 보낼 int들을 쓰기 스레드에 넘김. 손실로 정해진 것은 TCP_RTO 뒤에 쓰고 그동안 뒤의 것도 기다림
+    private static class LossyTcp {
+        private static final int[] END = new int[0];
+        private final BlockingQueue<Object[]> queue = new ArrayBlockingQueue<>(4096);
+        private final Thread writer;
+
+        LossyTcp(OutputStream stream, double rate) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            writer = new Thread(() -> {
+                try {
+                    while (true) {
+                        Object[] item = queue.take();
+                        int[] values = (int[]) item[1];
+                        if (values == END) break;
+                        if (ThreadLocalRandom.current().nextDouble() < rate) {
+                            long retransmitAt = (long) item[0] + Bench.TCP_RTO;
+                            while (System.nanoTime() < retransmitAt) Thread.sleep(1);
+                        }
+                        for (int value : values) out.writeInt(value);
+                        out.flush(); // 실제 클라이언트처럼 보낼 때마다 (TCP_NODELAY)
+                    }
+                    out.close();
+                } catch (IOException | InterruptedException e) {
+                    // 끝
+                }
+            });
+            writer.start();
+        }
+
+        void write(int... values) throws InterruptedException {
+            queue.put(new Object[]{System.nanoTime(), values});
+        }
+
+        void close() throws InterruptedException {
+            queue.put(new Object[]{System.nanoTime(), END});
+            writer.join();
+        }
+    }
+}
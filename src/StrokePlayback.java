@@ -0,0 +1,254 @@
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+// 다른 사람이 그린 획을 그린 사람 쪽 시각(Paint.drawnAt)에 맞춰 다시 재생하는 지터 버퍼 (EDT에서만 씀)
+// - 도착 시각 - 그린 시각 = 시계 차이 + 네트워크 지연. 최근 최솟값(baseline)을 시계 차이로 보고,
+//   그보다 늦게 온 정도(최근 HISTORY개의 95%)에 여유 MARGIN을 더한 만큼 늦춰서 재생
+// - 재생 지연은 늘릴 때는 바로, 줄일 때는 천천히 (갑자기 줄이면 밀린 획이 한꺼번에 나옴)
+// - 화면 갱신 때마다 play()를 부르면 이어지는 구간은 시간 비율만큼 잘라서 그림
+//   (패킷이 몇 개씩 몰려 와도 선은 그린 속도대로 나옴)
+// - drawnAt이 0이면(시각 없음) 받는 즉시 그림
+// - drawnAt은 그린 사람 컴퓨터의 시계라 사람마다 기준이 다름. 턴이 바뀌면 resetTiming()으로 baseline과 기록을 버리고,
+//   그래도 RESYNC_MILLIS 넘게 늦은 구간이 RESYNC_SAMPLES개 이어지면 다른 시계로 보고 다시 잡음
+//   (이미 넣은 구간은 넣을 때의 baseline으로 재생 시각을 계산하므로 영향 없음)
+public class StrokePlayback {
+    private static final int MIN_DELAY = 20; // ms
+    private static final int MAX_DELAY = 250;
+    private static final int MARGIN = 10;
+    private static final int HISTORY = 64;
+    private static final int MAX_SEGMENT_MILLIS = 100; // 이보다 긴 간격은 보간하지 않음 (펜을 멈췄다 움직임)
+    private static final int BASELINE_CREEP_MILLIS = 1000; // 이 주기마다 baseline을 1ms 올림 (시계가 조금씩 어긋나는 것 따라감)
+    private static final double DELAY_DECAY = 0.02; // 재생마다 목표까지 줄이는 비율
+    private static final int RESYNC_MILLIS = 1000; // baseline보다 이만큼 늦으면 네트워크가 아니라 시계가 다른 것으로 의심
+    private static final int RESYNC_SAMPLES = 8;
+
+    public interface Sink {
+        void line(int startX, int startY, int endX, int endY, Color color);
+    }
+
+    private final ArrayDeque<Segment> queue = new ArrayDeque<>();
+    private final int[] excess = new int[HISTORY]; // 최근 (지연 - baseline)
+    private final int[] sorted = new int[HISTORY];
+    private int excessCount = 0, excessNext = 0;
+    private boolean hasBaseline = false;
+    private int baseline, lastCreep;
+    private int targetDelay = MIN_DELAY;
+    private double delay = MIN_DELAY;
+    private int farBehind = 0; // RESYNC_MILLIS 넘게 늦은 구간이 연속으로 몇 개 왔는지
+
+    // 마지막으로 그린 점 (다음 구간이 여기서 이어지면 보간)
+    private boolean hasLast = false;
+    private int lastX, lastY, lastDue;
+    private Segment partial = null; // 일부만 그린 구간
+    private long played = 0, late = 0;
+
+    // 재생 기준 시계 (ms). 0은 "시각 없음"이라 쓰지 않음
+    public static int clock() {
+        int now = (int) (System.nanoTime() / 1_000_000);
+        return now == 0 ? 1 : now;
+    }
+
+    public void add(Paint paint, int arrivedAt) {
+        int drawnAt = paint.getDrawnAt();
+        Segment segment = new Segment(paint, drawnAt);
+        if (drawnAt == 0) {
+            segment.immediateAt = arrivedAt;
+        } else {
+            int offset = arrivedAt - drawnAt;
+            if (hasBaseline && offset - baseline > RESYNC_MILLIS) {
+                if (++farBehind >= RESYNC_SAMPLES) resetTiming(); // 시계가 다른 사람이 그리는 중
+            } else {
+                farBehind = 0;
+            }
+            if (!hasBaseline || offset - baseline < 0) {
+                baseline = offset;
+                lastCreep = arrivedAt;
+                hasBaseline = true;
+            } else if (arrivedAt - lastCreep >= BASELINE_CREEP_MILLIS) {
+                baseline++;
+                lastCreep = arrivedAt;
+            }
+            segment.baseline = baseline;
+            if (farBehind == 0) recordExcess(offset - baseline); // 다른 시계일 수 있는 값은 지연 계산에 넣지 않음
+            if (arrivedAt - dueOf(segment) > 0) late++;
+        }
+        queue.add(segment);
+    }
+
+    // now까지 재생할 선을 sink로 넘김. 더 재생할 것이 남았으면 true
+    public boolean play(int now, Sink sink) {
+        if (targetDelay >= delay) {
+            delay = targetDelay;
+        } else {
+            delay -= Math.max(0.1, (delay - targetDelay) * DELAY_DECAY);
+        }
+        Segment segment;
+        while ((segment = queue.peek()) != null) {
+            int due = dueOf(segment);
+            boolean continues = hasLast && segment.startX == lastX && segment.startY == lastY;
+            if (due - now > 0) {
+                int span = due - lastDue;
+                if (continues && span > 0 && span <= MAX_SEGMENT_MILLIS && now - lastDue > 0) {
+                    // 이어지는 구간 : 시간 비율만큼만 그림
+                    double fraction = (now - lastDue) / (double) span;
+                    int x = segment.startX + (int) Math.round((segment.endX - segment.startX) * fraction);
+                    int y = segment.startY + (int) Math.round((segment.endY - segment.startY) * fraction);
+                    int fromX = partial == segment ? segment.headX : segment.startX;
+                    int fromY = partial == segment ? segment.headY : segment.startY;
+                    if (x != fromX || y != fromY) {
+                        sink.line(fromX, fromY, x, y, segment.color);
+                        segment.headX = x;
+                        segment.headY = y;
+                        partial = segment;
+                    }
+                }
+                return true;
+            }
+            queue.poll();
+            if (partial == segment) {
+                sink.line(segment.headX, segment.headY, segment.endX, segment.endY, segment.color);
+                partial = null;
+            } else {
+                sink.line(segment.startX, segment.startY, segment.endX, segment.endY, segment.color);
+            }
+            hasLast = true;
+            lastX = segment.endX;
+            lastY = segment.endY;
+            lastDue = due;
+            played++;
+        }
+        return false;
+    }
+
+    public void clear() {
+        queue.clear();
+        partial = null;
+        hasLast = false;
+        resetTiming();
+    }
+
+    // 그리는 사람이 바뀜 : 시계 기준과 지연 기록을 처음부터 다시 잡음 (큐에 남은 구간은 그대로 재생)
+    public void resetTiming() {
+        hasBaseline = false;
+        excessCount = 0;
+        excessNext = 0;
+        targetDelay = MIN_DELAY;
+        delay = MIN_DELAY;
+        farBehind = 0;
+    }
+
+    public boolean isEmpty() { return queue.isEmpty(); }
+    public int getQueued() { return queue.size(); }
+    public int getDelay() { return (int) Math.round(delay); }
+    public int getTargetDelay() { return targetDelay; }
+    public long getPlayed() { return played; }
+    public long getLate() { return late; } // 도착했을 때 이미 재생 시각이 지난 구간
+
+    private int dueOf(Segment segment) {
+        if (segment.drawnAt == 0) return segment.immediateAt;
+        return segment.drawnAt + segment.baseline + (int) Math.round(delay);
+    }
+
+    private void recordExcess(int value) {
+        excess[excessNext] = value;
+        excessNext = (excessNext + 1) % HISTORY;
+        if (excessCount < HISTORY) excessCount++;
+        System.arraycopy(excess, 0, sorted, 0, excessCount);
+        Arrays.sort(sorted, 0, excessCount);
+        int p95 = sorted[Math.min(excessCount - 1, (int) (excessCount * 0.95))];
+        targetDelay = Math.max(MIN_DELAY, Math.min(MAX_DELAY, p95 + MARGIN));
+    }
+
+    private static class Segment {
+        final int startX, startY, endX, endY;
+        final Color color;
+        final int drawnAt;
+        int immediateAt;
+        int baseline; // 넣을 때의 baseline (그 뒤에 다시 잡아도 이 구간의 재생 시각은 그대로)
+        int headX, headY; // 일부만 그렸을 때 어디까지 그렸는지
+
+        Segment(Paint paint, int drawnAt) {
+            this.startX = paint.getStartX();
+            this.startY = paint.getStartY();
+            this.endX = paint.getEndX();
+            this.endY = paint.getEndY();
+            this.color = paint.getColor();
+            this.drawnAt = drawnAt;
+        }
+    }
+
+    // 몰려서 도착하는 획을 흉내 내서 화면에 나오는 속도가 고른지 비교 : java StrokePlayback
+    // 그린 사람은 10ms마다 한 구간, 네트워크는 0~80ms 무작위 지연에 80ms마다 몰아서 보냄. 화면은 16ms마다 갱신
+    public static void main(String[] args) {
+        java.util.Random random = new java.util.Random(1);
+        int segments = 2000;
+        int[] arrive = new int[segments];
+        for (int i = 0; i < segments; i++) {
+            int sent = (i * 10 / 80 + 1) * 80; // 80ms마다 몰아서
+            arrive[i] = Math.max(i == 0 ? 0 : arrive[i - 1], sent + random.nextInt(80));
+        }
+        for (boolean buffered : new boolean[]{false, true}) {
+            StrokePlayback playback = new StrokePlayback();
+            int[] perFrame = new int[(segments * 10 + 1000) / 16];
+            int next = 0, frames = 0;
+            long[] drawn = new long[1];
+            for (int frame = 0; frame < perFrame.length; frame++) {
+                int now = 1_000 + frame * 16;
+                while (next < segments && 1_000 + arrive[next] <= now) {
+                    Paint paint = new Paint(next, 0, next + 1, 0, Color.BLACK, false);
+                    if (buffered) paint.setDrawnAt(1_000 - 500 + next * 10); // 시계 차이 500ms
+                    playback.add(paint, 1_000 + arrive[next]);
+                    next++;
+                }
+                drawn[0] = 0;
+                playback.play(now, (x1, y1, x2, y2, color) -> drawn[0] += x2 - x1);
+                perFrame[frame] = (int) drawn[0];
+                if (next == segments && playback.isEmpty()) {
+                    frames = frame + 1;
+                    break;
+                }
+            }
+            // 그리는 중인 구간(첫 획 ~ 마지막 획)의 프레임당 진행 거리 표준편차 : 작을수록 고르게 나옴
+            int first = 0, last = frames - 1;
+            while (perFrame[first] == 0) first++;
+            while (perFrame[last] == 0) last--;
+            double sum = 0, squares = 0;
+            int count = last - first + 1;
+            for (int i = first; i <= last; i++) {
+                sum += perFrame[i];
+                squares += perFrame[i] * (double) perFrame[i];
+            }
+            double mean = sum / count;
+            System.out.printf("%s : 프레임당 %.2fpx, 표준편차 %.2f, 재생 지연 %dms, 늦게 온 구간 %d%n",
+                    buffered ? "지터 버퍼" : "바로 그림", mean, Math.sqrt(squares / count - mean * mean), playback.getDelay(), playback.getLate());
+        }
+        drawerChange(false);
+        drawerChange(true);
+    }
+
+    // 턴이 바뀌어 시계가 30초 다른 사람이 그리기 시작함 : 두 번째 사람 구간의 늦은 개수와 끝난 뒤 재생 지연
+    // resetTiming()을 부르는 경우(턴 변경 알림)와 부르지 않는 경우(자동으로 다시 잡음)
+    private static void drawerChange(boolean resetOnTurn) {
+        StrokePlayback playback = new StrokePlayback();
+        java.util.Random random = new java.util.Random(2);
+        int[] clockOffset = {29_500, -500}; // 받는 쪽 시계와의 차이 (ms)
+        long lateBefore = 0;
+        for (int drawer = 0; drawer < 2; drawer++) {
+            if (drawer == 1) {
+                lateBefore = playback.getLate();
+                if (resetOnTurn) playback.resetTiming();
+            }
+            for (int i = 0; i < 1000; i++) {
+                int drawnAt = 100_000 + drawer * 20_000 + i * 10;
+                Paint paint = new Paint(i, drawer * 10, i + 1, drawer * 10, Color.BLACK, false);
+                paint.setDrawnAt(drawnAt + clockOffset[drawer]);
+                int arrivedAt = drawnAt + random.nextInt(40);
+                playback.add(paint, arrivedAt);
+                playback.play(arrivedAt, (x1, y1, x2, y2, color) -> { });
+            }
+        }
+        System.out.printf("그리는 사람 바뀜 (%s) : 두 번째 사람 구간 중 늦게 옴 %d/1000, 재생 지연 %dms%n",
+                resetOnTurn ? "턴 변경 때 초기화" : "자동으로 다시 잡음", playback.getLate() - lateBefore, playback.getDelay());
+    }
+}
@@ -1,11 +1,13 @@
 import java.io.Serializable;
+import java.util.Objects;
 
 public class User implements Serializable {
 
     private static final long serialVersionUID = 1L;
     private boolean isWinner = false;
 
-    String name; //닉네임
+    int id; // 서버가 로그인 때 정하는 플레이어 번호 (1부터, 0이면 아직 없음). 같은 사람인지는 이걸로 판단
+    String name; //닉네임 (표시용)
     Room currentRoom;  //속한 방 정보
     boolean ready;  //준비 여부 // 0: 대기 중 // 1: 준비완료
     boolean isLiar = false;
@@ -50,11 +52,22 @@ public class User implements Serializable {
         System.out.println("User setNotReady : " + this.name + " , room : " + currentRoom.getRoomName());
     }
 
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
     public String getName() {
         return name;
     }
     public void setName(String name) { this.name = name; }
 
+    // 관전자에게 보내는 복사본 : 번호, 이름, 준비 여부만 (방과 키워드, 라이어 여부는 빼고)
+    public User publicCopy() {
+        User copy = new User(name);
+        copy.id = id;
+        copy.ready = ready;
+        return copy;
+    }
+
     public Room getCurrentRoom() { return currentRoom; }
     public void setCurrentRoom(Room room) { this.currentRoom = room; }
 
@@ -71,7 +84,13 @@ public class User implements Serializable {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         User user = (User) obj;
-        return name != null && name.equals(user.name); // 이름이 같으면 동일한 객체로 간주
+        if (id != 0 || user.id != 0) return id == user.id;
+        return name != null && name.equals(user.name); // 로그인 전에는 이름으로
+    }
+
+    @Override
+    public int hashCode() {
+        return id != 0 ? id : Objects.hashCode(name);
     }
 
     @Override